@@ -0,0 +1,71 @@
+package org.lilbrocodes.commander.processor;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The command tree read from one {@code @CommandHandler} class, before it is written out as source.
+ */
+final class CommandTree {
+    final TypeElement handler;
+    final String plugin;
+    final Node root;
+
+    CommandTree(TypeElement handler, String plugin, Node root) {
+        this.handler = handler;
+        this.plugin = plugin;
+        this.root = root;
+    }
+
+    /**
+     * A literal of the tree. Nodes with children become groups, nodes with only a handler method become action nodes,
+     * and nodes with both become hybrid nodes.
+     */
+    static final class Node {
+        final String name;
+        final Map<String, Node> children = new LinkedHashMap<>();
+        String description = "";
+        String permission = "";
+        String mode = "SYNC";
+        int maxConcurrency;
+        Invoker invoker;
+
+        Node(String name) {
+            this.name = name;
+        }
+
+        boolean hasChildren() {
+            return !children.isEmpty();
+        }
+    }
+
+    /**
+     * A handler method together with the parameters it is called with.
+     */
+    static final class Invoker {
+        final ExecutableElement method;
+        final String className;
+        final String senderType; // Null if the method takes a plain CommandSender
+        final List<Param> params = new ArrayList<>();
+
+        Invoker(ExecutableElement method, String className, String senderType) {
+            this.method = method;
+            this.className = className;
+            this.senderType = senderType;
+        }
+    }
+
+    /**
+     * A typed parameter of a handler method.
+     *
+     * @param name the name shown in help and errors
+     * @param definition the expression creating the {@code TypedParameter}, with {@code %s} standing for the quoted name
+     * @param accessor the expression reading the value from {@code args}, with {@code %d} standing for the slot
+     */
+    record Param(String name, String definition, String accessor) {
+    }
+}
@@ -0,0 +1,375 @@
+package org.lilbrocodes.commander.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <Handler>Tree} class for every {@code @CommandHandler}, which builds the command tree and
+ * calls the handler methods through generated {@code ParsedExecutor}s, so nothing is looked up reflectively at runtime.
+ * <p>
+ * Annotations are read through their mirrors, so this processor does not depend on the Commander or Spigot jars itself.
+ */
+@SupportedAnnotationTypes({
+        CommanderProcessor.COMMAND_HANDLER,
+        CommanderProcessor.SUBCOMMAND,
+        CommanderProcessor.ARG,
+        CommanderProcessor.GREEDY,
+        CommanderProcessor.QUOTED
+})
+public final class CommanderProcessor extends AbstractProcessor {
+    static final String COMMAND_HANDLER = "org.lilbrocodes.commander.api.annotation.CommandHandler";
+    static final String SUBCOMMAND = "org.lilbrocodes.commander.api.annotation.Subcommand";
+    static final String ARG = "org.lilbrocodes.commander.api.annotation.Arg";
+    static final String GREEDY = "org.lilbrocodes.commander.api.annotation.Greedy";
+    static final String QUOTED = "org.lilbrocodes.commander.api.annotation.Quoted";
+    static final String COMMAND_SENDER = "org.bukkit.command.CommandSender";
+
+    /**
+     * Java types that map to one of the built-in argument types, by the name of their constant in {@code ArgumentTypes}.
+     */
+    private static final Map<String, String> BUILT_IN_TYPES = Map.of(
+            "org.bukkit.entity.Player", "PLAYER",
+            "org.bukkit.World", "WORLD",
+            "org.bukkit.Location", "LOCATION",
+            "java.util.UUID", "UUID",
+            "java.time.Duration", "DURATION"
+    );
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement commandHandler = elements.getTypeElement(COMMAND_HANDLER);
+        if (commandHandler == null) return false;
+
+        for (Element element : round.getElementsAnnotatedWith(commandHandler)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@CommandHandler can only be used on classes");
+                continue;
+            }
+
+            CommandTree tree = read((TypeElement) element);
+            if (tree != null) write(tree);
+        }
+        return true;
+    }
+
+    /**
+     * Reads the tree of a handler class.
+     *
+     * @param handler the handler class
+     * @return the tree, or null if an error was reported
+     */
+    private CommandTree read(TypeElement handler) {
+        if (handler.getModifiers().contains(Modifier.PRIVATE)) {
+            error(handler, "@CommandHandler classes must not be private");
+            return null;
+        }
+
+        Map<String, Object> values = values(mirror(handler, COMMAND_HANDLER));
+        CommandTree.Node root = new CommandTree.Node((String) values.get("name"));
+        root.description = (String) values.get("description");
+        root.permission = (String) values.get("permission");
+        String plugin = (String) values.get("plugin");
+
+        boolean valid = true;
+        Set<String> classNames = new HashSet<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(handler.getEnclosedElements())) {
+            AnnotationMirror subcommand = mirror(method, SUBCOMMAND);
+            if (subcommand == null) continue;
+
+            Map<String, Object> settings = values(subcommand);
+            CommandTree.Node node = root;
+            for (String literal : ((String) settings.get("value")).trim().split("\\s+")) {
+                if (literal.isEmpty()) continue;
+                node = node.children.computeIfAbsent(literal, CommandTree.Node::new);
+            }
+
+            if (node.invoker != null) {
+                error(method, "Subcommand \"" + settings.get("value") + "\" is already handled by " + node.invoker.method.getSimpleName());
+                valid = false;
+                continue;
+            }
+
+            CommandTree.Invoker invoker = invoker(handler, method, className(method, classNames));
+            if (invoker == null) {
+                valid = false;
+                continue;
+            }
+
+            node.invoker = invoker;
+            if (node != root) {
+                node.description = (String) settings.get("description");
+                node.permission = (String) settings.get("permission");
+            }
+            node.mode = ((VariableElement) settings.get("mode")).getSimpleName().toString();
+            node.maxConcurrency = (Integer) settings.get("maxConcurrency");
+        }
+
+        return valid && validate(root, root) ? new CommandTree(handler, plugin, root) : null;
+    }
+
+    /**
+     * Checks that nodes with both children and a handler method take no parameters, since groups cannot parse any.
+     */
+    private boolean validate(CommandTree.Node node, CommandTree.Node root) {
+        boolean valid = true;
+        if (node.invoker != null && !node.invoker.params.isEmpty() && (node.hasChildren() || node == root)) {
+            error(node.invoker.method, node == root
+                    ? "The root command cannot take parameters, move them to a subcommand"
+                    : "Subcommand " + node.name + " has subcommands, so its handler cannot take parameters");
+            valid = false;
+        }
+        for (CommandTree.Node child : node.children.values()) {
+            valid &= validate(child, root);
+        }
+        return valid;
+    }
+
+    /**
+     * Reads the parameters of a handler method.
+     *
+     * @return the invoker, or null if an error was reported
+     */
+    private CommandTree.Invoker invoker(TypeElement handler, ExecutableElement method, String className) {
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            error(method, "@Subcommand methods must not be private");
+            return null;
+        }
+        for (TypeMirror thrown : method.getThrownTypes()) {
+            if (!isSubtype(thrown, "java.lang.RuntimeException") && !isSubtype(thrown, "java.lang.Error")) {
+                error(method, "@Subcommand methods must not declare checked exceptions");
+                return null;
+            }
+        }
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        if (parameters.isEmpty() || !isSubtype(parameters.get(0).asType(), COMMAND_SENDER)) {
+            error(method, "The first parameter of a @Subcommand method must be a CommandSender");
+            return null;
+        }
+
+        TypeMirror senderType = types.erasure(parameters.get(0).asType());
+        CommandTree.Invoker invoker = new CommandTree.Invoker(method, className,
+                types.isSameType(senderType, elements.getTypeElement(COMMAND_SENDER).asType()) ? null : senderType.toString());
+
+        for (int i = 1; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            CommandTree.Param param = param(handler, parameter);
+            if (param == null) return null;
+
+            if (mirror(parameter, GREEDY) != null && i != parameters.size() - 1) {
+                error(parameter, "@Greedy parameters must be the last parameter");
+                return null;
+            }
+            invoker.params.add(param);
+        }
+        return invoker;
+    }
+
+    /**
+     * Derives the typed parameter of a method parameter.
+     *
+     * @return the parameter, or null if an error was reported
+     */
+    private CommandTree.Param param(TypeElement handler, VariableElement parameter) {
+        AnnotationMirror arg = mirror(parameter, ARG);
+        Map<String, Object> settings = arg == null ? Map.of() : values(arg);
+        String name = (String) settings.getOrDefault("value", "");
+        if (name.isEmpty()) name = parameter.getSimpleName().toString();
+        String typeId = (String) settings.getOrDefault("type", "");
+        String suggestions = (String) settings.getOrDefault("suggestions", "");
+        boolean greedy = mirror(parameter, GREEDY) != null;
+        boolean quoted = mirror(parameter, QUOTED) != null;
+
+        TypeMirror type = parameter.asType();
+        String typeName = type.getKind() == TypeKind.DECLARED ? types.erasure(type).toString() : type.toString();
+        boolean isString = typeName.equals("java.lang.String");
+
+        if ((greedy || quoted) && !isString) {
+            error(parameter, "@Greedy and @Quoted can only be used on String parameters");
+            return null;
+        }
+        if (greedy && quoted) {
+            error(parameter, "A parameter cannot be both @Greedy and @Quoted");
+            return null;
+        }
+        ExecutableElement suggestionMethod = suggestions.isEmpty() ? null : suggestionMethod(handler, suggestions);
+        if (!suggestions.isEmpty() && suggestionMethod == null) {
+            error(parameter, "The handler has no method " + suggestions + "() returning List<String>");
+            return null;
+        }
+
+        if (!typeId.isEmpty()) {
+            if (type.getKind().isPrimitive()) {
+                error(parameter, "Parameters with a custom argument type must not be primitive");
+                return null;
+            }
+            return custom(parameter, name, "\"" + typeId + "\"", "(" + typeName + ") args.get(%d)", suggestions);
+        }
+
+        String parameterType;
+        String accessor;
+        switch (typeName) {
+            case "short", "java.lang.Short" -> { parameterType = "SHORT"; accessor = "args.getShort(%d)"; }
+            case "int", "java.lang.Integer" -> { parameterType = "INT"; accessor = "args.getInt(%d)"; }
+            case "long", "java.lang.Long" -> { parameterType = "LONG"; accessor = "args.getLong(%d)"; }
+            case "boolean", "java.lang.Boolean" -> { parameterType = "BOOL"; accessor = "args.getBool(%d)"; }
+            case "float", "java.lang.Float" -> { parameterType = "FLOAT"; accessor = "args.getFloat(%d)"; }
+            case "double", "java.lang.Double" -> { parameterType = "DOUBLE"; accessor = "args.getDouble(%d)"; }
+            case "java.lang.String" -> {
+                parameterType = greedy ? "GREEDY_STRING" : quoted ? "QUOTED_STRING" : "STRING";
+                accessor = "args.getString(%d)";
+            }
+            default -> {
+                if (type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+                    if (!suggestions.isEmpty()) {
+                        error(parameter, "Enum parameters are completed with their constants and cannot declare suggestions");
+                        return null;
+                    }
+                    return new CommandTree.Param(name, "new TypedParameter(%s, " + typeName + ".class)",
+                            "args.getEnum(%d, " + typeName + ".class)");
+                }
+
+                String builtIn = BUILT_IN_TYPES.get(typeName);
+                if (builtIn == null) {
+                    error(parameter, "Cannot derive an argument type for " + typeName + ", set one with @Arg(type = ...)");
+                    return null;
+                }
+                return custom(parameter, name, "ArgumentTypes." + builtIn, "args.getCustom(%d, ArgumentTypes." + builtIn + ")", suggestions);
+            }
+        }
+
+        String definition = suggestionMethod == null
+                ? "new TypedParameter(%s, ParameterType." + parameterType + ")"
+                : "new TypedParameter(%s, ParameterType." + parameterType + ", " + reference(handler, suggestionMethod) + ")";
+        return new CommandTree.Param(name, definition, accessor);
+    }
+
+    private CommandTree.Param custom(VariableElement parameter, String name, String argumentType, String accessor, String suggestions) {
+        if (!suggestions.isEmpty()) {
+            error(parameter, "Parameters with an argument type are completed by that type and cannot declare suggestions");
+            return null;
+        }
+        return new CommandTree.Param(name, "new TypedParameter(%s, " + argumentType + ")", accessor);
+    }
+
+    /**
+     * Finds the suggestion method of a parameter, which must take no parameters and return a {@code List<String>}.
+     *
+     * @return the method, or null if the handler has none
+     */
+    private ExecutableElement suggestionMethod(TypeElement handler, String name) {
+        TypeMirror strings = types.getDeclaredType(elements.getTypeElement("java.util.List"), elements.getTypeElement("java.lang.String").asType());
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(handler))) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && types.isAssignable(method.getReturnType(), strings)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a method reference to a suggestion method, through the handler type for static methods like the invokers call them
+     */
+    private static String reference(TypeElement handler, ExecutableElement method) {
+        String target = method.getModifiers().contains(Modifier.STATIC) ? handler.getQualifiedName().toString() : "handler";
+        return target + "::" + method.getSimpleName();
+    }
+
+    /**
+     * Picks a unique invoker class name for a handler method, e.g. {@code SetInvoker}.
+     */
+    private static String className(ExecutableElement method, Set<String> taken) {
+        String name = method.getSimpleName().toString();
+        String base = Character.toUpperCase(name.charAt(0)) + name.substring(1) + "Invoker";
+        String candidate = base;
+        for (int i = 2; !taken.add(candidate); i++) {
+            candidate = base + i;
+        }
+        return candidate;
+    }
+
+    private void write(CommandTree tree) {
+        String packageName = elements.getPackageOf(tree.handler).getQualifiedName().toString();
+        String simpleName = treeClassName(tree.handler);
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, tree.handler).openWriter()) {
+            writer.write(new TreeWriter(tree, packageName, simpleName).write());
+        } catch (IOException e) {
+            error(tree.handler, "Could not write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the name of the generated class, e.g. {@code WarpCommandsTree} or {@code Outer_InnerTree} for nested handlers
+     */
+    private static String treeClassName(TypeElement handler) {
+        StringBuilder name = new StringBuilder(handler.getSimpleName());
+        for (Element enclosing = handler.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+        return name.append("Tree").toString();
+    }
+
+    private boolean isSubtype(TypeMirror type, String superType) {
+        TypeElement element = elements.getTypeElement(superType);
+        return element != null && types.isAssignable(type, element.asType());
+    }
+
+    private static AnnotationMirror mirror(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) return mirror;
+        }
+        return null;
+    }
+
+    private Map<String, Object> values(AnnotationMirror mirror) {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+        }
+        return values;
+    }
+
+    private void error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
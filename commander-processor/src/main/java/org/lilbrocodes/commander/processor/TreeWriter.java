@@ -0,0 +1,189 @@
+package org.lilbrocodes.commander.processor;
+
+import javax.lang.model.element.Modifier;
+import java.util.Locale;
+
+/**
+ * Writes the source of the {@code <Handler>Tree} class for a {@link CommandTree}.
+ */
+final class TreeWriter {
+    private final CommandTree tree;
+    private final String packageName;
+    private final String className;
+    private final String handlerType;
+    private final StringBuilder out = new StringBuilder();
+    private int groups;
+
+    TreeWriter(CommandTree tree, String packageName, String className) {
+        this.tree = tree;
+        this.packageName = packageName;
+        this.className = className;
+        this.handlerType = tree.handler.getQualifiedName().toString();
+    }
+
+    String write() {
+        if (!packageName.isEmpty()) line(0, "package " + packageName + ";").line(0, "");
+
+        line(0, "import org.bukkit.command.CommandSender;");
+        line(0, "import org.lilbrocodes.commander.api.CommanderCommand;");
+        line(0, "import org.lilbrocodes.commander.api.argument.ArgumentTypes;");
+        line(0, "import org.lilbrocodes.commander.api.argument.ParameterType;");
+        line(0, "import org.lilbrocodes.commander.api.argument.ParsedArguments;");
+        line(0, "import org.lilbrocodes.commander.api.argument.ParsedExecutor;");
+        line(0, "import org.lilbrocodes.commander.api.argument.TypedParameter;");
+        line(0, "import org.lilbrocodes.commander.api.executor.CommandActionNode;");
+        line(0, "import org.lilbrocodes.commander.api.executor.CommandGroupNode;");
+        line(0, "import org.lilbrocodes.commander.api.executor.CommandHybridNode;");
+        line(0, "import org.lilbrocodes.commander.api.executor.ExecutionMode;");
+        line(0, "import org.lilbrocodes.commander.api.util.StaticChatUtil;");
+        line(0, "");
+        line(0, "import java.util.List;");
+        line(0, "");
+        line(0, "/**");
+        line(0, " * Command tree of {@link " + handlerType + "}, generated by the Commander annotation processor.");
+        line(0, " */");
+        line(0, "@javax.annotation.processing.Generated(\"" + CommanderProcessor.class.getName() + "\")");
+        line(0, "@SuppressWarnings(\"unused\")");
+        line(0, "public final class " + className + " {");
+        line(1, "private " + className + "() {");
+        line(1, "}");
+        line(0, "");
+
+        line(1, "/**");
+        line(1, " * Builds the command tree, calling the methods of {@code handler}.");
+        line(1, " *");
+        line(1, " * @param handler the handler instance");
+        line(1, " * @return the root node of the tree");
+        line(1, " */");
+        line(1, "public static CommandGroupNode create(" + handlerType + " handler) {");
+        writeGroup(tree.root, "root");
+        line(2, "return root;");
+        line(1, "}");
+        line(0, "");
+
+        line(1, "/**");
+        line(1, " * Builds the command tree and wraps it in a command ready to be registered.");
+        line(1, " *");
+        line(1, " * @param handler the handler instance");
+        line(1, " * @param tabComplete whether tab completion should be enabled");
+        line(1, " * @return the command");
+        line(1, " */");
+        line(1, "public static CommanderCommand command(" + handlerType + " handler, boolean tabComplete) {");
+        line(2, "return new CommanderCommand(create(handler), tabComplete);");
+        line(1, "}");
+
+        writeInvokers(tree.root);
+        line(0, "}");
+        return out.toString();
+    }
+
+    /**
+     * Declares a group or hybrid node in a local variable and adds its children.
+     */
+    private void writeGroup(CommandTree.Node node, String variable) {
+        String type = node.invoker != null ? "CommandHybridNode" : "CommandGroupNode";
+        line(2, type + " " + variable + " = new " + type + "(" + literal(node.name) + ", " + literal(node.description) + ", " + literal(tree.plugin) + ");");
+        if (!node.permission.isEmpty()) line(2, variable + ".withPermission(" + literal(node.permission) + ");");
+        if (node.invoker != null) {
+            line(2, variable + ".addParsedExecutor(new " + node.invoker.className + "(handler));");
+            if (!node.mode.equals("SYNC")) line(2, variable + ".withExecutionMode(ExecutionMode." + node.mode + ");");
+            if (node.maxConcurrency > 0) line(2, variable + ".withMaxConcurrency(" + node.maxConcurrency + ");");
+        }
+
+        for (CommandTree.Node child : node.children.values()) {
+            if (child.hasChildren()) {
+                String childVariable = "group" + (++groups);
+                line(0, "");
+                writeGroup(child, childVariable);
+                line(2, variable + ".addChild(" + childVariable + ");");
+            } else {
+                writeAction(child, variable);
+            }
+        }
+    }
+
+    private void writeAction(CommandTree.Node node, String parent) {
+        CommandTree.Invoker invoker = node.invoker;
+        StringBuilder parameters = new StringBuilder();
+        for (int i = 0; i < invoker.params.size(); i++) {
+            CommandTree.Param param = invoker.params.get(i);
+            parameters.append(i == 0 ? "\n" : ",\n").append(indent(4)).append(String.format(param.definition(), literal(param.name())));
+        }
+
+        line(2, parent + ".addChild(new CommandActionNode(" + literal(node.name) + ", " + literal(node.description) + ", " + literal(tree.plugin)
+                + ", List.of(" + parameters + (parameters.length() == 0 ? "" : "\n" + indent(2)) + "))");
+        StringBuilder chain = new StringBuilder(indent(4) + ".addParsedExecutor(new " + invoker.className + "(handler))");
+        if (!node.permission.isEmpty()) chain.append("\n").append(indent(4)).append(".withPermission(").append(literal(node.permission)).append(")");
+        if (!node.mode.equals("SYNC")) chain.append("\n").append(indent(4)).append(".withExecutionMode(ExecutionMode.").append(node.mode).append(")");
+        if (node.maxConcurrency > 0) chain.append("\n").append(indent(4)).append(".withMaxConcurrency(").append(node.maxConcurrency).append(")");
+        out.append(chain).append(");\n");
+    }
+
+    private void writeInvokers(CommandTree.Node node) {
+        if (node.invoker != null) writeInvoker(node.invoker);
+        for (CommandTree.Node child : node.children.values()) {
+            writeInvokers(child);
+        }
+    }
+
+    private void writeInvoker(CommandTree.Invoker invoker) {
+        String sender = "sender";
+        line(0, "");
+        line(1, "private static final class " + invoker.className + " implements ParsedExecutor {");
+        line(2, "private final " + handlerType + " handler;");
+        line(0, "");
+        line(2, invoker.className + "(" + handlerType + " handler) {");
+        line(3, "this.handler = handler;");
+        line(2, "}");
+        line(0, "");
+        line(2, "@Override");
+        line(2, "public void execute(CommandSender sender, ParsedArguments args) {");
+        if (invoker.senderType != null) {
+            String simpleName = invoker.senderType.substring(invoker.senderType.lastIndexOf('.') + 1);
+            sender = "typedSender";
+            line(3, "if (!(sender instanceof " + invoker.senderType + " " + sender + ")) {");
+            line(4, "StaticChatUtil.error(sender, " + literal(tree.plugin) + ", "
+                    + literal("This command can only be used by a " + simpleName.toLowerCase(Locale.ROOT) + ".") + ");");
+            line(4, "return;");
+            line(3, "}");
+        }
+
+        StringBuilder call = new StringBuilder(invoker.method.getModifiers().contains(Modifier.STATIC) ? handlerType : "handler");
+        call.append('.').append(invoker.method.getSimpleName()).append('(').append(sender);
+        for (int i = 0; i < invoker.params.size(); i++) {
+            call.append(", ").append(String.format(invoker.params.get(i).accessor(), i));
+        }
+        line(3, call.append(");").toString());
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private TreeWriter line(int depth, String text) {
+        if (!text.isEmpty()) out.append(indent(depth)).append(text);
+        out.append('\n');
+        return this;
+    }
+
+    private static String indent(int depth) {
+        return "    ".repeat(depth);
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) literal.append(String.format("\\u%04x", (int) c));
+                    else literal.append(c);
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,241 @@
+package org.lilbrocodes.commander.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the processor over small handlers, against stand-ins for the Commander annotations and the Bukkit sender,
+ * since the processor itself does not depend on either jar.
+ */
+class CommanderProcessorTest {
+    private static final Map<String, String> STUBS = Map.of(
+            "org.bukkit.command.CommandSender", """
+                    package org.bukkit.command;
+                    public interface CommandSender {
+                    }
+                    """,
+            "org.lilbrocodes.commander.api.executor.ExecutionMode", """
+                    package org.lilbrocodes.commander.api.executor;
+                    public enum ExecutionMode { SYNC, ASYNC }
+                    """,
+            "org.lilbrocodes.commander.api.annotation.CommandHandler", """
+                    package org.lilbrocodes.commander.api.annotation;
+                    public @interface CommandHandler {
+                        String name();
+                        String plugin();
+                        String description() default "";
+                        String permission() default "";
+                    }
+                    """,
+            "org.lilbrocodes.commander.api.annotation.Subcommand", """
+                    package org.lilbrocodes.commander.api.annotation;
+                    import org.lilbrocodes.commander.api.executor.ExecutionMode;
+                    public @interface Subcommand {
+                        String value();
+                        String description() default "";
+                        String permission() default "";
+                        ExecutionMode mode() default ExecutionMode.SYNC;
+                        int maxConcurrency() default 0;
+                    }
+                    """,
+            "org.lilbrocodes.commander.api.annotation.Arg", """
+                    package org.lilbrocodes.commander.api.annotation;
+                    public @interface Arg {
+                        String value() default "";
+                        String type() default "";
+                        String suggestions() default "";
+                    }
+                    """,
+            "org.lilbrocodes.commander.api.annotation.Greedy", """
+                    package org.lilbrocodes.commander.api.annotation;
+                    public @interface Greedy {
+                    }
+                    """,
+            "org.lilbrocodes.commander.api.annotation.Quoted", """
+                    package org.lilbrocodes.commander.api.annotation;
+                    public @interface Quoted {
+                    }
+                    """
+    );
+
+    @TempDir
+    Path generated;
+
+    @Test
+    void generatesTree() throws IOException {
+        Result result = process("example.WarpCommands", """
+                package example;
+
+                import org.bukkit.command.CommandSender;
+                import org.lilbrocodes.commander.api.annotation.*;
+                import org.lilbrocodes.commander.api.executor.ExecutionMode;
+                import java.util.List;
+
+                @CommandHandler(name = "warp", plugin = "Warps", description = "Warp commands")
+                public class WarpCommands {
+                    @Subcommand(value = "set", description = "Sets a warp", permission = "warps.set")
+                    public void set(CommandSender sender, @Arg(suggestions = "names") String name, int radius) {
+                    }
+
+                    @Subcommand(value = "admin reload", mode = ExecutionMode.ASYNC)
+                    public static void reload(CommandSender sender) {
+                    }
+
+                    @Subcommand("admin say")
+                    public void say(CommandSender sender, @Arg(suggestions = "defaults") @Greedy String message) {
+                    }
+
+                    public List<String> names() {
+                        return List.of();
+                    }
+
+                    public static List<String> defaults() {
+                        return List.of();
+                    }
+                }
+                """);
+
+        assertTrue(result.errors.isEmpty(), result.errors::toString);
+        String source = Files.readString(generated.resolve("example/WarpCommandsTree.java"));
+        assertTrue(source.contains("public final class WarpCommandsTree"));
+        assertTrue(source.contains("new CommandGroupNode(\"warp\", \"Warp commands\", \"Warps\")"));
+        assertTrue(source.contains("new CommandActionNode(\"set\", \"Sets a warp\", \"Warps\""));
+        assertTrue(source.contains("new TypedParameter(\"name\", ParameterType.STRING, handler::names)"));
+        assertTrue(source.contains("new TypedParameter(\"radius\", ParameterType.INT)"));
+        assertTrue(source.contains(".withPermission(\"warps.set\")"));
+        assertTrue(source.contains("new TypedParameter(\"message\", ParameterType.GREEDY_STRING, example.WarpCommands::defaults)"));
+        assertTrue(source.contains(".withExecutionMode(ExecutionMode.ASYNC)"));
+        assertTrue(source.contains("handler.set(sender, args.getString(0), args.getInt(1));"));
+        assertTrue(source.contains("example.WarpCommands.reload(sender);"));
+    }
+
+    @Test
+    void rejectsMissingSuggestionMethod() {
+        Result result = process("example.MissingSuggestions", """
+                package example;
+
+                import org.bukkit.command.CommandSender;
+                import org.lilbrocodes.commander.api.annotation.*;
+
+                @CommandHandler(name = "kit", plugin = "Kits")
+                public class MissingSuggestions {
+                    @Subcommand("give")
+                    public void give(CommandSender sender, @Arg(suggestions = "kits") String kit) {
+                    }
+                }
+                """);
+
+        assertError(result, "The handler has no method kits() returning List<String>");
+    }
+
+    @Test
+    void rejectsSuggestionMethodOfWrongElementType() {
+        Result result = process("example.WrongSuggestions", """
+                package example;
+
+                import org.bukkit.command.CommandSender;
+                import org.lilbrocodes.commander.api.annotation.*;
+                import java.util.List;
+
+                @CommandHandler(name = "kit", plugin = "Kits")
+                public class WrongSuggestions {
+                    @Subcommand("give")
+                    public void give(CommandSender sender, @Arg(suggestions = "kits") String kit) {
+                    }
+
+                    public List<Integer> kits() {
+                        return List.of();
+                    }
+                }
+                """);
+
+        assertError(result, "The handler has no method kits() returning List<String>");
+    }
+
+    @Test
+    void rejectsSuggestionsOnEnum() {
+        Result result = process("example.EnumSuggestions", """
+                package example;
+
+                import org.bukkit.command.CommandSender;
+                import org.lilbrocodes.commander.api.annotation.*;
+                import java.util.List;
+
+                @CommandHandler(name = "mode", plugin = "Modes")
+                public class EnumSuggestions {
+                    public enum Mode { ON, OFF }
+
+                    @Subcommand("set")
+                    public void set(CommandSender sender, @Arg(suggestions = "modes") Mode mode) {
+                    }
+
+                    public List<String> modes() {
+                        return List.of();
+                    }
+                }
+                """);
+
+        assertError(result, "Enum parameters are completed with their constants and cannot declare suggestions");
+    }
+
+    private static void assertError(Result result, String message) {
+        assertTrue(result.errors.contains(message), () -> "Expected \"" + message + "\" in " + result.errors);
+    }
+
+    /**
+     * Runs only annotation processing, since the generated tree needs the real Commander classes to compile.
+     */
+    private Result process(String handlerName, String handlerSource) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        List<JavaFileObject> sources = new ArrayList<>();
+        STUBS.forEach((name, source) -> sources.add(new Source(name, source)));
+        sources.add(new Source(handlerName, handlerSource));
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                List.of("-proc:only", "-s", generated.toString()), null, sources);
+        task.setProcessors(List.of(new CommanderProcessor()));
+        task.call();
+
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            // The generated tree is entered as well and cannot resolve the Commander classes, so only the handler's errors count
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getSource() instanceof Source) errors.add(diagnostic.getMessage(null));
+        }
+        return new Result(errors);
+    }
+
+    private record Result(List<String> errors) {
+    }
+
+    private static final class Source extends SimpleJavaFileObject {
+        private final String source;
+
+        private Source(String name, String source) {
+            super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.lilbrocodes.commander.benchmark;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ParameterType;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandActionNode;
+import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.wrapper.TabCompleterWrapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tab completion of subcommand names and of large suggestion sets, such as warp names or item ids,
+ * and the fuzzy fallback for a mistyped subcommand.
+ */
+@State(Scope.Thread)
+public class CompletionBenchmark {
+    @Param({"16", "512"})
+    public int children;
+
+    @Param({"100", "10000"})
+    public int suggestions;
+
+    @Param({"", "wa", "warp_12"})
+    public String prefix;
+
+    private CommandSender sender;
+    private TabCompleterWrapper completer;
+    private String[] subcommandArgs;
+    private String[] suggestionArgs;
+    private String[] typoArgs;
+
+    @Setup
+    public void setup() {
+        sender = StubSender.create("bench", true);
+
+        List<String> warps = new ArrayList<>(suggestions);
+        for (int i = 0; i < suggestions; i++) {
+            warps.add("warp_" + i);
+        }
+        List<String> warpList = List.copyOf(warps);
+
+        CommandGroupNode root = new CommandGroupNode("bench", "Completion benchmark", SyntheticTree.PLUGIN).withFuzzyMatching();
+        for (int i = 0; i < children; i++) {
+            root.addChild(new CommandActionNode("warp_" + i, "Child " + i, SyntheticTree.PLUGIN, List.of()));
+        }
+        root.addChild(new CommandActionNode("goto", "Warp to a location", SyntheticTree.PLUGIN, List.of(
+                new TypedParameter("warp", ParameterType.STRING, () -> warpList)
+        )));
+        root.compile();
+        root.freeze();
+
+        completer = new TabCompleterWrapper(root);
+        subcommandArgs = new String[]{prefix};
+        suggestionArgs = new String[]{"goto", prefix};
+        typoArgs = new String[]{"wrap_" + children / 2};
+    }
+
+    @Benchmark
+    public List<String> subcommands() {
+        return completer.onTabComplete(sender, null, "bench", subcommandArgs);
+    }
+
+    @Benchmark
+    public List<String> suggestions() {
+        return completer.onTabComplete(sender, null, "bench", suggestionArgs);
+    }
+
+    @Benchmark
+    public List<String> typo() {
+        return completer.onTabComplete(sender, null, "bench", typoArgs);
+    }
+}
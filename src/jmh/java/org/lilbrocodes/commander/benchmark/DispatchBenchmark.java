@@ -0,0 +1,52 @@
+package org.lilbrocodes.commander.benchmark;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.executor.DispatchTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dispatches to the deepest leaf of a synthetic tree, through the flattened {@link DispatchTable} and by walking the node tree.
+ * Trees are capped at {@link SyntheticTree#MAX_NODES} nodes, so the largest settings measure a wide tree of that size rather than a full one.
+ */
+@State(Scope.Thread)
+public class DispatchBenchmark {
+    @Param({"1", "4", "8"})
+    public int depth;
+
+    @Param({"4", "64", "512"})
+    public int fanOut;
+
+    private CommandSender sender;
+    private SyntheticTree tree;
+    private DispatchTable table;
+    private List<String> args;
+    private long sink;
+
+    @Setup
+    public void setup() {
+        sender = StubSender.create("bench", true);
+        tree = SyntheticTree.build(depth, fanOut, (s, parsed) -> sink += parsed.getInt(0));
+        tree.root.compile();
+        table = DispatchTable.of(tree.root);
+
+        List<String> line = new ArrayList<>(tree.deepestPath);
+        line.add("42");
+        line.add("steve");
+        args = List.copyOf(line);
+    }
+
+    @Benchmark
+    public long dispatchTable() {
+        table.dispatch(sender, args);
+        return sink;
+    }
+
+    @Benchmark
+    public long treeWalk() {
+        tree.root.execute(sender, args);
+        return sink;
+    }
+}
@@ -0,0 +1,44 @@
+package org.lilbrocodes.commander.benchmark;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.executor.DispatchTable;
+import org.lilbrocodes.commander.api.executor.PermissionCache;
+import org.lilbrocodes.commander.api.wrapper.HelpRenderer;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Renders the help tree of a synthetic tree, with and without the per-visibility render cache.
+ */
+@State(Scope.Thread)
+public class HelpBenchmark {
+    @Param({"2", "6"})
+    public int depth;
+
+    @Param({"8", "64"})
+    public int fanOut;
+
+    private CommandSender sender;
+    private HelpRenderer cached;
+    private HelpRenderer uncached;
+
+    @Setup
+    public void setup() {
+        sender = StubSender.create("bench", true);
+        SyntheticTree tree = SyntheticTree.build(depth, fanOut, (s, parsed) -> { });
+        tree.root.compile();
+        DispatchTable table = DispatchTable.of(tree.root);
+
+        cached = new HelpRenderer(tree.root, new PermissionCache(table));
+        uncached = new HelpRenderer(tree.root, null);
+    }
+
+    @Benchmark
+    public String cachedTree() {
+        return cached.tree(sender, "bench");
+    }
+
+    @Benchmark
+    public String uncachedTree() {
+        return uncached.tree(sender, "bench");
+    }
+}
@@ -0,0 +1,92 @@
+package org.lilbrocodes.commander.benchmark;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ParameterType;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandActionNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+
+/**
+ * Parses a single argument of every {@link ParameterType}, through the primitive {@code ParsedExecutor} path and through the boxing {@code TypedExecutor} adapter.
+ * List and range types parse the kind of bulk input admin commands receive, 64 values and a range of 500.
+ */
+@State(Scope.Thread)
+public class ParseBenchmark {
+    public enum Color { RED, GREEN, BLUE, CYAN, MAGENTA, YELLOW }
+
+    @Param({"STRING", "QUOTED_STRING", "GREEDY_STRING", "SHORT", "INT", "LONG", "BOOL", "DOUBLE", "FLOAT", "ENUM",
+            "INT_LIST", "LONG_LIST", "DOUBLE_LIST", "ENUM_SET", "INT_RANGE", "LONG_RANGE", "DOUBLE_RANGE"})
+    public ParameterType type;
+
+    @Param({"false", "true"})
+    public boolean boxed;
+
+    private CommandSender sender;
+    private CommandActionNode node;
+    private List<String> args;
+    private long sink;
+
+    @Setup
+    public void setup() {
+        sender = StubSender.create("bench", true);
+        TypedParameter parameter = switch (type) {
+            case ENUM -> new TypedParameter("value", Color.class);
+            case ENUM_SET -> TypedParameter.enumSet("value", Color.class);
+            default -> new TypedParameter("value", type);
+        };
+
+        node = new CommandActionNode("parse", "Parse benchmark", SyntheticTree.PLUGIN, List.of(parameter));
+        if (boxed) {
+            node.addExecutor((s, parsed) -> sink += parsed.size());
+        } else {
+            node.addParsedExecutor((s, parsed) -> sink += switch (type) {
+                case SHORT, INT, LONG -> parsed.getLong(0);
+                case DOUBLE, FLOAT -> (long) parsed.getDouble(0);
+                case BOOL -> parsed.getBool(0) ? 1 : 0;
+                case ENUM -> parsed.getEnum(0, Color.class).ordinal();
+                case INT_LIST -> parsed.getIntArray(0).length;
+                case LONG_LIST -> parsed.getLongArray(0).length;
+                case DOUBLE_LIST -> parsed.getDoubleArray(0).length;
+                case ENUM_SET -> parsed.getEnumSet(0, Color.class).size();
+                case INT_RANGE, LONG_RANGE -> parsed.getRangeTo(0) - parsed.getRangeFrom(0);
+                case DOUBLE_RANGE -> (long) parsed.getDoubleRange(0).width();
+                default -> parsed.getString(0).length();
+            });
+        }
+        node.compile();
+
+        args = List.of(switch (type) {
+            case STRING, GREEDY_STRING -> "steve";
+            case QUOTED_STRING -> "\"steve\"";
+            case SHORT -> "1234";
+            case INT -> "123456";
+            case LONG -> "12345678901";
+            case BOOL -> "true";
+            case DOUBLE, FLOAT -> "12.5";
+            case ENUM -> "magenta";
+            case INT_LIST, LONG_LIST -> numbers(64, "");
+            case DOUBLE_LIST -> numbers(64, ".5");
+            case ENUM_SET -> "red,green..cyan,yellow";
+            case INT_RANGE, LONG_RANGE -> "1..500";
+            case DOUBLE_RANGE -> "0.5..12.25";
+            case CUSTOM -> throw new IllegalArgumentException("Custom types are registered by the plugin, not benchmarked here");
+        });
+    }
+
+    private static String numbers(int count, String suffix) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) out.append(',');
+            out.append(1000 + i * 37).append(suffix);
+        }
+        return out.toString();
+    }
+
+    @Benchmark
+    public long parse() {
+        node.execute(sender, args);
+        return sink;
+    }
+}
@@ -0,0 +1,51 @@
+package org.lilbrocodes.commander.benchmark;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ParameterType;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandActionNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-joins QUOTED_STRING and GREEDY_STRING values that span many tokens, like chat relay or broadcast messages.
+ */
+@State(Scope.Thread)
+public class RejoinBenchmark {
+    @Param({"QUOTED_STRING", "GREEDY_STRING"})
+    public ParameterType type;
+
+    @Param({"4", "32", "256"})
+    public int tokens;
+
+    private CommandSender sender;
+    private CommandActionNode node;
+    private List<String> args;
+    private long sink;
+
+    @Setup
+    public void setup() {
+        sender = StubSender.create("bench", true);
+        node = new CommandActionNode("say", "Rejoin benchmark", SyntheticTree.PLUGIN, List.of(new TypedParameter("message", type)))
+                .addParsedExecutor((s, parsed) -> sink += parsed.getString(0).length());
+        node.compile();
+
+        List<String> words = new ArrayList<>(tokens);
+        for (int i = 0; i < tokens; i++) {
+            words.add("word" + i);
+        }
+        if (type == ParameterType.QUOTED_STRING) {
+            words.set(0, "\"" + words.get(0));
+            words.set(tokens - 1, words.get(tokens - 1) + "\"");
+        }
+        args = List.copyOf(words);
+    }
+
+    @Benchmark
+    public long rejoin() {
+        node.execute(sender, args);
+        return sink;
+    }
+}
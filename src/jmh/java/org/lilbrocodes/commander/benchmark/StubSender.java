@@ -0,0 +1,56 @@
+package org.lilbrocodes.commander.benchmark;
+
+import org.bukkit.command.CommandSender;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Creates {@link CommandSender}s that stand in for a server during benchmarks.
+ * A dynamic proxy keeps the stub independent of the exact Spigot API version on the classpath.
+ */
+final class StubSender {
+
+    private StubSender() {
+    }
+
+    /**
+     * Creates a stub sender that swallows every message.
+     *
+     * @param name the name of the sender
+     * @param permitted the result of every permission check
+     * @return the stub sender
+     */
+    static CommandSender create(String name, boolean permitted) {
+        return (CommandSender) Proxy.newProxyInstance(StubSender.class.getClassLoader(), new Class<?>[]{CommandSender.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "hasPermission":
+                case "isPermissionSet":
+                    return permitted;
+                case "isOp":
+                    return false;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StubSender[" + name + "]";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        return 0;
+    }
+}
@@ -0,0 +1,71 @@
+package org.lilbrocodes.commander.benchmark;
+
+import org.lilbrocodes.commander.api.argument.ParameterType;
+import org.lilbrocodes.commander.api.argument.ParsedExecutor;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandActionNode;
+import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds synthetic command trees of a given depth and fan-out.
+ * Every group has {@code fanOut} children, groups down to {@code depth} levels below the root and action leaves on the last level,
+ * so the deepest leaf is reached with {@code depth + 1} literals. A full tree has {@code fanOut^(depth + 1)} leaves, so trees are capped at
+ * {@link #MAX_NODES} nodes: groups are filled depth first starting with their first child, which keeps the path to the first leaf complete,
+ * and children that no longer fit are left out. Large fan-outs therefore exercise the hashed child storage and wide completion lists on every level.
+ */
+final class SyntheticTree {
+    static final String PLUGIN = "Bench";
+    static final int MAX_NODES = 100_000;
+
+    final CommandGroupNode root;
+    final List<String> deepestPath;
+
+    private SyntheticTree(CommandGroupNode root, List<String> deepestPath) {
+        this.root = root;
+        this.deepestPath = deepestPath;
+    }
+
+    /**
+     * Builds a tree whose leaves take an INT and a STRING parameter.
+     *
+     * @param depth the number of nested group levels below the root
+     * @param fanOut the number of children per group
+     * @param executor the executor of every leaf
+     * @return the tree
+     */
+    static SyntheticTree build(int depth, int fanOut, ParsedExecutor executor) {
+        CommandGroupNode root = new CommandGroupNode("bench", "Synthetic benchmark root", PLUGIN);
+        int[] budget = {MAX_NODES - 1};
+        fill(root, 0, depth, fanOut, executor, budget);
+
+        List<String> path = new ArrayList<>();
+        for (int level = 0; level < depth; level++) {
+            path.add("group0");
+        }
+        path.add("leaf0");
+        return new SyntheticTree(root, path);
+    }
+
+    private static void fill(CommandGroupNode group, int level, int depth, int fanOut, ParsedExecutor executor, int[] budget) {
+        for (int i = 0; i < fanOut && budget[0] > 0; i++) {
+            budget[0]--;
+            if (level < depth) {
+                CommandGroupNode child = new CommandGroupNode("group" + i, "Group " + i + " at depth " + level, PLUGIN);
+                group.addChild(child);
+                fill(child, level + 1, depth, fanOut, executor, budget);
+            } else {
+                group.addChild(leaf("leaf" + i, executor));
+            }
+        }
+    }
+
+    private static CommandActionNode leaf(String name, ParsedExecutor executor) {
+        return new CommandActionNode(name, "Leaf " + name, PLUGIN, List.of(
+                new TypedParameter("amount", ParameterType.INT),
+                new TypedParameter("target", ParameterType.STRING)
+        )).addParsedExecutor(executor);
+    }
+}
@@ -1,25 +1,57 @@
 package org.lilbrocodes.commander.api;
 
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabCompleter;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.lilbrocodes.commander.api.audit.AuditJournal;
+import org.lilbrocodes.commander.api.error.ErrorReporter;
+import org.lilbrocodes.commander.api.executor.BatchResult;
+import org.lilbrocodes.commander.api.executor.CommandBatch;
 import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.PermissionCache;
+import org.lilbrocodes.commander.api.executor.TreeCompactor;
+import org.lilbrocodes.commander.api.executor.TreeFootprint;
+import org.lilbrocodes.commander.api.executor.TreeVersion;
+import org.lilbrocodes.commander.api.executor.VersionedTree;
+import org.lilbrocodes.commander.api.graph.CommandGraphExporter;
+import org.lilbrocodes.commander.api.graph.GraphNode;
+import org.lilbrocodes.commander.api.replay.ReplayEngine;
+import org.lilbrocodes.commander.api.replay.TrafficRecorder;
+import org.lilbrocodes.commander.api.wrapper.AsyncCompletion;
 import org.lilbrocodes.commander.api.wrapper.CommandExecutorWrapper;
+import org.lilbrocodes.commander.api.wrapper.CompletionCache;
 import org.lilbrocodes.commander.api.executor.ExecutorNode;
 import org.lilbrocodes.commander.api.wrapper.TabCompleterWrapper;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * This class represents a command that can be registered in a Minecraft plugin
  * using the Commander library. It handles the registration of the command
  * executor and, optionally, the tab completer for the specified command.
  * <p>
  * The root node of the command is provided along with an option to enable or
- * disable tab completion.
+ * disable tab completion. The tree can be replaced at runtime with {@link #reload(ExecutorNode)}.
  */
 @SuppressWarnings("unused")
 public class CommanderCommand {
 
     private ExecutorNode<CommandGroupNode> root;
     private final boolean tabComplete;
+    private AsyncCompletion asyncCompletion;
+    private CompletionCache completionCache;
+    private boolean metrics;
+    private ErrorReporter errorReporter;
+    private AuditJournal auditJournal;
+    private TrafficRecorder trafficRecorder;
+    private TreeCompactor compactor;
+    private final AtomicLong versions = new AtomicLong();
+    private volatile VersionedTree tree;
 
     /**
      * Constructs a new {@link CommanderCommand} with the specified root node
@@ -33,6 +65,102 @@ public class CommanderCommand {
         this.tabComplete = tabComplete;
     }
 
+    /**
+     * Enables async tab completion, computing suggestions that are declared thread-safe on a worker pool.
+     * Must be called before {@link #register(JavaPlugin, String)}.
+     *
+     * @param asyncCompletion The async completion settings.
+     * @return This command, for chaining.
+     */
+    public CommanderCommand withAsyncCompletion(AsyncCompletion asyncCompletion) {
+        this.asyncCompletion = asyncCompletion;
+        return this;
+    }
+
+    /**
+     * Reuses tab completions across repeated Tab presses and keystrokes of the same sender, see {@link CompletionCache}.
+     * Must be called before {@link #register(JavaPlugin, String)}.
+     *
+     * @param completionCache The completion cache.
+     * @return This command, for chaining.
+     */
+    public CommanderCommand withCompletionCache(CompletionCache completionCache) {
+        this.completionCache = completionCache;
+        return this;
+    }
+
+    /**
+     * Enables invocation counters and latency histograms on every node of the tree,
+     * viewable in game with {@code /<command> help stats}.
+     * Must be called before {@link #register(JavaPlugin, String)}.
+     *
+     * @return This command, for chaining.
+     */
+    public CommanderCommand withMetrics() {
+        this.metrics = true;
+        return this;
+    }
+
+    /**
+     * Sets how errors of every node are rendered and sent, e.g. localized or rate limited per sender.
+     * Must be called before {@link #register(JavaPlugin, String)}.
+     *
+     * @param errorReporter The error reporter.
+     * @return This command, for chaining.
+     */
+    public CommanderCommand withErrorReporter(ErrorReporter errorReporter) {
+        this.errorReporter = errorReporter;
+        return this;
+    }
+
+    /**
+     * Records every invocation of this command, who ran it, what it resolved to and how it ended, see {@link AuditJournal}.
+     * The journal is not closed by the command, close it when the plugin is disabled.
+     * Must be called before {@link #register(JavaPlugin, String)}.
+     *
+     * @param auditJournal The journal to record invocations in.
+     * @return This command, for chaining.
+     */
+    public CommanderCommand withAuditJournal(AuditJournal auditJournal) {
+        this.auditJournal = auditJournal;
+        return this;
+    }
+
+    /**
+     * Captures every command line and completion request of this command with anonymized senders, to replay them later with a {@link ReplayEngine}.
+     * Must be called before {@link #register(JavaPlugin, String)}.
+     *
+     * @param trafficRecorder The recorder to capture requests in.
+     * @return This command, for chaining.
+     */
+    public CommanderCommand withTrafficRecorder(TrafficRecorder trafficRecorder) {
+        this.trafficRecorder = trafficRecorder;
+        return this;
+    }
+
+    /**
+     * Stores the tree compactly, sharing equal strings and parameters between nodes and keeping descriptions in a string table,
+     * see {@link TreeCompactor}. Meant for large trees generated from configuration. Reloaded trees share with the earlier ones.
+     * Must be called before {@link #register(JavaPlugin, String)}.
+     *
+     * @return This command, for chaining.
+     */
+    public CommanderCommand withCompactTree() {
+        return withCompactTree(new TreeCompactor());
+    }
+
+    /**
+     * Stores the tree compactly using the given compactor, e.g. one shared by every command of a plugin, see {@link TreeCompactor}.
+     * Must be called before {@link #register(JavaPlugin, String)}.
+     *
+     * @param compactor The compactor to compact every version of the tree with.
+     * @return This command, for chaining.
+     */
+    public CommanderCommand withCompactTree(TreeCompactor compactor) {
+        this.compactor = compactor;
+        return this;
+    }
+
     /**
      * Registers this command with the specified plugin and command name.
      * Sets the executor and optionally the tab completer for the command.
@@ -43,22 +171,190 @@ public class CommanderCommand {
      *         if the command does not exist in the plugin.
      */
     public boolean register(JavaPlugin plugin, String commandName) {
-        initialize(root);
+        prepare();
 
         PluginCommand command = plugin.getCommand(commandName);
         if (command == null) return false;
 
         // Set the command executor
-        command.setExecutor(new CommandExecutorWrapper(root));
+        CommandExecutor executor = new CommandExecutorWrapper(tree, auditJournal);
+        command.setExecutor(trafficRecorder != null ? trafficRecorder.recordCommands(executor) : executor);
 
         // Optionally set the tab completer
         if (tabComplete) {
-            command.setTabCompleter(new TabCompleterWrapper(root));
+            TabCompleter completer = new TabCompleterWrapper(tree, asyncCompletion, completionCache);
+            command.setTabCompleter(trafficRecorder != null ? trafficRecorder.recordCompletions(completer) : completer);
         }
 
         return true;
     }
 
+    /**
+     * Runs many command lines for one sender on the calling thread, returning a result per line instead of sending chat messages.
+     * Prepares the tree like {@link #register(JavaPlugin, String)} if the command was not registered yet.
+     *
+     * @param sender      The sender to run the lines as.
+     * @param lines       The command lines, without the leading slash and command label.
+     * @return One result per line, in the same order.
+     * @see CommandBatch
+     */
+    public List<BatchResult> executeBatch(CommandSender sender, List<String> lines) {
+        return executeBatch(sender, lines, null);
+    }
+
+    /**
+     * Runs many command lines for one sender, running the lines of thread-safe nodes on the given workers in parallel.
+     * The lines must not depend on each other.
+     *
+     * @param sender      The sender to run the lines as.
+     * @param lines       The command lines, without the leading slash and command label.
+     * @param workers     The executor to run thread-safe lines on, or null to run every line on the calling thread.
+     * @return One result per line, in the same order.
+     * @see CommandBatch
+     */
+    public List<BatchResult> executeBatch(CommandSender sender, List<String> lines, Executor workers) {
+        prepare();
+        return tree.current().batch().run(sender, lines, workers);
+    }
+
+    /**
+     * Replaces the command tree without re-registering the command, e.g. after the config that generates part of it changed.
+     * <p>
+     * The new tree is compiled and flattened on the calling thread, which may be any thread, and then published with a single atomic swap.
+     * Commands, completions and batches that already started finish on the old tree. Nodes taken over from the old tree keep their
+     * compiled parsers and metrics, help output and permission snapshots are rebuilt lazily for the new tree.
+     * If compiling a node throws, the exception propagates and the old tree stays in place.
+     *
+     * @param root The root node of the new tree.
+     * @return The new version, which is not published if a reload started later finished first.
+     */
+    public TreeVersion reload(ExecutorNode<CommandGroupNode> root) {
+        prepare();
+
+        TreeVersion next = build(root);
+        tree.publish(next);
+        return next;
+    }
+
+    /**
+     * Builds a new tree on the given executor and publishes it, see {@link #reload(ExecutorNode)}.
+     *
+     * @param root The root node of the new tree.
+     * @param builder The executor to compile the tree on.
+     * @return A future completed with the new version, or exceptionally if the tree failed to compile.
+     */
+    public CompletableFuture<TreeVersion> reloadAsync(ExecutorNode<CommandGroupNode> root, Executor builder) {
+        return CompletableFuture.supplyAsync(() -> reload(root), builder);
+    }
+
+    /**
+     * Initializes, compiles and freezes the tree once, building the first version shared by every entry point.
+     */
+    private synchronized void prepare() {
+        if (tree != null) return;
+
+        initialize(root);
+        tree = new VersionedTree(build(root));
+    }
+
+    /**
+     * Applies the command wide settings to a tree and compiles it into a new version.
+     */
+    private TreeVersion build(ExecutorNode<CommandGroupNode> root) {
+        return build(versions.incrementAndGet(), root, compactor);
+    }
+
+    private TreeVersion build(long version, ExecutorNode<CommandGroupNode> root, TreeCompactor compactor) {
+        if (metrics) root.enableMetrics();
+        if (errorReporter != null) root.setErrorReporter(errorReporter);
+        if (compactor != null) compactor.compact(root);
+        return TreeVersion.build(version, root);
+    }
+
+    /**
+     * Creates an engine that replays recorded traffic against this command without a server, see {@link ReplayEngine}.
+     * Commands go through the same wrappers as live commands and share this command's tree, rate limits, metrics and completion cache,
+     * but are not recorded in the audit journal. Completions are computed on the replaying threads.
+     * Use {@link #replayEngine(ExecutorNode)} to leave the live state alone.
+     * Prepares the tree like {@link #register(JavaPlugin, String)} if the command was not registered yet.
+     *
+     * @return The replay engine.
+     */
+    public ReplayEngine replayEngine() {
+        prepare();
+        return new ReplayEngine(new CommandExecutorWrapper(tree, null), tabComplete ? new TabCompleterWrapper(tree, null, completionCache) : null);
+    }
+
+    /**
+     * Creates an engine that replays recorded traffic against a candidate tree, e.g. to compare it with the current one before reloading.
+     * The candidate gets this command's metrics, error reporter and compaction settings, is compacted into tables of its own
+     * and is never published. Nothing is journaled or cached, so the live tree is untouched as long as the candidate does not
+     * reuse its nodes, whose rate limits and metrics would be shared.
+     *
+     * @param root The root node of the candidate tree.
+     * @return The replay engine.
+     */
+    public ReplayEngine replayEngine(ExecutorNode<CommandGroupNode> root) {
+        return replayEngine(build(0, root, compactor != null ? new TreeCompactor() : null));
+    }
+
+    /**
+     * Creates an engine that replays recorded traffic against an already built tree version, without an audit journal or completion cache.
+     *
+     * @param version The version to replay against, e.g. built with {@link TreeVersion#build(long, ExecutorNode)}.
+     * @return The replay engine.
+     */
+    public ReplayEngine replayEngine(TreeVersion version) {
+        VersionedTree isolated = new VersionedTree(version);
+        return new ReplayEngine(new CommandExecutorWrapper(isolated, null), tabComplete ? new TabCompleterWrapper(isolated, null, null) : null);
+    }
+
+    /**
+     * Exports the current tree as the client-side command graph seen by a sender, see {@link CommandGraphExporter}.
+     * Prepares the tree like {@link #register(JavaPlugin, String)} if the command was not registered yet.
+     *
+     * @param label       The command label the graph is exported under.
+     * @param sender      The sender whose permissions decide which nodes are visible.
+     * @return The literal node of the command, or null if the sender cannot use it.
+     */
+    public GraphNode exportGraph(String label, CommandSender sender) {
+        prepare();
+        return new CommandGraphExporter().export(tree.current().getRoot(), label, sender);
+    }
+
+    /**
+     * Estimates the heap taken up by the current tree, see {@link TreeFootprint}.
+     * Prepares the tree like {@link #register(JavaPlugin, String)} if the command was not registered yet.
+     *
+     * @return The footprint of the current version.
+     */
+    public TreeFootprint footprint() {
+        prepare();
+        return TreeFootprint.measure(tree.current().getRoot());
+    }
+
+    /**
+     * Returns the version of the tree that is currently dispatched to.
+     *
+     * @return The current version, or null if the command was not registered yet.
+     */
+    public TreeVersion getCurrentVersion() {
+        VersionedTree current = tree;
+        return current == null ? null : current.current();
+    }
+
+    /**
+     * Returns the cache used for permission checks in help output and tab completion.
+     * Call {@link PermissionCache#invalidate(org.bukkit.command.CommandSender)} from your permission plugin's events
+     * so changes show up before the cache expires on its own. Every tree version has its own cache.
+     *
+     * @return The permission cache of the current version, or null if the command was not registered yet.
+     */
+    public PermissionCache getPermissionCache() {
+        TreeVersion current = getCurrentVersion();
+        return current == null ? null : current.getPermissionCache();
+    }
+
     /**
      * A method that is called in {@code register} that you can override to
      * set up the command
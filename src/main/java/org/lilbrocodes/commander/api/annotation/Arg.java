@@ -0,0 +1,31 @@
+package org.lilbrocodes.commander.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures a parameter of a {@link Subcommand} method.
+ * Without it, the parameter is named after the Java parameter and its type is derived from the Java type:
+ * strings, primitives and their wrappers, enums, and the built-in argument types for players, worlds, locations, UUIDs and durations.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.PARAMETER)
+public @interface Arg {
+    /**
+     * @return the name of the parameter shown in help and errors, or an empty string for the Java parameter name
+     */
+    String value() default "";
+
+    /**
+     * @return the id of an argument type registered in {@code ArgumentTypes}, or an empty string to derive it from the Java type
+     */
+    String type() default "";
+
+    /**
+     * @return the name of a method on the handler without parameters returning {@code List<String>} to complete this parameter with,
+     *         or an empty string for the default suggestions
+     */
+    String suggestions() default "";
+}
@@ -0,0 +1,36 @@
+package org.lilbrocodes.commander.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose {@link Subcommand} methods make up a command tree.
+ * With the {@code commander-processor} annotation processor on the compile classpath, a class named {@code <Handler>Tree}
+ * is generated next to the handler, building the tree with {@code create(handler)} or a ready {@code CommanderCommand}
+ * with {@code command(handler, tabComplete)}.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface CommandHandler {
+    /**
+     * @return the name of the root command, as declared in plugin.yml
+     */
+    String name();
+
+    /**
+     * @return the name of the owning plugin, used for messages and default permissions
+     */
+    String plugin();
+
+    /**
+     * @return the description of the root command
+     */
+    String description() default "";
+
+    /**
+     * @return the permission of the root command, or an empty string for "pluginName.commandName"
+     */
+    String permission() default "";
+}
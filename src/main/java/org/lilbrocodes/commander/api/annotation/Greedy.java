@@ -0,0 +1,14 @@
+package org.lilbrocodes.commander.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Parses a {@code String} parameter as GREEDY_STRING, taking the rest of the line.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.PARAMETER)
+public @interface Greedy {
+}
@@ -0,0 +1,45 @@
+package org.lilbrocodes.commander.api.annotation;
+
+import org.lilbrocodes.commander.api.executor.ExecutionMode;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a {@link CommandHandler} as the executor of a subcommand.
+ * The first parameter receives the sender and must be a {@code CommandSender} or a subtype such as {@code Player},
+ * the remaining parameters become the typed parameters of the node, see {@link Arg}.
+ * <p>
+ * Groups along the path are created as needed. A path that has both subcommands and a handler without parameters
+ * becomes a {@code CommandHybridNode}, an empty path sets the executor of the root command.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface Subcommand {
+    /**
+     * @return the space-separated path of the subcommand below the root, e.g. "warp set"
+     */
+    String value();
+
+    /**
+     * @return the description of the subcommand
+     */
+    String description() default "";
+
+    /**
+     * @return the permission of the subcommand, or an empty string for "pluginName.commandName"
+     */
+    String permission() default "";
+
+    /**
+     * @return where the method runs once its arguments are parsed
+     */
+    ExecutionMode mode() default ExecutionMode.SYNC;
+
+    /**
+     * @return how many executions may be queued or running off-thread at once, or 0 for no limit
+     */
+    int maxConcurrency() default 0;
+}
@@ -0,0 +1,45 @@
+package org.lilbrocodes.commander.api.argument;
+
+/**
+ * The ways parsing a single typed parameter can fail.
+ * Parsers only record one of these constants together with the offending input, the message is built when it is actually shown.
+ */
+@SuppressWarnings("unused")
+public enum ArgumentError {
+    MISSING_PARAMETER,
+    QUOTE_NOT_OPENED,
+    QUOTE_NOT_CLOSED,
+    QUOTE_EMPTY,
+    INVALID_NUMBER,
+    INVALID_BOOLEAN,
+    MISSING_ENUM_CLASS,
+    INVALID_ENUM,
+    INVALID_VALUE,
+    INVALID_RANGE,
+    TOO_MANY_ELEMENTS;
+
+    /**
+     * Builds the human-readable message for this error.
+     *
+     * @param parameter the parameter that failed to parse
+     * @param input the raw input that was rejected, may be null if the parameter was missing
+     * @return the message to show to the command sender
+     */
+    public String message(TypedParameter parameter, String input) {
+        return switch (this) {
+            case MISSING_PARAMETER -> "Missing parameter: " + parameter.name();
+            case QUOTE_NOT_OPENED -> "Quoted string must start with a quote (\").";
+            case QUOTE_NOT_CLOSED -> "Quoted string must end with a quote (\").";
+            case QUOTE_EMPTY -> "Quoted string missing content and end quote.";
+            case INVALID_NUMBER -> "Invalid number for parameter '" + parameter.name() + "': " + input;
+            case INVALID_BOOLEAN -> String.format("Invalid value for boolean parameter '%s': '%s' - must be either 'true' or 'false'.", parameter.name(), input);
+            case MISSING_ENUM_CLASS -> "No enum class provided for parameter: " + parameter.name();
+            case INVALID_ENUM -> "Invalid value for enum parameter '" + parameter.name() +
+                    "': " + input + ". Expected one of: " +
+                    String.join(", ", parameter.suggestions());
+            case INVALID_VALUE -> "Invalid " + parameter.argumentType().name() + " for parameter '" + parameter.name() + "': " + input;
+            case INVALID_RANGE -> "Invalid range for parameter '" + parameter.name() + "': " + input + ". The start must not be greater than the end.";
+            case TOO_MANY_ELEMENTS -> "Too many values for parameter '" + parameter.name() + "', at most " + parameter.maxElements() + " are allowed.";
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package org.lilbrocodes.commander.api.argument;
+
+import java.util.List;
+
+/**
+ * A cursor over the arguments of a command line, shared by every parameter of a node.
+ * <p>
+ * Bukkit splits the command line on single spaces, so joining its tokens with single spaces restores the original line exactly.
+ * Plain tokens are handed out as the token strings Bukkit already allocated, and the line is only joined once a quoted or greedy
+ * parameter needs it; those values then become a single {@code substring} of the line, keeping the original spacing.
+ * <p>
+ * Inside quotes, {@code \"} stands for a quote and {@code \\} for a backslash. Any other backslash is kept as is.
+ */
+@SuppressWarnings("unused")
+public final class ArgumentReader {
+    private static final char SEPARATOR = ' ';
+    private static final char QUOTE = '"';
+    private static final char ESCAPE = '\\';
+
+    private List<String> tokens; // Null when reading a raw line
+    private int from;
+    private int token; // Index of the token at the cursor, only used when reading tokens
+    private String line;
+    private int cursor;
+    private boolean more;
+
+    private ArgumentError error;
+    private String errorInput;
+
+    /**
+     * Creates a reader over a raw command line, without the command label.
+     *
+     * @param line the command line
+     */
+    public ArgumentReader(String line) {
+        reset(line);
+    }
+
+    ArgumentReader() {
+    }
+
+    /**
+     * Creates a reader over already split arguments.
+     *
+     * @param args the arguments, split on single spaces
+     * @param from the index of the first argument to read
+     * @return the reader
+     */
+    public static ArgumentReader of(List<String> args, int from) {
+        return new ArgumentReader().reset(args, from);
+    }
+
+    /**
+     * Points this reader at already split arguments.
+     *
+     * @param args the arguments, split on single spaces
+     * @param from the index of the first argument to read
+     * @return this reader
+     */
+    ArgumentReader reset(List<String> args, int from) {
+        this.tokens = args;
+        this.from = from;
+        this.token = from;
+        this.line = null;
+        this.cursor = 0;
+        this.more = from < args.size();
+        this.error = null;
+        this.errorInput = null;
+        return this;
+    }
+
+    /**
+     * Points this reader at another raw command line, so one reader can be reused for many lines.
+     *
+     * @param line the command line
+     * @return this reader
+     */
+    public ArgumentReader reset(String line) {
+        this.tokens = null;
+        this.from = 0;
+        this.token = 0;
+        this.line = line;
+        this.cursor = 0;
+        this.more = !line.isEmpty();
+        this.error = null;
+        this.errorInput = null;
+        return this;
+    }
+
+    /**
+     * Drops the references to the arguments so pooled readers do not keep them alive.
+     */
+    void clear() {
+        tokens = null;
+        line = null;
+        errorInput = null;
+    }
+
+    /**
+     * @return true if another argument follows the cursor, it may be empty if the line contains two spaces in a row
+     */
+    public boolean canRead() {
+        return more;
+    }
+
+    /**
+     * @param count a number of arguments
+     * @return true if at least {@code count} more arguments follow the cursor
+     */
+    public boolean canRead(int count) {
+        if (!more) return count <= 0;
+        if (tokens != null) return token + count <= tokens.size();
+
+        int position = cursor;
+        for (int i = 1; i < count; i++) {
+            position = line.indexOf(SEPARATOR, position) + 1;
+            if (position == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the position of the cursor in {@link #getLine()}
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return the line being read, joined from the split arguments on first use
+     */
+    public String getLine() {
+        if (line == null) line = tokens.size() - from == 1 ? tokens.get(from) : String.join(" ", tokens.subList(from, tokens.size()));
+        return line;
+    }
+
+    /**
+     * @return the error of the last failed read, or null
+     */
+    public ArgumentError getError() {
+        return error;
+    }
+
+    /**
+     * @return the input rejected by the last failed read, or null
+     */
+    public String getErrorInput() {
+        return errorInput;
+    }
+
+    /**
+     * Returns the argument at the cursor without moving past it.
+     * The caller must check {@link #canRead()} first.
+     *
+     * @return the argument
+     */
+    public String peekToken() {
+        if (tokens != null) return tokens.get(token);
+
+        int end = line.indexOf(SEPARATOR, cursor);
+        return line.substring(cursor, end < 0 ? line.length() : end);
+    }
+
+    /**
+     * Reads the argument at the cursor, up to the next space.
+     * The caller must check {@link #canRead()} first.
+     *
+     * @return the argument
+     */
+    public String readToken() {
+        if (tokens != null) {
+            String value = tokens.get(token);
+            advance(cursor + value.length(), 0);
+            return value;
+        }
+
+        int end = line.indexOf(SEPARATOR, cursor);
+        if (end < 0) end = line.length();
+        String value = line.substring(cursor, end);
+        advance(end, 0);
+        return value;
+    }
+
+    /**
+     * Moves the cursor past the argument at the cursor, without creating a string for it.
+     * The caller must check {@link #canRead()} first.
+     */
+    public void skipToken() {
+        if (tokens != null) {
+            advance(cursor + tokens.get(token).length(), 0);
+            return;
+        }
+
+        int end = line.indexOf(SEPARATOR, cursor);
+        advance(end < 0 ? line.length() : end, 0);
+    }
+
+    /**
+     * Reads everything from the cursor to the end of the line, spacing included.
+     * The caller must check {@link #canRead()} first.
+     *
+     * @return the rest of the line
+     */
+    public String readRemaining() {
+        String value;
+        if (tokens != null && token == tokens.size() - 1 && line == null) {
+            value = tokens.get(token);
+        } else {
+            value = getLine().substring(cursor);
+        }
+
+        cursor += value.length();
+        token = tokens != null ? tokens.size() : 0;
+        more = false;
+        return value;
+    }
+
+    /**
+     * Reads a quoted argument such as {@code "hello world"}, which may span several spaces.
+     * The value ends at the first unescaped quote that is followed by a space or the end of the line.
+     * The caller must check {@link #canRead()} first.
+     *
+     * @return the unquoted, unescaped value, or null if it could not be read, see {@link #getError()}
+     */
+    public String readQuoted() {
+        String line = getLine();
+        int start = cursor;
+        int length = line.length();
+
+        if (start >= length || line.charAt(start) != QUOTE) return fail(ArgumentError.QUOTE_NOT_OPENED, start);
+        if (start + 1 == length || line.charAt(start + 1) == SEPARATOR) return fail(ArgumentError.QUOTE_EMPTY, start);
+
+        StringBuilder unescaped = null;
+        int chunk = start + 1;
+        int separators = 0;
+        for (int i = start + 1; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == ESCAPE && i + 1 < length && (line.charAt(i + 1) == QUOTE || line.charAt(i + 1) == ESCAPE)) {
+                if (unescaped == null) unescaped = new StringBuilder(length - start);
+                unescaped.append(line, chunk, i);
+                chunk = ++i;
+            } else if (c == SEPARATOR) {
+                separators++;
+            } else if (c == QUOTE && (i + 1 == length || line.charAt(i + 1) == SEPARATOR)) {
+                String value = unescaped == null ? line.substring(start + 1, i) : unescaped.append(line, chunk, i).toString();
+                advance(i + 1, separators);
+                return value;
+            }
+        }
+
+        return fail(ArgumentError.QUOTE_NOT_CLOSED, start);
+    }
+
+    /**
+     * Moves the cursor to {@code end}, then past the space that follows it if there is one.
+     *
+     * @param end the end of the value that was just read
+     * @param separators how many spaces the value itself contained
+     */
+    private void advance(int end, int separators) {
+        token += separators;
+        if (tokens != null ? token + 1 < tokens.size() : end < line.length()) {
+            cursor = end + 1;
+            token++;
+            more = true;
+        } else {
+            cursor = end;
+            token = tokens != null ? tokens.size() : 0;
+            more = false;
+        }
+    }
+
+    private String fail(ArgumentError error, int start) {
+        String line = this.line;
+        int end = line.indexOf(SEPARATOR, start);
+        this.error = error;
+        this.errorInput = line.substring(start, end < 0 ? line.length() : end);
+        return null;
+    }
+}
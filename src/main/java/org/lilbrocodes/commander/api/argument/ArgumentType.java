@@ -0,0 +1,89 @@
+package org.lilbrocodes.commander.api.argument;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A custom parameter type, parsed and completed by the same object so executors never parse their arguments by hand.
+ * Register shared types in {@link ArgumentTypes} and use them with {@link TypedParameter#TypedParameter(String, ArgumentType)}.
+ * <p>
+ * Parsing always runs on the thread that dispatches the command, completion may run on an async completion pool
+ * if the parameter was declared with {@link TypedParameter#withThreadSafeSuggestions()}.
+ *
+ * @param <T> the type of the parsed value
+ */
+@SuppressWarnings("unused")
+public interface ArgumentType<T> {
+
+    /**
+     * @return the name of this type, shown in error messages
+     */
+    String name();
+
+    /**
+     * Reads {@link #arity()} arguments from the reader.
+     * The reader is guaranteed to hold at least that many arguments.
+     *
+     * @param reader the reader, positioned at the first argument of this parameter
+     * @return the parsed value, or null if the input is invalid
+     */
+    T parse(ArgumentReader reader);
+
+    /**
+     * Returns completions for the argument currently being typed.
+     *
+     * @param sender the sender asking for completions
+     * @param typed the arguments typed for this parameter so far, the last one is the prefix being completed
+     * @return the completions
+     */
+    default List<String> complete(CommandSender sender, List<String> typed) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return how many arguments this type consumes
+     */
+    default int arity() {
+        return 1;
+    }
+
+    /**
+     * Creates a single-argument type.
+     *
+     * @param name the name of the type
+     * @param parser parses one argument, returning null if it is invalid
+     * @param suggestions the values to complete, or null for no completions
+     * @param <T> the type of the parsed value
+     * @return the argument type
+     */
+    static <T> ArgumentType<T> of(String name, Function<String, T> parser, Supplier<? extends Iterable<String>> suggestions) {
+        return new ArgumentType<>() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public T parse(ArgumentReader reader) {
+                return parser.apply(reader.readToken());
+            }
+
+            @Override
+            public List<String> complete(CommandSender sender, List<String> typed) {
+                if (suggestions == null) return Collections.emptyList();
+
+                String prefix = typed.get(typed.size() - 1);
+                List<String> matches = new ArrayList<>();
+                for (String value : suggestions.get()) {
+                    if (value.regionMatches(true, 0, prefix, 0, prefix.length())) matches.add(value);
+                }
+                return matches;
+            }
+        };
+    }
+}
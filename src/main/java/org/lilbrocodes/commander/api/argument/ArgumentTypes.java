@@ -0,0 +1,243 @@
+package org.lilbrocodes.commander.api.argument;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.lilbrocodes.commander.api.util.TickCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of named {@link ArgumentType}s, with built-in types for players, worlds, locations, UUIDs and durations.
+ * Types are resolved once when a {@link TypedParameter} is created, so the registry is never consulted while dispatching.
+ */
+@SuppressWarnings("unused")
+public final class ArgumentTypes {
+    private static final Map<String, ArgumentType<?>> TYPES = new ConcurrentHashMap<>();
+    private static final TickCache<Player> PLAYERS = new TickCache<>();
+    private static final TickCache<World> WORLDS = new TickCache<>();
+    private static final List<String> DURATION_UNITS = List.of("d", "h", "m", "s", "ms", "t");
+
+    /**
+     * An online player, by exact name ignoring case.
+     */
+    public static final ArgumentType<Player> PLAYER = register("player", new ArgumentType<>() {
+        @Override
+        public String name() {
+            return "player";
+        }
+
+        @Override
+        public Player parse(ArgumentReader reader) {
+            return player(reader.readToken());
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, List<String> typed) {
+            List<String> names = new ArrayList<>();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                names.add(player.getName());
+            }
+            return matching(names, typed.get(typed.size() - 1));
+        }
+    });
+
+    /**
+     * A loaded world, by name.
+     */
+    public static final ArgumentType<World> WORLD = register("world", new ArgumentType<>() {
+        @Override
+        public String name() {
+            return "world";
+        }
+
+        @Override
+        public World parse(ArgumentReader reader) {
+            return world(reader.readToken());
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, List<String> typed) {
+            return matching(worldNames(), typed.get(typed.size() - 1));
+        }
+    });
+
+    /**
+     * A location given as a world name followed by x, y and z coordinates.
+     */
+    public static final ArgumentType<Location> LOCATION = register("location", new ArgumentType<>() {
+        @Override
+        public String name() {
+            return "location";
+        }
+
+        @Override
+        public Location parse(ArgumentReader reader) {
+            World world = world(reader.readToken());
+            if (world == null) return null;
+
+            try {
+                double x = Double.parseDouble(reader.readToken());
+                double y = Double.parseDouble(reader.readToken());
+                double z = Double.parseDouble(reader.readToken());
+                return new Location(world, x, y, z);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, List<String> typed) {
+            return typed.size() == 1 ? matching(worldNames(), typed.get(0)) : Collections.emptyList();
+        }
+
+        @Override
+        public int arity() {
+            return 4;
+        }
+    });
+
+    /**
+     * A UUID in its standard hyphenated form.
+     */
+    public static final ArgumentType<UUID> UUID = register("uuid", ArgumentType.of("UUID", raw -> {
+        if (raw.length() != 36) return null;
+        try {
+            return java.util.UUID.fromString(raw);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }, null));
+
+    /**
+     * A duration such as {@code 90s}, {@code 1h30m} or {@code 20t}.
+     * Supported units are d, h, m, s, ms and t (ticks of 50ms), a number without a unit counts as seconds.
+     */
+    public static final ArgumentType<Duration> DURATION = register("duration", new ArgumentType<>() {
+        @Override
+        public String name() {
+            return "duration";
+        }
+
+        @Override
+        public Duration parse(ArgumentReader reader) {
+            return duration(reader.readToken());
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, List<String> typed) {
+            String prefix = typed.get(typed.size() - 1);
+            if (prefix.isEmpty() || !Character.isDigit(prefix.charAt(prefix.length() - 1))) return Collections.emptyList();
+
+            List<String> completions = new ArrayList<>(DURATION_UNITS.size());
+            for (String unit : DURATION_UNITS) {
+                completions.add(prefix + unit);
+            }
+            return completions;
+        }
+    });
+
+    private ArgumentTypes() {
+    }
+
+    /**
+     * Registers an argument type under an id.
+     *
+     * @param id the id to register the type under, case-insensitive
+     * @param type the type
+     * @param <T> the type of the parsed value
+     * @return the registered type
+     * @throws IllegalArgumentException if another type is already registered under the id
+     */
+    public static <T> ArgumentType<T> register(String id, ArgumentType<T> type) {
+        ArgumentType<?> previous = TYPES.putIfAbsent(id.toLowerCase(Locale.ROOT), type);
+        if (previous != null && previous != type) throw new IllegalArgumentException("Argument type " + id + " is already registered.");
+        return type;
+    }
+
+    /**
+     * @param id the id of the type
+     * @return the type registered under the id
+     * @throws IllegalArgumentException if no type is registered under the id
+     */
+    public static ArgumentType<?> get(String id) {
+        ArgumentType<?> type = TYPES.get(id.toLowerCase(Locale.ROOT));
+        if (type == null) throw new IllegalArgumentException("Unknown argument type: " + id);
+        return type;
+    }
+
+    /**
+     * @param id the id of the type
+     * @return true if a type is registered under the id
+     */
+    public static boolean isRegistered(String id) {
+        return TYPES.containsKey(id.toLowerCase(Locale.ROOT));
+    }
+
+    private static Player player(String name) {
+        Player player = PLAYERS.get(name, Bukkit::getPlayerExact);
+        return player != null && player.isOnline() ? player : null;
+    }
+
+    private static World world(String name) {
+        return WORLDS.get(name, Bukkit::getWorld);
+    }
+
+    private static List<String> worldNames() {
+        List<World> worlds = Bukkit.getWorlds();
+        List<String> names = new ArrayList<>(worlds.size());
+        for (World world : worlds) {
+            names.add(world.getName());
+        }
+        return names;
+    }
+
+    private static List<String> matching(List<String> values, String prefix) {
+        List<String> matches = new ArrayList<>();
+        for (String value : values) {
+            if (value.regionMatches(true, 0, prefix, 0, prefix.length())) matches.add(value);
+        }
+        return matches;
+    }
+
+    private static Duration duration(String raw) {
+        if (raw.isEmpty()) return null;
+
+        long millis = 0;
+        int i = 0;
+        int length = raw.length();
+        while (i < length) {
+            int start = i;
+            while (i < length && Character.isDigit(raw.charAt(i))) i++;
+            if (i == start || i - start > 9) return null;
+
+            long amount = Long.parseLong(raw, start, i, 10);
+            int unitStart = i;
+            while (i < length && !Character.isDigit(raw.charAt(i))) i++;
+
+            long unit;
+            switch (raw.substring(unitStart, i).toLowerCase(Locale.ROOT)) {
+                case "d" -> unit = 86_400_000L;
+                case "h" -> unit = 3_600_000L;
+                case "m" -> unit = 60_000L;
+                case "", "s" -> unit = 1_000L;
+                case "ms" -> unit = 1L;
+                case "t" -> unit = 50L;
+                default -> {
+                    return null;
+                }
+            }
+            millis += amount * unit;
+        }
+        return Duration.ofMillis(millis);
+    }
+}
@@ -0,0 +1,104 @@
+package org.lilbrocodes.commander.api.argument;
+
+import java.util.List;
+
+/**
+ * A list of {@link TypedParameter}s compiled into a chain of type-specialized parsers.
+ * Compiling resolves every per-type decision up front, so parsing a command only walks the chain.
+ */
+@SuppressWarnings("unused")
+public final class CompiledParameters {
+    private static final ThreadLocal<ParsedArguments> POOL = ThreadLocal.withInitial(() -> new ParsedArguments(8));
+
+    private final ParameterParser[] parsers;
+    private final ParameterType[] types;
+
+    private CompiledParameters(ParameterParser[] parsers, ParameterType[] types) {
+        this.parsers = parsers;
+        this.types = types;
+    }
+
+    /**
+     * Compiles a list of parameters into a parser chain.
+     *
+     * @param parameters the parameters, in the order they are expected
+     * @return the compiled parameters
+     */
+    public static CompiledParameters compile(List<TypedParameter> parameters) {
+        int count = parameters.size();
+        ParameterParser[] parsers = new ParameterParser[count];
+        ParameterType[] types = new ParameterType[count];
+
+        for (int i = 0; i < count; i++) {
+            TypedParameter parameter = parameters.get(i);
+            parsers[i] = ParameterParser.of(parameter, i);
+            types[i] = parameter.type();
+        }
+
+        return new CompiledParameters(parsers, types);
+    }
+
+    /**
+     * @return the number of parameters in this chain
+     */
+    public int size() {
+        return parsers.length;
+    }
+
+    /**
+     * Takes a holder for a parse on the current thread.
+     * The pooled holder is reused unless it is still held further up the stack, e.g. when an executor dispatches another command.
+     *
+     * @return a reset holder sized for these parameters
+     */
+    public ParsedArguments acquire() {
+        ParsedArguments holder = POOL.get();
+        if (holder.inUse) holder = new ParsedArguments(types.length);
+
+        holder.reset(types);
+        holder.inUse = true;
+        return holder;
+    }
+
+    /**
+     * Returns a holder obtained from {@link #acquire()} once the executor is done with it.
+     *
+     * @param holder the holder to release
+     */
+    public void release(ParsedArguments holder) {
+        holder.clear();
+    }
+
+    /**
+     * Parses the arguments starting at {@code from} into the holder.
+     * Trailing arguments beyond the last parameter are ignored.
+     *
+     * @param args the raw arguments
+     * @param from the index of the first argument belonging to the first parameter
+     * @param out a holder obtained from {@link #acquire()}
+     * @return true if every parameter was parsed, false if {@link ParsedArguments#error()} was set
+     */
+    public boolean parse(List<String> args, int from, ParsedArguments out) {
+        return parse(out.reader().reset(args, from), out);
+    }
+
+    /**
+     * Parses the arguments at the cursor of a reader into the holder, leaving the cursor after the last parameter.
+     *
+     * @param reader the reader over the raw arguments
+     * @param out a holder obtained from {@link #acquire()}
+     * @return true if every parameter was parsed, false if {@link ParsedArguments#error()} was set
+     */
+    public boolean parse(ArgumentReader reader, ParsedArguments out) {
+        for (ParameterParser parser : parsers) {
+            if (!reader.canRead()) {
+                out.fail(ArgumentError.MISSING_PARAMETER, parser.slot, parser.parameter, null);
+                return false;
+            }
+
+            if (!parser.parse(reader, out)) return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package org.lilbrocodes.commander.api.argument;
+
+/**
+ * An inclusive range of floating point numbers parsed from a DOUBLE_RANGE parameter.
+ *
+ * @param from the lower bound
+ * @param to the upper bound, never smaller than {@code from}
+ */
+public record DoubleRange(double from, double to) {
+
+    /**
+     * @param value a value
+     * @return true if the value lies within this range
+     */
+    public boolean contains(double value) {
+        return value >= from && value <= to;
+    }
+
+    /**
+     * @return the distance between the bounds
+     */
+    public double width() {
+        return to - from;
+    }
+
+    @Override
+    public String toString() {
+        return from == to ? Double.toString(from) : from + ".." + to;
+    }
+}
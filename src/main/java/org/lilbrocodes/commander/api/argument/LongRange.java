@@ -0,0 +1,53 @@
+package org.lilbrocodes.commander.api.argument;
+
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * An inclusive range of whole numbers parsed from an INT_RANGE or LONG_RANGE parameter.
+ * The range is only described by its bounds, its values are produced on demand.
+ *
+ * @param from the first value
+ * @param to the last value, never smaller than {@code from}
+ */
+public record LongRange(long from, long to) {
+
+    /**
+     * @param value a value
+     * @return true if the value lies within this range
+     */
+    public boolean contains(long value) {
+        return value >= from && value <= to;
+    }
+
+    /**
+     * @return the number of values in this range
+     */
+    public long size() {
+        return to - from + 1;
+    }
+
+    /**
+     * Passes every value of this range to an action, in ascending order.
+     *
+     * @param action the action
+     */
+    public void forEach(LongConsumer action) {
+        for (long value = from; ; value++) {
+            action.accept(value);
+            if (value == to) break;
+        }
+    }
+
+    /**
+     * @return a stream of the values of this range, in ascending order
+     */
+    public LongStream stream() {
+        return LongStream.rangeClosed(from, to);
+    }
+
+    @Override
+    public String toString() {
+        return from == to ? Long.toString(from) : from + ".." + to;
+    }
+}
@@ -0,0 +1,574 @@
+package org.lilbrocodes.commander.api.argument;
+
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * A parser specialized for a single {@link ParameterType}, bound to one parameter slot.
+ * Parsers are created once by {@link CompiledParameters#compile(List)} and write directly into a {@link ParsedArguments} holder.
+ */
+abstract class ParameterParser {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    protected final TypedParameter parameter;
+    protected final int slot;
+
+    ParameterParser(TypedParameter parameter, int slot) {
+        this.parameter = parameter;
+        this.slot = slot;
+    }
+
+    /**
+     * Parses the argument at the cursor of the reader and moves the cursor past it.
+     * The caller guarantees that {@link ArgumentReader#canRead()} is true.
+     *
+     * @param reader the reader over the raw arguments
+     * @param out the holder to write the result into
+     * @return true if the argument was parsed, false if parsing failed
+     */
+    abstract boolean parse(ArgumentReader reader, ParsedArguments out);
+
+    /**
+     * Creates the parser for a parameter.
+     *
+     * @param parameter the parameter to parse
+     * @param slot the index of the parameter in its node
+     * @return a parser specialized for the parameter's type
+     */
+    static ParameterParser of(TypedParameter parameter, int slot) {
+        return switch (parameter.type()) {
+            case STRING -> new StringParser(parameter, slot);
+            case QUOTED_STRING -> new QuotedStringParser(parameter, slot);
+            case GREEDY_STRING -> new GreedyStringParser(parameter, slot);
+            case SHORT -> new ShortParser(parameter, slot);
+            case INT -> new IntParser(parameter, slot);
+            case LONG -> new LongParser(parameter, slot);
+            case BOOL -> new BoolParser(parameter, slot);
+            case DOUBLE -> new DoubleParser(parameter, slot);
+            case FLOAT -> new FloatParser(parameter, slot);
+            case ENUM -> parameter.enumClass() == null
+                    ? new MissingEnumClassParser(parameter, slot)
+                    : new EnumParser(parameter, slot);
+            case INT_LIST, LONG_LIST -> new WholeListParser(parameter, slot);
+            case DOUBLE_LIST -> new DoubleListParser(parameter, slot);
+            case ENUM_SET -> parameter.enumClass() == null
+                    ? new MissingEnumClassParser(parameter, slot)
+                    : new EnumSetParser(parameter, slot);
+            case INT_RANGE, LONG_RANGE -> new WholeRangeParser(parameter, slot);
+            case DOUBLE_RANGE -> new DoubleRangeParser(parameter, slot);
+            case CUSTOM -> new CustomParser(parameter, slot);
+        };
+    }
+
+    static final class StringParser extends ParameterParser {
+        StringParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            out.objects[slot] = reader.readToken();
+            return true;
+        }
+    }
+
+    static final class QuotedStringParser extends ParameterParser {
+        QuotedStringParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String value = reader.readQuoted();
+            if (value == null) {
+                out.fail(reader.getError(), slot, parameter, reader.getErrorInput());
+                return false;
+            }
+            out.objects[slot] = value;
+            return true;
+        }
+    }
+
+    static final class GreedyStringParser extends ParameterParser {
+        GreedyStringParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            out.objects[slot] = reader.readRemaining();
+            return true;
+        }
+    }
+
+    static final class ShortParser extends ParameterParser {
+        ShortParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            try {
+                out.longs[slot] = Short.parseShort(raw);
+                return true;
+            } catch (NumberFormatException e) {
+                out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw);
+                return false;
+            }
+        }
+    }
+
+    static final class IntParser extends ParameterParser {
+        IntParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            try {
+                out.longs[slot] = Integer.parseInt(raw);
+                return true;
+            } catch (NumberFormatException e) {
+                out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw);
+                return false;
+            }
+        }
+    }
+
+    static final class LongParser extends ParameterParser {
+        LongParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            try {
+                out.longs[slot] = Long.parseLong(raw);
+                return true;
+            } catch (NumberFormatException e) {
+                out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw);
+                return false;
+            }
+        }
+    }
+
+    static final class FloatParser extends ParameterParser {
+        FloatParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            try {
+                out.doubles[slot] = Float.parseFloat(raw);
+                return true;
+            } catch (NumberFormatException e) {
+                out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw);
+                return false;
+            }
+        }
+    }
+
+    static final class DoubleParser extends ParameterParser {
+        DoubleParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            try {
+                out.doubles[slot] = Double.parseDouble(raw);
+                return true;
+            } catch (NumberFormatException e) {
+                out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw);
+                return false;
+            }
+        }
+    }
+
+    static final class BoolParser extends ParameterParser {
+        BoolParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            if (raw.equalsIgnoreCase("true")) {
+                out.longs[slot] = 1;
+            } else if (raw.equalsIgnoreCase("false")) {
+                out.longs[slot] = 0;
+            } else {
+                out.fail(ArgumentError.INVALID_BOOLEAN, slot, parameter, raw);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    static final class EnumParser extends ParameterParser {
+        private final Enum<?>[] constants;
+
+        EnumParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+            this.constants = parameter.enumClass().getEnumConstants();
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            for (Enum<?> constant : constants) {
+                if (constant.name().equalsIgnoreCase(raw)) {
+                    out.objects[slot] = constant;
+                    return true;
+                }
+            }
+            out.fail(ArgumentError.INVALID_ENUM, slot, parameter, raw);
+            return false;
+        }
+    }
+
+    static final class MissingEnumClassParser extends ParameterParser {
+        MissingEnumClassParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            out.fail(ArgumentError.MISSING_ENUM_CLASS, slot, parameter, reader.peekToken());
+            return false;
+        }
+    }
+
+    /**
+     * Parses INT_LIST and LONG_LIST in a single pass over the token, straight from its characters.
+     * Ranges inside the list are expanded and count towards the element limit.
+     */
+    static final class WholeListParser extends ParameterParser {
+        private final boolean ints;
+        private final int maxElements;
+
+        WholeListParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+            this.ints = parameter.type() == ParameterType.INT_LIST;
+            this.maxElements = parameter.maxElements();
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            long[] elements = out.elements(16, 0);
+            int count = 0;
+
+            int start = 0;
+            int length = raw.length();
+            while (true) {
+                int comma = raw.indexOf(',', start);
+                int end = comma < 0 ? length : comma;
+                int dots = rangeSeparator(raw, start, end);
+
+                long from;
+                long to;
+                try {
+                    from = whole(raw, start, dots < 0 ? end : dots, ints);
+                    to = dots < 0 ? from : whole(raw, dots + 2, end, ints);
+                } catch (NumberFormatException e) {
+                    out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw.substring(start, end));
+                    return false;
+                }
+                if (from > to) {
+                    out.fail(ArgumentError.INVALID_RANGE, slot, parameter, raw.substring(start, end));
+                    return false;
+                }
+                // Compared unsigned, since to - from overflows for ranges wider than half the long range
+                if (Long.compareUnsigned(to - from, maxElements - count - 1) > 0 || count >= maxElements) {
+                    out.fail(ArgumentError.TOO_MANY_ELEMENTS, slot, parameter, raw);
+                    return false;
+                }
+
+                int added = (int) (to - from + 1);
+                if (elements.length < count + added) elements = out.elements(count + added, count);
+                for (int i = 0; i < added; i++) {
+                    elements[count++] = from + i;
+                }
+
+                if (comma < 0) break;
+                start = comma + 1;
+            }
+
+            if (ints) {
+                int[] values = new int[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = (int) elements[i];
+                }
+                out.objects[slot] = values;
+            } else {
+                long[] values = new long[count];
+                System.arraycopy(elements, 0, values, 0, count);
+                out.objects[slot] = values;
+            }
+            return true;
+        }
+    }
+
+    static final class DoubleListParser extends ParameterParser {
+        private final int maxElements;
+
+        DoubleListParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+            this.maxElements = parameter.maxElements();
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            int count = 1;
+            for (int i = raw.indexOf(','); i >= 0; i = raw.indexOf(',', i + 1)) {
+                count++;
+            }
+            if (count > maxElements) {
+                out.fail(ArgumentError.TOO_MANY_ELEMENTS, slot, parameter, raw);
+                return false;
+            }
+
+            double[] values = new double[count];
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                int comma = raw.indexOf(',', start);
+                int end = comma < 0 ? raw.length() : comma;
+                try {
+                    values[i] = decimal(raw, start, end);
+                } catch (NumberFormatException e) {
+                    out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw.substring(start, end));
+                    return false;
+                }
+                start = end + 1;
+            }
+
+            out.objects[slot] = values;
+            return true;
+        }
+    }
+
+    static final class EnumSetParser extends ParameterParser {
+        private final Class<? extends Enum<?>> enumClass;
+        private final Enum<?>[] constants;
+        private final int maxElements;
+
+        EnumSetParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+            this.enumClass = parameter.enumClass();
+            this.constants = parameter.enumClass().getEnumConstants();
+            this.maxElements = parameter.maxElements();
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            EnumSet set = EnumSet.noneOf((Class) enumClass);
+
+            int start = 0;
+            int length = raw.length();
+            while (true) {
+                int comma = raw.indexOf(',', start);
+                int end = comma < 0 ? length : comma;
+                int dots = rangeSeparator(raw, start, end);
+
+                int from = constant(raw, start, dots < 0 ? end : dots);
+                int to = dots < 0 ? from : constant(raw, dots + 2, end);
+                if (from < 0 || to < 0) {
+                    out.fail(ArgumentError.INVALID_ENUM, slot, parameter, raw.substring(start, end));
+                    return false;
+                }
+                if (from > to) {
+                    out.fail(ArgumentError.INVALID_RANGE, slot, parameter, raw.substring(start, end));
+                    return false;
+                }
+                for (int i = from; i <= to; i++) {
+                    set.add(constants[i]);
+                }
+
+                if (comma < 0) break;
+                start = comma + 1;
+            }
+
+            if (set.size() > maxElements) {
+                out.fail(ArgumentError.TOO_MANY_ELEMENTS, slot, parameter, raw);
+                return false;
+            }
+            out.objects[slot] = set;
+            return true;
+        }
+
+        /**
+         * @return the ordinal of the constant named by raw[start, end), ignoring case, or -1 if there is none
+         */
+        private int constant(String raw, int start, int end) {
+            int length = end - start;
+            for (Enum<?> constant : constants) {
+                String name = constant.name();
+                if (name.length() == length && name.regionMatches(true, 0, raw, start, length)) return constant.ordinal();
+            }
+            return -1;
+        }
+    }
+
+    static final class WholeRangeParser extends ParameterParser {
+        private final boolean ints;
+        private final int maxElements;
+
+        WholeRangeParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+            this.ints = parameter.type() == ParameterType.INT_RANGE;
+            this.maxElements = parameter.maxElements();
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            int dots = rangeSeparator(raw, 0, raw.length());
+
+            long from;
+            long to;
+            try {
+                from = whole(raw, 0, dots < 0 ? raw.length() : dots, ints);
+                to = dots < 0 ? from : whole(raw, dots + 2, raw.length(), ints);
+            } catch (NumberFormatException e) {
+                out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw);
+                return false;
+            }
+            if (from > to) {
+                out.fail(ArgumentError.INVALID_RANGE, slot, parameter, raw);
+                return false;
+            }
+            if (Long.compareUnsigned(to - from, maxElements - 1) > 0) {
+                out.fail(ArgumentError.TOO_MANY_ELEMENTS, slot, parameter, raw);
+                return false;
+            }
+
+            out.longs[slot] = from;
+            out.ends[slot] = to;
+            return true;
+        }
+    }
+
+    static final class DoubleRangeParser extends ParameterParser {
+        DoubleRangeParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            String raw = reader.readToken();
+            int dots = rangeSeparator(raw, 0, raw.length());
+
+            double from;
+            double to;
+            try {
+                from = decimal(raw, 0, dots < 0 ? raw.length() : dots);
+                to = dots < 0 ? from : decimal(raw, dots + 2, raw.length());
+            } catch (NumberFormatException e) {
+                out.fail(ArgumentError.INVALID_NUMBER, slot, parameter, raw);
+                return false;
+            }
+            if (!(from <= to)) {
+                out.fail(ArgumentError.INVALID_RANGE, slot, parameter, raw);
+                return false;
+            }
+
+            out.doubles[slot] = from;
+            out.ends[slot] = Double.doubleToRawLongBits(to);
+            return true;
+        }
+    }
+
+    /**
+     * @return the index of the {@code ..} separating the bounds of a range within raw[start, end), or -1 if it is a single value
+     */
+    private static int rangeSeparator(String raw, int start, int end) {
+        int dots = raw.indexOf("..", start);
+        return dots >= 0 && dots + 2 <= end ? dots : -1;
+    }
+
+    /**
+     * Parses raw[start, end) as an int or a long without creating a substring.
+     */
+    private static long whole(String raw, int start, int end, boolean ints) {
+        return ints ? Integer.parseInt(raw, start, end, 10) : Long.parseLong(raw, start, end, 10);
+    }
+
+    /**
+     * Parses raw[start, end) as a double. Plain decimals of up to 15 digits are computed directly, which is exact since both the digits
+     * and the power of ten are exact doubles. Anything else, such as exponents, goes through {@link Double#parseDouble(String)}.
+     */
+    private static double decimal(String raw, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (raw.charAt(i) == '-' || raw.charAt(i) == '+')) {
+            negative = raw.charAt(i) == '-';
+            i++;
+        }
+
+        long digits = 0;
+        int count = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                if (++count > 15) break;
+                if (scale >= 0) scale++;
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (i == end && count > 0) {
+            double value = scale > 0 ? digits / POWERS_OF_TEN[scale] : digits;
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(raw.substring(start, end));
+    }
+
+    static final class CustomParser extends ParameterParser {
+        private final ArgumentType<?> type;
+        private final int arity;
+
+        CustomParser(TypedParameter parameter, int slot) {
+            super(parameter, slot);
+            this.type = parameter.argumentType();
+            this.arity = type.arity();
+        }
+
+        @Override
+        boolean parse(ArgumentReader reader, ParsedArguments out) {
+            if (!reader.canRead(arity)) {
+                out.fail(ArgumentError.MISSING_PARAMETER, slot, parameter, null);
+                return false;
+            }
+
+            String input = reader.peekToken();
+            Object value = type.parse(reader);
+            if (value == null) {
+                ArgumentError error = reader.getError();
+                if (error != null) out.fail(error, slot, parameter, reader.getErrorInput());
+                else out.fail(ArgumentError.INVALID_VALUE, slot, parameter, input);
+                return false;
+            }
+
+            out.objects[slot] = value;
+            return true;
+        }
+    }
+}
@@ -11,5 +11,27 @@ public enum ParameterType {
     BOOL,               // Boolean
     DOUBLE,             // Double
     FLOAT,              // Float,
-    ENUM                // Enum
+    ENUM,               // Enum
+    INT_LIST,           // Comma separated integers and ranges of them, e.g. 1,5,10..20, parsed into an int[]
+    LONG_LIST,          // Comma separated longs and ranges of them, parsed into a long[]
+    DOUBLE_LIST,        // Comma separated doubles, parsed into a double[]
+    ENUM_SET,           // Comma separated enum constants and ranges of them, parsed into an EnumSet
+    INT_RANGE,          // A range such as 1..500, or a single integer, kept as its bounds
+    LONG_RANGE,         // A range of longs, kept as its bounds
+    DOUBLE_RANGE,       // A range of doubles such as 0.5..2, kept as its bounds
+    CUSTOM;             // Parsed by an ArgumentType, may span several arguments
+
+    /**
+     * @return true for the comma separated list types
+     */
+    public boolean isList() {
+        return this == INT_LIST || this == LONG_LIST || this == DOUBLE_LIST || this == ENUM_SET;
+    }
+
+    /**
+     * @return true for the range types
+     */
+    public boolean isRange() {
+        return this == INT_RANGE || this == LONG_RANGE || this == DOUBLE_RANGE;
+    }
 }
@@ -0,0 +1,405 @@
+package org.lilbrocodes.commander.api.argument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Reusable holder that compiled parameter parsers write their results into.
+ * Whole numbers and booleans are stored in a {@code long[]}, floating point numbers in a {@code double[]}
+ * and everything else in an {@code Object[]}, so parsing itself never boxes a value.
+ * Ranges keep their start in those arrays and their end in a separate {@code long[]}, lists are parsed into a primitive array of their own.
+ * <p>
+ * Instances are pooled per thread by {@link CompiledParameters} and are only valid until the node that filled them returns,
+ * use {@link #copy()} to keep the values around for longer.
+ */
+@SuppressWarnings("unused")
+public final class ParsedArguments {
+    /**
+     * An empty set of arguments, passed to executors of nodes that take no parameters.
+     */
+    public static final ParsedArguments EMPTY = new ParsedArguments(0);
+
+    ParameterType[] types;
+    long[] longs;
+    double[] doubles;
+    Object[] objects;
+    long[] ends; // End of ranges, the raw bits of the double for DOUBLE_RANGE
+    int size;
+    boolean inUse;
+
+    private ArgumentError error;
+    private int errorIndex;
+    private TypedParameter errorParameter;
+    private String errorInput;
+    private ArgumentReader reader;
+    private long[] elements;
+
+    ParsedArguments(int capacity) {
+        this.types = new ParameterType[capacity];
+        this.longs = new long[capacity];
+        this.doubles = new double[capacity];
+        this.objects = new Object[capacity];
+        this.ends = new long[capacity];
+    }
+
+    /**
+     * Prepares this holder for a parse of the given parameter types, growing the backing arrays if needed.
+     *
+     * @param parameterTypes the types of the parameters that are about to be parsed
+     */
+    void reset(ParameterType[] parameterTypes) {
+        int capacity = parameterTypes.length;
+        if (types.length < capacity) {
+            types = new ParameterType[capacity];
+            longs = new long[capacity];
+            doubles = new double[capacity];
+            objects = new Object[capacity];
+            ends = new long[capacity];
+        }
+        System.arraycopy(parameterTypes, 0, types, 0, capacity);
+        size = capacity;
+        error = null;
+        errorParameter = null;
+        errorInput = null;
+    }
+
+    /**
+     * Drops every object reference held by this holder so pooled instances do not keep arguments alive.
+     */
+    void clear() {
+        Arrays.fill(objects, 0, size, null);
+        errorInput = null;
+        errorParameter = null;
+        if (reader != null) reader.clear();
+        inUse = false;
+    }
+
+    /**
+     * @return the reader reused by every parse into this holder
+     */
+    ArgumentReader reader() {
+        if (reader == null) reader = new ArgumentReader();
+        return reader;
+    }
+
+    /**
+     * Returns the buffer list parsers collect whole numbers in before copying them into an array of the exact size.
+     *
+     * @param capacity the number of elements the buffer must hold
+     * @param keep the number of elements already collected, which are preserved if the buffer grows
+     * @return the buffer, reused by every parse into this holder
+     */
+    long[] elements(int capacity, int keep) {
+        long[] current = elements;
+        if (current == null || current.length < capacity) {
+            long[] grown = new long[Math.max(capacity, current == null ? 16 : current.length * 2)];
+            if (current != null) System.arraycopy(current, 0, grown, 0, keep);
+            elements = current = grown;
+        }
+        return current;
+    }
+
+    /**
+     * Records a parse failure.
+     *
+     * @param error the kind of failure
+     * @param index the index of the parameter that failed
+     * @param parameter the parameter that failed
+     * @param input the rejected raw input, may be null
+     */
+    void fail(ArgumentError error, int index, TypedParameter parameter, String input) {
+        this.error = error;
+        this.errorIndex = index;
+        this.errorParameter = parameter;
+        this.errorInput = input;
+    }
+
+    /**
+     * @return the number of parsed arguments
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the error of the last parse, or null if it succeeded
+     */
+    public ArgumentError error() {
+        return error;
+    }
+
+    /**
+     * @return the index of the parameter that failed the last parse, only meaningful if {@link #error()} is set
+     */
+    public int errorIndex() {
+        return errorIndex;
+    }
+
+    /**
+     * @return the parameter that failed the last parse, or null if it succeeded
+     */
+    public TypedParameter errorParameter() {
+        return errorParameter;
+    }
+
+    /**
+     * @return the raw input rejected by the last parse, or null if it succeeded or the parameter was missing
+     */
+    public String errorInput() {
+        return errorInput;
+    }
+
+    /**
+     * @return the human-readable message of the last parse error, or null if it succeeded
+     */
+    public String errorMessage() {
+        return error == null ? null : error.message(errorParameter, errorInput);
+    }
+
+    /**
+     * @param index the parameter index
+     * @return the type of the parameter at {@code index}
+     */
+    public ParameterType getType(int index) {
+        return types[check(index)];
+    }
+
+    /**
+     * @param index the index of a SHORT parameter
+     * @return the parsed value
+     */
+    public short getShort(int index) {
+        expect(index, ParameterType.SHORT);
+        return (short) longs[index];
+    }
+
+    /**
+     * @param index the index of an INT or SHORT parameter
+     * @return the parsed value
+     */
+    public int getInt(int index) {
+        ParameterType type = types[check(index)];
+        if (type != ParameterType.INT && type != ParameterType.SHORT) throw mismatch(index, "INT");
+        return (int) longs[index];
+    }
+
+    /**
+     * @param index the index of a LONG, INT or SHORT parameter
+     * @return the parsed value
+     */
+    public long getLong(int index) {
+        ParameterType type = types[check(index)];
+        if (type != ParameterType.LONG && type != ParameterType.INT && type != ParameterType.SHORT) throw mismatch(index, "LONG");
+        return longs[index];
+    }
+
+    /**
+     * @param index the index of a FLOAT parameter
+     * @return the parsed value
+     */
+    public float getFloat(int index) {
+        expect(index, ParameterType.FLOAT);
+        return (float) doubles[index];
+    }
+
+    /**
+     * @param index the index of a DOUBLE or FLOAT parameter
+     * @return the parsed value
+     */
+    public double getDouble(int index) {
+        ParameterType type = types[check(index)];
+        if (type != ParameterType.DOUBLE && type != ParameterType.FLOAT) throw mismatch(index, "DOUBLE");
+        return doubles[index];
+    }
+
+    /**
+     * @param index the index of a BOOL parameter
+     * @return the parsed value
+     */
+    public boolean getBool(int index) {
+        expect(index, ParameterType.BOOL);
+        return longs[index] != 0;
+    }
+
+    /**
+     * @param index the index of a STRING, QUOTED_STRING or GREEDY_STRING parameter
+     * @return the parsed value
+     */
+    public String getString(int index) {
+        ParameterType type = types[check(index)];
+        if (type != ParameterType.STRING && type != ParameterType.QUOTED_STRING && type != ParameterType.GREEDY_STRING) throw mismatch(index, "STRING");
+        return (String) objects[index];
+    }
+
+    /**
+     * @param index the index of a CUSTOM parameter
+     * @param type the argument type of the parameter
+     * @param <T> the type of the parsed value
+     * @return the parsed value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getCustom(int index, ArgumentType<T> type) {
+        expect(index, ParameterType.CUSTOM);
+        return (T) objects[index];
+    }
+
+    /**
+     * @param index the index of an ENUM parameter
+     * @param enumClass the enum class of the parameter
+     * @return the parsed constant
+     * @param <E> the enum type
+     */
+    public <E extends Enum<E>> E getEnum(int index, Class<E> enumClass) {
+        expect(index, ParameterType.ENUM);
+        return enumClass.cast(objects[index]);
+    }
+
+    /**
+     * @param index the index of an INT_LIST parameter
+     * @return the parsed values, in the order they were given
+     */
+    public int[] getIntArray(int index) {
+        expect(index, ParameterType.INT_LIST);
+        return (int[]) objects[index];
+    }
+
+    /**
+     * @param index the index of a LONG_LIST parameter
+     * @return the parsed values, in the order they were given
+     */
+    public long[] getLongArray(int index) {
+        expect(index, ParameterType.LONG_LIST);
+        return (long[]) objects[index];
+    }
+
+    /**
+     * @param index the index of a DOUBLE_LIST parameter
+     * @return the parsed values, in the order they were given
+     */
+    public double[] getDoubleArray(int index) {
+        expect(index, ParameterType.DOUBLE_LIST);
+        return (double[]) objects[index];
+    }
+
+    /**
+     * @param index the index of an ENUM_SET parameter
+     * @param enumClass the enum class of the parameter
+     * @return the parsed constants
+     * @param <E> the enum type
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> EnumSet<E> getEnumSet(int index, Class<E> enumClass) {
+        expect(index, ParameterType.ENUM_SET);
+        return (EnumSet<E>) objects[index];
+    }
+
+    /**
+     * @param index the index of an INT_RANGE or LONG_RANGE parameter
+     * @return the first value of the range
+     */
+    public long getRangeFrom(int index) {
+        expectRange(index);
+        return longs[index];
+    }
+
+    /**
+     * @param index the index of an INT_RANGE or LONG_RANGE parameter
+     * @return the last value of the range
+     */
+    public long getRangeTo(int index) {
+        expectRange(index);
+        return ends[index];
+    }
+
+    /**
+     * @param index the index of an INT_RANGE or LONG_RANGE parameter
+     * @return the parsed range
+     */
+    public LongRange getRange(int index) {
+        expectRange(index);
+        return new LongRange(longs[index], ends[index]);
+    }
+
+    /**
+     * @param index the index of a DOUBLE_RANGE parameter
+     * @return the parsed range
+     */
+    public DoubleRange getDoubleRange(int index) {
+        expect(index, ParameterType.DOUBLE_RANGE);
+        return new DoubleRange(doubles[index], Double.longBitsToDouble(ends[index]));
+    }
+
+    /**
+     * Returns the value at {@code index} boxed, regardless of its type.
+     *
+     * @param index the parameter index
+     * @return the boxed value
+     */
+    public Object get(int index) {
+        check(index);
+        return box(index);
+    }
+
+    /**
+     * Boxes the parsed values into a new list, in the shape the {@link TypedExecutor} API expects.
+     *
+     * @return a new mutable list with one boxed value per parameter
+     */
+    public List<Object> toList() {
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(box(i));
+        }
+        return list;
+    }
+
+    /**
+     * Copies the values into a new holder that is not pooled and stays valid after the executor returns.
+     *
+     * @return a detached copy of these arguments
+     */
+    public ParsedArguments copy() {
+        ParsedArguments copy = new ParsedArguments(size);
+        System.arraycopy(types, 0, copy.types, 0, size);
+        System.arraycopy(longs, 0, copy.longs, 0, size);
+        System.arraycopy(doubles, 0, copy.doubles, 0, size);
+        System.arraycopy(objects, 0, copy.objects, 0, size);
+        System.arraycopy(ends, 0, copy.ends, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    private Object box(int index) {
+        return switch (types[index]) {
+            case SHORT -> (short) longs[index];
+            case INT -> (int) longs[index];
+            case LONG -> longs[index];
+            case BOOL -> longs[index] != 0;
+            case FLOAT -> (float) doubles[index];
+            case DOUBLE -> doubles[index];
+            case INT_RANGE, LONG_RANGE -> new LongRange(longs[index], ends[index]);
+            case DOUBLE_RANGE -> new DoubleRange(doubles[index], Double.longBitsToDouble(ends[index]));
+            default -> objects[index];
+        };
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Argument index " + index + " out of bounds for " + size + " arguments");
+        return index;
+    }
+
+    private void expect(int index, ParameterType type) {
+        if (types[check(index)] != type) throw mismatch(index, type.name());
+    }
+
+    private void expectRange(int index) {
+        ParameterType type = types[check(index)];
+        if (type != ParameterType.INT_RANGE && type != ParameterType.LONG_RANGE) throw mismatch(index, "LONG_RANGE");
+    }
+
+    private IllegalStateException mismatch(int index, String requested) {
+        return new IllegalStateException("Argument " + index + " is of type " + types[index] + ", not " + requested);
+    }
+}
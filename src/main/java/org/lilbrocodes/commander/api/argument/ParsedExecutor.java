@@ -0,0 +1,22 @@
+package org.lilbrocodes.commander.api.argument;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * Executor that reads its arguments through the typed accessors of {@link ParsedArguments} instead of a boxed list.
+ * The arguments are only valid for the duration of the call, use {@link ParsedArguments#copy()} to keep them.
+ */
+@FunctionalInterface
+public interface ParsedExecutor {
+    void execute(CommandSender sender, ParsedArguments args);
+
+    /**
+     * Adapts a {@link TypedExecutor} so it can run on parsed arguments, boxing them into a list for every call.
+     *
+     * @param executor the list based executor
+     * @return an executor that calls {@code executor} with {@link ParsedArguments#toList()}
+     */
+    static ParsedExecutor of(TypedExecutor executor) {
+        return (sender, args) -> executor.execute(sender, args.toList());
+    }
+}
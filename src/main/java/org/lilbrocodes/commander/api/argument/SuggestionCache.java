@@ -0,0 +1,107 @@
+package org.lilbrocodes.commander.api.argument;
+
+import org.lilbrocodes.commander.api.util.PrefixIndex;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Time-bounded cache of suggestion lists for a single {@link TypedParameter}.
+ * Shared suggestions live in a single slot, per-sender suggestions in an access-ordered map capped at a maximum number of senders.
+ */
+final class SuggestionCache {
+    private final long ttlNanos;
+    private final Map<Object, Entry> perSender;
+    private volatile Entry shared;
+
+    /**
+     * @param ttlNanos how long a loaded list stays valid, zero or less to keep it until invalidated
+     * @param maxSenders the maximum number of per-sender lists to keep
+     */
+    SuggestionCache(long ttlNanos, int maxSenders) {
+        this.ttlNanos = ttlNanos;
+        this.perSender = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxSenders;
+            }
+        };
+    }
+
+    /**
+     * Returns the shared entry, loading it if it is missing or expired.
+     */
+    Entry get(Supplier<List<String>> loader) {
+        Entry entry = shared;
+        long now = System.nanoTime();
+        if (entry == null || entry.isExpired(now)) {
+            entry = new Entry(loader.get(), expiry(now));
+            shared = entry;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the entry for one sender, loading it if it is missing or expired.
+     */
+    Entry get(Object key, Supplier<List<String>> loader) {
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (perSender) {
+            entry = perSender.get(key);
+        }
+        if (entry != null && !entry.isExpired(now)) return entry;
+
+        entry = new Entry(loader.get(), expiry(now));
+        synchronized (perSender) {
+            perSender.put(key, entry);
+        }
+        return entry;
+    }
+
+    void invalidate() {
+        shared = null;
+        synchronized (perSender) {
+            perSender.clear();
+        }
+    }
+
+    void invalidate(Object key) {
+        synchronized (perSender) {
+            perSender.remove(key);
+        }
+    }
+
+    private long expiry(long now) {
+        return ttlNanos > 0 ? now + ttlNanos : Long.MAX_VALUE;
+    }
+
+    /**
+     * A loaded suggestion list together with its lazily built prefix index.
+     */
+    static final class Entry {
+        final List<String> values;
+        private final long expiresAt;
+        private volatile PrefixIndex index;
+
+        Entry(List<String> values, long expiresAt) {
+            this.values = values;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+
+        PrefixIndex index() {
+            PrefixIndex built = index;
+            if (built == null) {
+                built = PrefixIndex.of(values);
+                index = built;
+            }
+            return built;
+        }
+    }
+}
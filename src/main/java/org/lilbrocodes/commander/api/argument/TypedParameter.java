@@ -1,46 +1,241 @@
 package org.lilbrocodes.commander.api.argument;
 
+import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
+import org.lilbrocodes.commander.api.util.FuzzyIndex;
+import org.lilbrocodes.commander.api.util.PrefixIndex;
+import org.lilbrocodes.commander.api.util.SenderKey;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 @SuppressWarnings("unused")
 public class TypedParameter {
+    public static final int DEFAULT_MAX_ELEMENTS = 1024;
+
+    private static final List<String> BOOL_VALUES = List.of("true", "false");
+    private static final Supplier<List<String>> BOOL_SUGGESTIONS = () -> BOOL_VALUES;
+    private static final Supplier<List<String>> NO_SUGGESTIONS = Collections::emptyList;
+    private static final AtomicLong SUGGESTION_GENERATION = new AtomicLong();
+    private static final Set<Class<?>> IMMUTABLE_LISTS = Set.of(List.of().getClass(), List.of("").getClass()); // List.of, List.copyOf, Stream.toList
+    private static final ClassValue<List<String>> ENUM_NAMES = new ClassValue<>() {
+        @Override
+        protected List<String> computeValue(Class<?> type) {
+            List<String> values = new ArrayList<>();
+            for (Object constant : type.getEnumConstants()) {
+                values.add(((Enum<?>) constant).name());
+            }
+            return List.copyOf(values);
+        }
+    };
+    private static final ClassValue<Supplier<List<String>>> ENUM_SUGGESTIONS = new ClassValue<>() {
+        @Override
+        protected Supplier<List<String>> computeValue(Class<?> type) {
+            List<String> names = ENUM_NAMES.get(type);
+            return () -> names;
+        }
+    };
+
     private final String name;
     private final ParameterType type;
     private final Supplier<List<String>> suggestions;
+    private final Function<CommandSender, List<String>> senderSuggestions; // Only used for per-sender suggestions
     private final Class<? extends Enum<?>> enumClass; // Only used for ENUM
+    private final ArgumentType<?> argumentType; // Only used for CUSTOM
+    private volatile SuggestionCache cache;
+    private volatile boolean threadSafe;
+    private volatile List<String> lastSuggestions;
+    private volatile PrefixIndex suggestionIndex;
+    private volatile FuzzyIndex fuzzyIndex;
+    private int fuzzySuggestions;
+    private int maxElements = DEFAULT_MAX_ELEMENTS;
 
     public TypedParameter(String name, ParameterType type, @NotNull Supplier<List<String>> suggestions) {
-        this(name, type, suggestions, null);
+        this(name, type, suggestions, null, null, null);
     }
 
     public TypedParameter(String name, ParameterType type) {
-        this(name, type, type == ParameterType.BOOL ? () -> List.of("true", "false") : ArrayList::new, null);
+        this(name, type, type == ParameterType.BOOL ? BOOL_SUGGESTIONS : NO_SUGGESTIONS, null, null, null);
     }
 
     public TypedParameter(String name, Class<? extends Enum<?>> enumClass) {
-        this(name, ParameterType.ENUM,
-                () -> {
-                    List<String> values = new ArrayList<>();
-                    for (Enum<?> constant : enumClass.getEnumConstants()) {
-                        values.add(constant.name());
-                    }
-                    return values;
-                },
-                enumClass
-        );
+        this(name, ParameterType.ENUM, ENUM_SUGGESTIONS.get(enumClass), null, enumClass, null);
+    }
+
+    /**
+     * Creates a parameter parsed and completed by a custom argument type.
+     *
+     * @param name the name of the parameter
+     * @param argumentType the argument type
+     */
+    public TypedParameter(String name, @NotNull ArgumentType<?> argumentType) {
+        this(name, ParameterType.CUSTOM, null, null, null, argumentType);
+    }
+
+    /**
+     * Creates a parameter parsed and completed by an argument type registered in {@link ArgumentTypes}.
+     *
+     * @param name the name of the parameter
+     * @param argumentType the id of the argument type, e.g. "player" or "duration"
+     */
+    public TypedParameter(String name, String argumentType) {
+        this(name, ArgumentTypes.get(argumentType));
     }
 
     private TypedParameter(String name, ParameterType type,
                            Supplier<List<String>> suggestions,
-                           Class<? extends Enum<?>> enumClass) {
+                           Function<CommandSender, List<String>> senderSuggestions,
+                           Class<? extends Enum<?>> enumClass,
+                           ArgumentType<?> argumentType) {
         this.name = name;
         this.type = type;
         this.suggestions = suggestions;
+        this.senderSuggestions = senderSuggestions;
         this.enumClass = enumClass;
+        this.argumentType = argumentType;
+    }
+
+    /**
+     * Creates an ENUM_SET parameter, a comma separated list of constants such as {@code red,green} or ranges of them such as {@code red..blue}.
+     *
+     * @param name the name of the parameter
+     * @param enumClass the enum class of the constants
+     * @return the new parameter
+     */
+    public static TypedParameter enumSet(String name, Class<? extends Enum<?>> enumClass) {
+        return new TypedParameter(name, ParameterType.ENUM_SET, ENUM_SUGGESTIONS.get(enumClass), null, enumClass, null);
+    }
+
+    /**
+     * Creates a parameter whose suggestions depend on who is asking, e.g. homes or friends of a player.
+     * Combine with {@link #withSuggestionCache(Duration, int)} to keep the lists of recent senders around.
+     *
+     * @param name the name of the parameter
+     * @param type the type of the parameter
+     * @param suggestions computes the suggestions for a sender
+     * @return the new parameter
+     */
+    public static TypedParameter perSender(String name, ParameterType type, @NotNull Function<CommandSender, List<String>> suggestions) {
+        return new TypedParameter(name, type, null, suggestions, null, null);
+    }
+
+    /**
+     * Caches the suggestion list for {@code ttl} instead of calling the supplier on every tab press.
+     * A zero or negative duration keeps the list until {@link #invalidateSuggestions()} is called.
+     *
+     * @param ttl how long a loaded suggestion list stays valid
+     * @return this parameter
+     */
+    public TypedParameter withSuggestionCache(Duration ttl) {
+        return withSuggestionCache(ttl, 256);
+    }
+
+    /**
+     * Caches suggestion lists for {@code ttl}, keeping per-sender lists only for the {@code maxSenders} most recent senders.
+     *
+     * @param ttl how long a loaded suggestion list stays valid
+     * @param maxSenders the maximum number of per-sender lists to keep
+     * @return this parameter
+     */
+    public TypedParameter withSuggestionCache(Duration ttl, int maxSenders) {
+        this.cache = new SuggestionCache(ttl.toNanos(), maxSenders);
+        return this;
+    }
+
+    /**
+     * Declares that the suggestion supplier may be called from any thread, allowing async tab completion to run it off the main thread.
+     *
+     * @return this parameter
+     */
+    public TypedParameter withThreadSafeSuggestions() {
+        this.threadSafe = true;
+        return this;
+    }
+
+    /**
+     * Suggests up to {@code maxSuggestions} values close to the typed text when no suggestion starts with it, to correct typos.
+     *
+     * @param maxSuggestions the maximum number of close values to suggest, or 0 to turn fuzzy matching off
+     * @return this parameter
+     */
+    public TypedParameter withFuzzySuggestions(int maxSuggestions) {
+        this.fuzzySuggestions = maxSuggestions;
+        return this;
+    }
+
+    /**
+     * Limits how many values a list or whole number range parameter accepts, counting every value a range inside a list expands to.
+     * Must be called before the node is compiled.
+     *
+     * @param maxElements the maximum number of values, at least 1
+     * @return this parameter
+     */
+    public TypedParameter withMaxElements(int maxElements) {
+        if (maxElements < 1) throw new IllegalArgumentException("maxElements must be at least 1: " + maxElements);
+        this.maxElements = maxElements;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of values of a list or whole number range parameter
+     */
+    public int maxElements() {
+        return maxElements;
+    }
+
+    /**
+     * @return true if the suggestion supplier was declared thread-safe
+     */
+    public boolean hasThreadSafeSuggestions() {
+        return threadSafe;
+    }
+
+    /**
+     * Drops every cached suggestion list and index, the next tab press will call the supplier again.
+     * Also call this after changing a list held by a suggestion cache in place.
+     */
+    public void invalidateSuggestions() {
+        SUGGESTION_GENERATION.incrementAndGet();
+        lastSuggestions = null;
+        suggestionIndex = null;
+        fuzzyIndex = null;
+        SuggestionCache current = cache;
+        if (current != null) current.invalidate();
+    }
+
+    /**
+     * Drops the cached suggestion list of one sender.
+     *
+     * @param sender the sender whose suggestions changed
+     */
+    public void invalidateSuggestions(CommandSender sender) {
+        SUGGESTION_GENERATION.incrementAndGet();
+        SuggestionCache current = cache;
+        if (current != null) current.invalidate(SenderKey.of(sender));
+    }
+
+    /**
+     * Returns a counter that changes whenever suggestions of any parameter are invalidated,
+     * letting caches built on top of completions notice that suppliers reported a change.
+     *
+     * @return the current generation
+     */
+    public static long suggestionGeneration() {
+        return SUGGESTION_GENERATION.get();
+    }
+
+    /**
+     * @return true if this parameter offers suggestions computed on the server, false if it has none or only the fixed boolean values
+     */
+    public boolean hasSuggestions() {
+        return senderSuggestions != null || argumentType != null
+                || suggestions != null && suggestions != NO_SUGGESTIONS && suggestions != BOOL_SUGGESTIONS;
     }
 
     public String name() {
@@ -51,11 +246,177 @@ public class TypedParameter {
         return type;
     }
 
+    /**
+     * Returns the suggestions of this parameter.
+     * Per-sender parameters have no sender here and return an empty list.
+     *
+     * @return the suggestions
+     */
     public List<String> suggestions() {
-        return suggestions.get();
+        if (suggestions == null) return Collections.emptyList();
+
+        SuggestionCache current = cache;
+        return current != null ? current.get(suggestions).values : suggestions.get();
+    }
+
+    /**
+     * Returns the suggestions of this parameter for a sender.
+     *
+     * @param sender the sender asking for suggestions
+     * @return the suggestions
+     */
+    public List<String> suggestions(CommandSender sender) {
+        if (senderSuggestions == null) return suggestions();
+
+        SuggestionCache current = cache;
+        return current != null
+                ? current.get(SenderKey.of(sender), () -> senderSuggestions.apply(sender)).values
+                : senderSuggestions.apply(sender);
+    }
+
+    /**
+     * Returns the suggestions that start with {@code prefix}, ignoring case.
+     * Lists from a suggestion cache, and immutable lists the supplier hands out twice, are indexed so later lookups are logarithmic.
+     * Any other list is scanned on every call, so suppliers may hand out a list that changes in place.
+     *
+     * @param prefix the typed prefix
+     * @return the matching suggestions
+     */
+    public List<String> suggestions(String prefix) {
+        if (suggestions == null) return Collections.emptyList();
+
+        int comma = type.isList() ? prefix.lastIndexOf(',') : -1;
+        if (comma >= 0) return prepend(prefix.substring(0, comma + 1), suggestions(prefix.substring(comma + 1)));
+
+        SuggestionCache current = cache;
+        if (current != null) {
+            SuggestionCache.Entry entry = current.get(suggestions);
+            return orClosest(entry.values, true, prefix, entry.index().matching(prefix));
+        }
+        List<String> values = suggestions.get();
+        return orClosest(values, IMMUTABLE_LISTS.contains(values.getClass()), prefix, match(values, prefix));
+    }
+
+    /**
+     * Returns the suggestions for a sender that start with {@code prefix}, ignoring case.
+     *
+     * @param sender the sender asking for suggestions
+     * @param prefix the typed prefix
+     * @return the matching suggestions
+     */
+    public List<String> suggestions(CommandSender sender, String prefix) {
+        if (senderSuggestions == null) return suggestions(prefix);
+
+        int comma = type.isList() ? prefix.lastIndexOf(',') : -1;
+        if (comma >= 0) return prepend(prefix.substring(0, comma + 1), suggestions(sender, prefix.substring(comma + 1)));
+
+        SuggestionCache current = cache;
+        if (current != null) {
+            SuggestionCache.Entry entry = current.get(SenderKey.of(sender), () -> senderSuggestions.apply(sender));
+            return orClosest(entry.values, true, prefix, entry.index().matching(prefix));
+        }
+        List<String> values = senderSuggestions.apply(sender);
+        return orClosest(values, IMMUTABLE_LISTS.contains(values.getClass()), prefix, match(values, prefix));
+    }
+
+    /**
+     * Returns the suggestions for the argument currently being typed, which may not be the first argument of a custom type.
+     *
+     * @param sender the sender asking for suggestions
+     * @param typed the arguments typed for this parameter so far, the last one is the prefix being completed
+     * @return the matching suggestions
+     */
+    public List<String> suggestions(CommandSender sender, List<String> typed) {
+        if (argumentType != null) return argumentType.complete(sender, typed);
+        return suggestions(sender, typed.get(typed.size() - 1));
+    }
+
+    /**
+     * Completes the last element of a list, keeping the elements typed before it.
+     */
+    private static List<String> prepend(String head, List<String> elements) {
+        List<String> completions = new ArrayList<>(elements.size());
+        for (String element : elements) {
+            completions.add(head + element);
+        }
+        return completions;
+    }
+
+    private List<String> match(List<String> values, String prefix) {
+        if (values.isEmpty()) return values;
+        if (!IMMUTABLE_LISTS.contains(values.getClass())) {
+            List<String> matches = new ArrayList<>();
+            PrefixIndex.scan(values, prefix, matches);
+            return matches;
+        }
+
+        PrefixIndex index = suggestionIndex;
+        if (index != null && index.isOf(values)) return index.matching(prefix);
+
+        if (lastSuggestions == values) {
+            index = PrefixIndex.of(values);
+            suggestionIndex = index;
+            return index.matching(prefix);
+        }
+
+        lastSuggestions = values;
+        List<String> matches = new ArrayList<>();
+        PrefixIndex.scan(values, prefix, matches);
+        return matches;
+    }
+
+    /**
+     * Falls back to the values closest to a mistyped prefix if fuzzy suggestions are on and nothing matched it.
+     * The index is kept for as long as the cache or supplier hands out the same list instance, unless the list may change in place.
+     */
+    private List<String> orClosest(List<String> values, boolean reusable, String prefix, List<String> matches) {
+        if (!matches.isEmpty() || fuzzySuggestions <= 0 || prefix.isEmpty() || values.isEmpty()) return matches;
+
+        if (!reusable) return FuzzyIndex.of(values).closest(prefix, fuzzySuggestions);
+
+        FuzzyIndex index = fuzzyIndex;
+        if (index == null || !index.isOf(values)) {
+            index = FuzzyIndex.of(values);
+            fuzzyIndex = index;
+        }
+        return index.closest(prefix, fuzzySuggestions);
     }
 
     public Class<? extends Enum<?>> enumClass() {
         return enumClass;
     }
+
+    public ArgumentType<?> argumentType() {
+        return argumentType;
+    }
+
+    /**
+     * @return how many arguments this parameter consumes, greedy strings count as one
+     */
+    public int arity() {
+        return argumentType != null ? argumentType.arity() : 1;
+    }
+
+    /**
+     * Checks whether another parameter is parsed, completed and cached exactly like this one, so either can stand in for the other.
+     * Suppliers, argument types and suggestion caches are compared by identity, two lambdas written the same way are still different.
+     *
+     * @param other the other parameter
+     * @return true if both parameters have the same definition
+     */
+    public boolean sameDefinition(TypedParameter other) {
+        return this == other || other != null
+                && name.equals(other.name) && type == other.type
+                && suggestions == other.suggestions && senderSuggestions == other.senderSuggestions
+                && enumClass == other.enumClass && argumentType == other.argumentType
+                && cache == other.cache && threadSafe == other.threadSafe
+                && fuzzySuggestions == other.fuzzySuggestions && maxElements == other.maxElements;
+    }
+
+    /**
+     * @return a hash code consistent with {@link #sameDefinition(TypedParameter)}
+     */
+    public int definitionHash() {
+        return (name.hashCode() * 31 + type.hashCode()) * 31 + System.identityHashCode(suggestions);
+    }
 }
@@ -0,0 +1,115 @@
+package org.lilbrocodes.commander.api.audit;
+
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * The binary layout of journal files.
+ * <p>
+ * A file starts with a 4 byte magic number and a 2 byte format version. Each record follows as a 4 byte length and a body of:
+ * time (8), duration (8), outcome (1), argument error (1, -1 for none), sender id flag (1) and the id (16) if set,
+ * then the sender, label and path, an argument count (2) and the arguments. Strings are an unsigned 2 byte length and UTF-8 bytes.
+ * Numbers are big endian.
+ */
+final class AuditCodec {
+    static final int MAGIC = 0x434D4441; // "CMDA"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 6;
+
+    private static final ArgumentError[] ARGUMENT_ERRORS = ArgumentError.values();
+    private static final int MAX_STRING = 0xFFFF;
+
+    private AuditCodec() {
+    }
+
+    static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).flip();
+        return header;
+    }
+
+    /**
+     * Encodes a record with its length prefix.
+     *
+     * @param record the record
+     * @param scratch a buffer to reuse if it is large enough
+     * @return the buffer holding the encoded record, flipped for reading
+     */
+    static ByteBuffer encode(AuditRecord record, ByteBuffer scratch) {
+        byte[] sender = bytes(record.sender());
+        byte[] label = bytes(record.label());
+        byte[] path = bytes(record.path());
+        String[] args = record.args();
+        int count = Math.min(args.length, MAX_STRING);
+        byte[][] encodedArgs = new byte[count][];
+
+        int size = 4 + 8 + 8 + 1 + 1 + 1 + (record.senderId() != null ? 16 : 0) + 2 + sender.length + 2 + label.length + 2 + path.length + 2;
+        for (int i = 0; i < count; i++) {
+            encodedArgs[i] = bytes(args[i]);
+            size += 2 + encodedArgs[i].length;
+        }
+
+        ByteBuffer out = scratch.capacity() >= size ? scratch.clear() : ByteBuffer.allocate(Math.max(size, scratch.capacity() * 2));
+        out.putInt(size - 4);
+        out.putLong(record.time());
+        out.putLong(record.durationNanos());
+        out.put((byte) record.outcome().ordinal());
+        out.put((byte) (record.argumentError() == null ? -1 : record.argumentError().ordinal()));
+        UUID id = record.senderId();
+        out.put((byte) (id != null ? 1 : 0));
+        if (id != null) out.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        put(out, sender);
+        put(out, label);
+        put(out, path);
+        out.putShort((short) count);
+        for (byte[] arg : encodedArgs) {
+            put(out, arg);
+        }
+        return out.flip();
+    }
+
+    /**
+     * Decodes the body of a record, without its length prefix.
+     */
+    static AuditRecord decode(ByteBuffer in) {
+        long time = in.getLong();
+        long duration = in.getLong();
+        AuditOutcome outcome = AuditOutcome.byOrdinal(in.get());
+        byte error = in.get();
+        UUID id = in.get() != 0 ? new UUID(in.getLong(), in.getLong()) : null;
+        String sender = string(in);
+        String label = string(in);
+        String path = string(in);
+        String[] args = new String[in.getShort() & MAX_STRING];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = string(in);
+        }
+        return new AuditRecord(time, duration, sender, id, label, path, args, outcome, error < 0 ? null : ARGUMENT_ERRORS[error]);
+    }
+
+    private static byte[] bytes(String value) {
+        if (value == null) return new byte[0];
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_STRING) return bytes;
+
+        // Cut at a character boundary so the truncated string still decodes cleanly
+        int end = MAX_STRING;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) end--;
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static void put(ByteBuffer out, byte[] bytes) {
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = in.getShort() & MAX_STRING;
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,398 @@
+package org.lilbrocodes.commander.api.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An append-only journal of command invocations, written to size rotated files by a background thread.
+ * <p>
+ * Publishing a record claims a slot of a bounded ring buffer with a single compare-and-set and never blocks or touches the disk.
+ * If the writer falls so far behind that the ring is full, the record is dropped and counted instead of stalling the server.
+ * The writer drains the ring in batches, encodes the records into a set of reused direct buffers and hands them to the file
+ * in one gathering write. A file is rotated once the next batch would grow it past the size limit, records never span two files.
+ * <p>
+ * Files are named {@code audit-000001.cmda} and so on, a journal opened on an existing directory continues with the next index.
+ * Read them with {@link AuditReader}. Records still in the ring when the server crashes are lost, {@link #close()} writes them out.
+ */
+@SuppressWarnings("unused")
+public final class AuditJournal implements Closeable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final long DEFAULT_MAX_FILE_BYTES = 16L << 20;
+
+    private static final int CHUNK_SIZE = 32 * 1024;
+    private static final int CHUNKS = 8;
+    private static final long CLOSED = -1; // The tail once the writer stopped, no slot can be claimed from then on
+    private static final long IDLE_NANOS = 10_000_000L;
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".cmda";
+
+    private final AuditRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private volatile IOException lastError;
+    private volatile Path currentFile;
+
+    private final ByteBuffer[] chunks = new ByteBuffer[CHUNKS];
+    private ByteBuffer scratch = ByteBuffer.allocate(512);
+    private FileChannel channel;
+    private long fileSize;
+    private int fileIndex;
+
+    private AuditJournal(Path directory, int capacity, long maxFileBytes) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AuditRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        for (int i = 0; i < CHUNKS; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        }
+
+        Files.createDirectories(directory);
+        this.fileIndex = lastIndex(directory);
+        openNext();
+
+        this.writer = new Thread(this::drain, "Commander-Audit-" + directory.getFileName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens a journal with the default capacity and a 16 MiB file size limit.
+     *
+     * @param directory the directory to write the files to, created if missing
+     * @return the journal, already writing
+     * @throws IOException if the directory or the first file cannot be created
+     */
+    public static AuditJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_CAPACITY, DEFAULT_MAX_FILE_BYTES);
+    }
+
+    /**
+     * Opens a journal.
+     *
+     * @param directory the directory to write the files to, created if missing
+     * @param capacity how many records may wait for the writer, rounded up to a power of two
+     * @param maxFileBytes the size after which a new file is started
+     * @return the journal, already writing
+     * @throws IOException if the directory or the first file cannot be created
+     */
+    public static AuditJournal open(Path directory, int capacity, long maxFileBytes) throws IOException {
+        return new AuditJournal(directory, capacity, maxFileBytes);
+    }
+
+    /**
+     * Hands a record to the writer. Safe to call from any number of threads at once.
+     *
+     * @param record the record
+     * @return true if the record was queued, false if the ring was full or the journal is closed
+     */
+    public boolean publish(AuditRecord record) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+
+        long position = tail.get();
+        while (true) {
+            if (position == CLOSED) {
+                dropped.increment();
+                return false;
+            }
+
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.weakCompareAndSetVolatile(position, position + 1)) {
+                    slots[index] = record;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // Full, wake the writer early instead of waiting for its next poll
+                dropped.increment();
+                LockSupport.unpark(writer);
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return the directory the files are written to
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the file currently written to
+     */
+    public Path getCurrentFile() {
+        return currentFile;
+    }
+
+    /**
+     * @return how many records were dropped because the ring was full or the journal closed
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return how many records were written to disk
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return how many records were taken from the ring but could not be written
+     */
+    public long getLost() {
+        return lost.get();
+    }
+
+    /**
+     * @return the last error the writer ran into, or null if every write succeeded
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Stops accepting records, waits for the writer to write out the ones already queued and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Takes the next record from the ring. Only called by the writer thread.
+     */
+    private AuditRecord poll() {
+        int index = (int) head & mask;
+        if (sequences.getAcquire(index) != head + 1) return null;
+
+        AuditRecord record = slots[index];
+        slots[index] = null;
+        sequences.setRelease(index, head + slots.length);
+        head++;
+        return record;
+    }
+
+    private void drain() {
+        while (true) {
+            // Read before polling, so records published before close() are still written
+            boolean stopping = closed;
+            if (writeBatch() == 0) {
+                if (!stopping) {
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                } else if (tail.compareAndSet(head, CLOSED)) {
+                    // Publishers that passed the closed check fail to claim a slot from now on and count their record as dropped
+                    break;
+                } else {
+                    // A publisher claimed a slot and is still filling it
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            lastError = e;
+        }
+    }
+
+    /**
+     * Writes every record currently in the ring.
+     *
+     * @return how many records were taken from the ring
+     */
+    private int writeBatch() {
+        int taken = 0;
+        int pending = 0;
+        int chunk = 0;
+        long bytes = 0;
+        chunks[0].clear();
+
+        AuditRecord record;
+        while ((record = poll()) != null) {
+            taken++;
+            ByteBuffer encoded = AuditCodec.encode(record, scratch);
+            scratch = encoded;
+            int length = encoded.remaining();
+
+            if (fileSize + bytes + length > maxFileBytes && fileSize + bytes > AuditCodec.HEADER_SIZE) {
+                flush(chunk, bytes, pending);
+                rotate();
+                pending = 0;
+                chunk = 0;
+                bytes = 0;
+                chunks[0].clear();
+            }
+
+            if (length > CHUNK_SIZE) {
+                flush(chunk, bytes, pending);
+                writeDirect(encoded);
+                pending = 0;
+                chunk = 0;
+                bytes = 0;
+                chunks[0].clear();
+                continue;
+            }
+
+            if (chunks[chunk].remaining() < length) {
+                if (chunk + 1 == CHUNKS) {
+                    flush(chunk, bytes, pending);
+                    pending = 0;
+                    chunk = 0;
+                    bytes = 0;
+                } else {
+                    chunk++;
+                }
+                chunks[chunk].clear();
+            }
+
+            chunks[chunk].put(encoded);
+            bytes += length;
+            pending++;
+        }
+
+        flush(chunk, bytes, pending);
+        return taken;
+    }
+
+    /**
+     * Writes the filled chunks up to and including {@code last} in one gathering write.
+     */
+    private void flush(int last, long bytes, int records) {
+        if (records == 0) return;
+
+        for (int i = 0; i <= last; i++) {
+            chunks[i].flip();
+        }
+        try {
+            if (channel == null) openNext();
+            long remaining = bytes;
+            while (remaining > 0) {
+                remaining -= channel.write(chunks, 0, last + 1);
+            }
+            fileSize += bytes;
+            written.addAndGet(records);
+        } catch (IOException e) {
+            fail(e, records);
+        }
+    }
+
+    private void writeDirect(ByteBuffer encoded) {
+        try {
+            if (channel == null) openNext();
+            int length = encoded.remaining();
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+            fileSize += length;
+            written.incrementAndGet();
+        } catch (IOException e) {
+            fail(e, 1);
+        }
+    }
+
+    /**
+     * Counts the records as lost and drops the file, the next batch starts a new one.
+     */
+    private void fail(IOException e, int records) {
+        lastError = e;
+        lost.addAndGet(records);
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+
+    private void rotate() {
+        try {
+            if (channel != null) channel.close();
+            openNext();
+        } catch (IOException e) {
+            lastError = e;
+            channel = null;
+        }
+    }
+
+    private void openNext() throws IOException {
+        Path file = directory.resolve(String.format("%s%06d%s", PREFIX, ++fileIndex, SUFFIX));
+        FileChannel next = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        ByteBuffer header = AuditCodec.header();
+        while (header.hasRemaining()) {
+            next.write(header);
+        }
+        channel = next;
+        fileSize = AuditCodec.HEADER_SIZE;
+        currentFile = file;
+    }
+
+    /**
+     * @return the highest index of the journal files already in the directory, or 0 if there are none
+     */
+    private static int lastIndex(Path directory) throws IOException {
+        int last = 0;
+        try (var files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    last = Math.max(last, Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return last;
+    }
+
+    static boolean isJournalFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+}
@@ -0,0 +1,44 @@
+package org.lilbrocodes.commander.api.audit;
+
+import org.lilbrocodes.commander.api.error.CommandError;
+
+/**
+ * How an audited command ended.
+ */
+@SuppressWarnings("unused")
+public enum AuditOutcome {
+    SUCCESS,            // The command ran, or was handed to its execution mode's pool, without an error
+    NO_PERMISSION,      // The sender lacks the permission of the root command
+    RATE_LIMITED,       // The sender used up the node's rate limit
+    MISSING_SUBCOMMAND, // The command ended at a group
+    UNKNOWN_SUBCOMMAND, // A literal did not match any child of a group
+    INVALID_ARGUMENT,   // A parameter could not be parsed, see the record's argument error
+    NO_EXECUTOR,        // The node has no executor set
+    ALREADY_RUNNING,    // The node reached its concurrency limit
+    SERVER_BUSY,        // The dispatcher pool rejected the execution
+    FAILED;             // The executor threw
+
+    private static final AuditOutcome[] VALUES = values();
+
+    /**
+     * @param error a reported error, or null if none was reported
+     * @return the matching outcome
+     */
+    public static AuditOutcome of(CommandError error) {
+        if (error == null) return SUCCESS;
+        return switch (error) {
+            case NO_PERMISSION -> NO_PERMISSION;
+            case MISSING_SUBCOMMAND -> MISSING_SUBCOMMAND;
+            case UNKNOWN_SUBCOMMAND -> UNKNOWN_SUBCOMMAND;
+            case INVALID_ARGUMENT -> INVALID_ARGUMENT;
+            case NO_EXECUTOR -> NO_EXECUTOR;
+            case ALREADY_RUNNING -> ALREADY_RUNNING;
+            case SERVER_BUSY -> SERVER_BUSY;
+            case RATE_LIMITED -> RATE_LIMITED;
+        };
+    }
+
+    static AuditOutcome byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
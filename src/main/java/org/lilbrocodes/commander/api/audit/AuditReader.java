@@ -0,0 +1,224 @@
+package org.lilbrocodes.commander.api.audit;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the records of files written by an {@link AuditJournal}, one file at a time, oldest first.
+ * <p>
+ * A record cut off at the end of a file, as left behind by a crash, ends that file quietly. Can also be run from the command line:
+ * <pre>
+ * java -cp commander.jar org.lilbrocodes.commander.api.audit.AuditReader &lt;file or directory&gt;
+ *     [--sender name] [--path prefix] [--outcome OUTCOME] [--failed] [--since instant] [--until instant]
+ * </pre>
+ */
+@SuppressWarnings("unused")
+public final class AuditReader {
+
+    private AuditReader() {
+    }
+
+    /**
+     * Lists the journal files in a directory.
+     *
+     * @param directory the directory a journal writes to
+     * @return the files, oldest first
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (var stream = Files.newDirectoryStream(directory, AuditJournal::isJournalFile)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Streams the records of a journal file or of every journal file in a directory.
+     * Files are opened lazily, the stream must be closed to release the open one.
+     *
+     * @param path a journal file or directory
+     * @return the records, in the order they were written
+     * @throws IOException if the directory cannot be listed
+     */
+    public static Stream<AuditRecord> stream(Path path) throws IOException {
+        List<Path> files = Files.isDirectory(path) ? files(path) : List.of(path);
+        RecordIterator iterator = new RecordIterator(files);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * @param sender a sender name, ignoring case, or UUID
+     * @return a filter for records of that sender
+     */
+    public static Predicate<AuditRecord> bySender(String sender) {
+        return record -> record.sender().equalsIgnoreCase(sender)
+                || record.senderId() != null && record.senderId().toString().equalsIgnoreCase(sender);
+    }
+
+    /**
+     * @param prefix the start of a path including the label, e.g. {@code "ban"} or {@code "warp set"}
+     * @return a filter for records whose resolved path starts with the prefix
+     */
+    public static Predicate<AuditRecord> byPath(String prefix) {
+        String folded = prefix.toLowerCase(Locale.ROOT);
+        return record -> {
+            String path = record.path().isEmpty() ? record.label() : record.label() + " " + record.path();
+            return path.toLowerCase(Locale.ROOT).startsWith(folded);
+        };
+    }
+
+    /**
+     * @param outcome an outcome
+     * @return a filter for records with that outcome
+     */
+    public static Predicate<AuditRecord> byOutcome(AuditOutcome outcome) {
+        return record -> record.outcome() == outcome;
+    }
+
+    /**
+     * @param from the first instant to include, or null for no lower bound
+     * @param until the first instant to exclude, or null for no upper bound
+     * @return a filter for records received in the range
+     */
+    public static Predicate<AuditRecord> between(Instant from, Instant until) {
+        long start = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long end = until == null ? Long.MAX_VALUE : until.toEpochMilli();
+        return record -> record.time() >= start && record.time() < end;
+    }
+
+    /**
+     * Prints the matching records of a journal file or directory, one per line.
+     *
+     * @param args the path followed by the filter options
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: AuditReader <file or directory> [--sender name] [--path prefix] [--outcome OUTCOME] [--failed] [--since instant] [--until instant]");
+            System.exit(2);
+        }
+
+        Predicate<AuditRecord> filter = record -> true;
+        Instant since = null;
+        Instant until = null;
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--failed")) {
+                filter = filter.and(byOutcome(AuditOutcome.SUCCESS).negate());
+                continue;
+            }
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value for " + option);
+
+            String value = args[++i];
+            switch (option) {
+                case "--sender" -> filter = filter.and(bySender(value));
+                case "--path" -> filter = filter.and(byPath(value));
+                case "--outcome" -> filter = filter.and(byOutcome(AuditOutcome.valueOf(value.toUpperCase(Locale.ROOT))));
+                case "--since" -> since = Instant.parse(value);
+                case "--until" -> until = Instant.parse(value);
+                default -> throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        if (since != null || until != null) filter = filter.and(between(since, until));
+
+        try (Stream<AuditRecord> records = stream(Path.of(args[0]))) {
+            records.filter(filter).forEach(record -> System.out.println(record.format()));
+        }
+    }
+
+    private static final class RecordIterator implements Iterator<AuditRecord> {
+        private final Iterator<Path> files;
+        private DataInputStream in;
+        private byte[] buffer = new byte[512];
+        private AuditRecord next;
+
+        RecordIterator(List<Path> files) {
+            this.files = files.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    if (in == null) {
+                        if (!files.hasNext()) return false;
+                        in = open(files.next());
+                        if (in == null) continue;
+                    }
+
+                    next = read();
+                    if (next == null) close();
+                }
+                return true;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public AuditRecord next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            AuditRecord record = next;
+            next = null;
+            return record;
+        }
+
+        /**
+         * @return the stream positioned after the header, or null if the file is not a journal of a known version
+         */
+        private DataInputStream open(Path file) throws IOException {
+            DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+            try {
+                if (stream.readInt() == AuditCodec.MAGIC && stream.readShort() == AuditCodec.VERSION) return stream;
+            } catch (EOFException ignored) {
+            }
+            stream.close();
+            return null;
+        }
+
+        /**
+         * @return the next record of the open file, or null at its end
+         */
+        private AuditRecord read() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+                if (length > buffer.length) buffer = new byte[Math.max(length, buffer.length * 2)];
+                in.readFully(buffer, 0, length);
+            } catch (EOFException e) {
+                return null;
+            }
+            return AuditCodec.decode(ByteBuffer.wrap(buffer, 0, length));
+        }
+
+        void close() {
+            if (in == null) return;
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+            in = null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.lilbrocodes.commander.api.audit;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One audited command invocation.
+ *
+ * @param time when the command was received, in milliseconds since the epoch
+ * @param durationNanos how long dispatching the command took on the calling thread
+ * @param sender the name of the sender
+ * @param senderId the UUID of the sender if it is an entity, otherwise null
+ * @param label the label the command was run with
+ * @param path the literal path of the node the command resolved to, without the label
+ * @param args the raw arguments, including the literals of the path. The array is not copied and must not be modified afterwards
+ * @param outcome how the command ended
+ * @param argumentError the parse error if the outcome is {@link AuditOutcome#INVALID_ARGUMENT}, otherwise null
+ */
+public record AuditRecord(long time, long durationNanos, String sender, UUID senderId, String label, String path,
+                          String[] args, AuditOutcome outcome, ArgumentError argumentError) {
+
+    /**
+     * Creates a record for a command sent by a sender.
+     *
+     * @param sender the command sender
+     * @param time when the command was received, in milliseconds since the epoch
+     * @param durationNanos how long dispatching took
+     * @param label the label the command was run with
+     * @param path the literal path of the resolved node
+     * @param args the raw arguments
+     * @param outcome how the command ended
+     * @param argumentError the parse error, or null
+     * @return the record
+     */
+    public static AuditRecord of(CommandSender sender, long time, long durationNanos, String label, String path, String[] args,
+                                 AuditOutcome outcome, ArgumentError argumentError) {
+        UUID id = sender instanceof Entity entity ? entity.getUniqueId() : null;
+        return new AuditRecord(time, durationNanos, sender.getName(), id, label, path, args, outcome, argumentError);
+    }
+
+    /**
+     * @return the command line as typed, with a leading slash
+     */
+    public String commandLine() {
+        return args.length == 0 ? "/" + label : "/" + label + " " + String.join(" ", args);
+    }
+
+    /**
+     * @return a single line describing this record, as printed by {@link AuditReader}
+     */
+    public String format() {
+        String result = argumentError == null ? outcome.name() : outcome.name() + " (" + argumentError.name() + ")";
+        return String.format("%s %s %s -> %s in %.3fms", Instant.ofEpochMilli(time), sender, commandLine(), result, durationNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,17 @@
+package org.lilbrocodes.commander.api.error;
+
+/**
+ * The ways dispatching a command can fail before or instead of running its executor.
+ * Parse failures are reported as {@link #INVALID_ARGUMENT} together with the {@link org.lilbrocodes.commander.api.argument.ArgumentError} of the parameter.
+ */
+@SuppressWarnings("unused")
+public enum CommandError {
+    NO_PERMISSION,      // The sender lacks the permission of the root command
+    MISSING_SUBCOMMAND, // A group was run without a subcommand
+    UNKNOWN_SUBCOMMAND, // A group was run with a literal that matches none of its children
+    INVALID_ARGUMENT,   // A parameter could not be parsed
+    NO_EXECUTOR,        // The node has no executor set
+    ALREADY_RUNNING,    // The node reached its concurrency limit
+    SERVER_BUSY,        // The dispatcher pool rejected the execution
+    RATE_LIMITED        // The sender used up the node's rate limit or is on cooldown
+}
@@ -0,0 +1,37 @@
+package org.lilbrocodes.commander.api.error;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.ExecutorNode;
+
+/**
+ * Turns structured errors into the messages shown to a sender.
+ * Renderers are only called for errors that actually get sent, after rate limiting.
+ */
+public interface ErrorRenderer {
+
+    /**
+     * Renders a dispatch error.
+     *
+     * @param sender the sender the message is for
+     * @param node the node that failed
+     * @param error the error
+     * @param input the rejected literal for {@link CommandError#UNKNOWN_SUBCOMMAND}, otherwise null
+     * @return the message, or null to send nothing
+     */
+    String render(CommandSender sender, ExecutorNode<?> node, CommandError error, String input);
+
+    /**
+     * Renders a parse error of a single parameter.
+     *
+     * @param sender the sender the message is for
+     * @param node the node whose parameter failed
+     * @param error the parse error
+     * @param index the index of the parameter in its node
+     * @param parameter the parameter
+     * @param input the rejected raw input, null if the parameter was missing
+     * @return the message, or null to send nothing
+     */
+    String render(CommandSender sender, ExecutorNode<?> node, ArgumentError error, int index, TypedParameter parameter, String input);
+}
@@ -0,0 +1,159 @@
+package org.lilbrocodes.commander.api.error;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ParsedArguments;
+import org.lilbrocodes.commander.api.executor.ExecutorNode;
+import org.lilbrocodes.commander.api.util.SenderKey;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends errors to senders through an {@link ErrorRenderer}, optionally limiting how many each sender receives.
+ * <p>
+ * Failing nodes only hand over the error code and the objects involved. The message is rendered after the rate limit
+ * lets the error through, so bots and broken scripts that fail in a loop cost a map lookup per failure instead of a formatted string.
+ */
+@SuppressWarnings("unused")
+public final class ErrorReporter {
+    private static final ErrorReporter LEGACY = new ErrorReporter(LegacyErrorRenderer.INSTANCE);
+
+    private final ErrorRenderer renderer;
+    private final int burst;
+    private final long refillNanos;
+    private final Map<Object, Bucket> buckets; // Null without a limit
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Creates a reporter that sends every error.
+     *
+     * @param renderer the renderer
+     */
+    public ErrorReporter(ErrorRenderer renderer) {
+        this(renderer, 0, Duration.ZERO, 0);
+    }
+
+    /**
+     * Creates a reporter that sends each sender at most {@code burst} errors per {@code per}, dropping the rest.
+     *
+     * @param renderer the renderer
+     * @param burst how many errors a sender may receive in a row, or 0 to send every error
+     * @param per the time in which the allowance refills completely, must be positive if {@code burst} is
+     * @param maxSenders how many senders to track, must be at least 1 if {@code burst} is positive
+     * @throws IllegalArgumentException if {@code burst} is positive and {@code per} or {@code maxSenders} is not
+     */
+    public ErrorReporter(ErrorRenderer renderer, int burst, Duration per, int maxSenders) {
+        this.renderer = renderer;
+        this.burst = burst;
+        if (burst <= 0) {
+            this.refillNanos = 0;
+            this.buckets = null;
+            return;
+        }
+
+        if (per == null || per.isNegative() || per.isZero()) throw new IllegalArgumentException("per must be positive: " + per);
+        // A sender evicted as soon as it is tracked would get a fresh allowance with every error
+        if (maxSenders < 1) throw new IllegalArgumentException("maxSenders must be at least 1: " + maxSenders);
+        this.refillNanos = Math.max(1, per.toNanos() / burst);
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Bucket> eldest) {
+                return size() > maxSenders;
+            }
+        };
+    }
+
+    /**
+     * @return the reporter every node uses unless configured otherwise, sending the legacy messages without a limit
+     */
+    public static ErrorReporter legacy() {
+        return LEGACY;
+    }
+
+    /**
+     * @return the renderer of this reporter
+     */
+    public ErrorRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * @return how many errors were dropped by the rate limit
+     */
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Reports a dispatch error.
+     *
+     * @param sender the sender to notify
+     * @param node the node that failed
+     * @param error the error
+     * @param input the rejected literal for {@link CommandError#UNKNOWN_SUBCOMMAND}, otherwise null
+     */
+    public void report(CommandSender sender, ExecutorNode<?> node, CommandError error, String input) {
+        ErrorTrace.record(error, null);
+        if (!acquire(sender)) return;
+
+        String message = renderer.render(sender, node, error, input);
+        if (message != null) sender.sendMessage(message);
+    }
+
+    /**
+     * Reports the parse error recorded in a holder.
+     *
+     * @param sender the sender to notify
+     * @param node the node whose parameter failed
+     * @param failed the holder of the failed parse
+     */
+    public void report(CommandSender sender, ExecutorNode<?> node, ParsedArguments failed) {
+        ErrorTrace.record(CommandError.INVALID_ARGUMENT, failed.error());
+        if (!acquire(sender)) return;
+
+        String message = renderer.render(sender, node, failed.error(), failed.errorIndex(), failed.errorParameter(), failed.errorInput());
+        if (message != null) sender.sendMessage(message);
+    }
+
+    /**
+     * Takes one message from the sender's allowance.
+     */
+    private boolean acquire(CommandSender sender) {
+        if (burst <= 0) return true;
+
+        Object key = SenderKey.of(sender);
+        long now = System.nanoTime();
+        synchronized (buckets) {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(burst, now);
+                buckets.put(key, bucket);
+            }
+
+            long refilled = (now - bucket.updatedAt) / refillNanos;
+            if (refilled > 0) {
+                bucket.tokens = (int) Math.min(burst, bucket.tokens + refilled);
+                bucket.updatedAt = bucket.tokens == burst ? now : bucket.updatedAt + refilled * refillNanos;
+            }
+            if (bucket.tokens > 0) {
+                bucket.tokens--;
+                return true;
+            }
+        }
+
+        suppressed.increment();
+        return false;
+    }
+
+    private static final class Bucket {
+        int tokens;
+        long updatedAt;
+
+        Bucket(int tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.lilbrocodes.commander.api.error;
+
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+
+/**
+ * Captures the first error reported on the current thread while a command is being observed.
+ * <p>
+ * Nodes report errors to their {@link ErrorReporter} instead of returning a status, so code that watches dispatch from the outside,
+ * such as the audit journal, opens a trace around it to learn how the command ended. Errors are captured even if the reporter's
+ * rate limit drops the message. Threads without an open trace only pay a thread local lookup on the error path.
+ */
+@SuppressWarnings("unused")
+public final class ErrorTrace {
+    private static final ThreadLocal<ErrorTrace> CURRENT = new ThreadLocal<>();
+
+    private final ErrorTrace outer;
+    private CommandError error;
+    private ArgumentError argumentError;
+
+    private ErrorTrace(ErrorTrace outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * Opens a trace on the current thread. Traces nest, a command dispatched from inside another one gets its own.
+     *
+     * @return the new trace, which must be ended on the same thread
+     */
+    public static ErrorTrace begin() {
+        ErrorTrace trace = new ErrorTrace(CURRENT.get());
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Closes this trace, restoring the one it was opened in.
+     */
+    public void end() {
+        if (outer == null) CURRENT.remove();
+        else CURRENT.set(outer);
+    }
+
+    /**
+     * @return the first error reported while this trace was open, or null if none was
+     */
+    public CommandError getError() {
+        return error;
+    }
+
+    /**
+     * @return the parse error if the error is {@link CommandError#INVALID_ARGUMENT}, otherwise null
+     */
+    public ArgumentError getArgumentError() {
+        return argumentError;
+    }
+
+    /**
+     * Records an error in the innermost open trace of the current thread, if any.
+     */
+    static void record(CommandError error, ArgumentError argumentError) {
+        ErrorTrace trace = CURRENT.get();
+        if (trace == null || trace.error != null) return;
+
+        trace.error = error;
+        trace.argumentError = argumentError;
+    }
+}
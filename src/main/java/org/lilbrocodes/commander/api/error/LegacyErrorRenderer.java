@@ -0,0 +1,49 @@
+package org.lilbrocodes.commander.api.error;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.ExecutorNode;
+import org.lilbrocodes.commander.api.util.StaticChatUtil;
+
+import java.util.List;
+
+/**
+ * Renders errors as the English, {@code §}-formatted messages Commander has always sent, prefixed with the plugin name.
+ */
+@SuppressWarnings("unused")
+public final class LegacyErrorRenderer implements ErrorRenderer {
+    public static final LegacyErrorRenderer INSTANCE = new LegacyErrorRenderer();
+
+    private LegacyErrorRenderer() {
+    }
+
+    @Override
+    public String render(CommandSender sender, ExecutorNode<?> node, CommandError error, String input) {
+        String name = node.getName();
+        return switch (error) {
+            case NO_PERMISSION -> "§cYou do not have permission to use this command.";
+            case MISSING_SUBCOMMAND -> StaticChatUtil.affixError(node.getPluginName(), "Missing subcommand. Try /" + name + " help");
+            case UNKNOWN_SUBCOMMAND -> StaticChatUtil.affixError(node.getPluginName(), "Unknown subcommand: " + input + didYouMean(node, input));
+            case INVALID_ARGUMENT -> StaticChatUtil.affixError(node.getPluginName(), "Invalid arguments.");
+            case NO_EXECUTOR -> StaticChatUtil.affixError(node.getPluginName(), String.format("Executor for command %s not set.", name));
+            case ALREADY_RUNNING -> StaticChatUtil.affixError(node.getPluginName(), String.format("Command %s is already running, try again later.", name));
+            case SERVER_BUSY -> StaticChatUtil.affixError(node.getPluginName(), "The server is too busy to run this command, try again later.");
+            case RATE_LIMITED -> StaticChatUtil.affixError(node.getPluginName(), String.format("Please wait %.1fs before using %s again.",
+                    node.getRemainingCooldown(sender).toMillis() / 1000.0, name));
+        };
+    }
+
+    private static String didYouMean(ExecutorNode<?> node, String input) {
+        if (!(node instanceof CommandGroupNode group)) return "";
+
+        List<String> suggestions = group.didYouMean(input);
+        return suggestions.isEmpty() ? "" : ". Did you mean: " + String.join(", ", suggestions) + "?";
+    }
+
+    @Override
+    public String render(CommandSender sender, ExecutorNode<?> node, ArgumentError error, int index, TypedParameter parameter, String input) {
+        return StaticChatUtil.affixError(node.getPluginName(), error.message(parameter, input));
+    }
+}
@@ -0,0 +1,115 @@
+package org.lilbrocodes.commander.api.error;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.ExecutorNode;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+/**
+ * Renders errors from a {@link ResourceBundle}, in the locale of the player or the default locale for other senders.
+ * <p>
+ * Dispatch errors use the keys {@code error.<name>}, e.g. {@code error.unknown_subcommand}, with {@code {0}} the node name,
+ * {@code {1}} the rejected input, {@code {2}} the plugin name and {@code {3}} a detail of the error: the seconds until a rate limited node
+ * can be used again, or the comma separated did-you-mean suggestions of an unknown subcommand, empty if there are none.
+ * Parse errors use {@code error.argument.<name>}, e.g. {@code error.argument.invalid_number}, with {@code {0}} the parameter name,
+ * {@code {1}} the rejected input, {@code {2}} the plugin name, {@code {3}} the 1-based argument position and {@code {4}} the valid values of enums
+ * or the maximum number of values of a list.
+ * The optional key {@code error.format} wraps every message, with {@code {0}} the plugin name and {@code {1}} the message.
+ * Keys missing from the bundle, and every key if no bundle can be found for the sender's locale, fall back to another renderer.
+ */
+@SuppressWarnings("unused")
+public final class LocalizedErrorRenderer implements ErrorRenderer {
+    private final String baseName;
+    private final ClassLoader loader;
+    private final ErrorRenderer fallback;
+
+    /**
+     * Creates a renderer that falls back to the {@link LegacyErrorRenderer}.
+     *
+     * @param baseName the base name of the bundle, e.g. "lang/errors"
+     * @param loader the class loader of the plugin that ships the bundle
+     */
+    public LocalizedErrorRenderer(String baseName, ClassLoader loader) {
+        this(baseName, loader, LegacyErrorRenderer.INSTANCE);
+    }
+
+    /**
+     * Creates a renderer.
+     *
+     * @param baseName the base name of the bundle, e.g. "lang/errors"
+     * @param loader the class loader of the plugin that ships the bundle
+     * @param fallback the renderer used for keys missing from the bundle
+     */
+    public LocalizedErrorRenderer(String baseName, ClassLoader loader, ErrorRenderer fallback) {
+        this.baseName = baseName;
+        this.loader = loader;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public String render(CommandSender sender, ExecutorNode<?> node, CommandError error, String input) {
+        ResourceBundle bundle = bundle(sender);
+        String pattern = bundle == null ? null : pattern(bundle, "error." + error.name().toLowerCase(Locale.ROOT));
+        if (pattern == null) return fallback.render(sender, node, error, input);
+
+        return wrap(bundle, node.getPluginName(), new MessageFormat(pattern, bundle.getLocale()).format(new Object[]{
+                node.getName(), input, node.getPluginName(), detail(sender, error, node, input)
+        }));
+    }
+
+    @Override
+    public String render(CommandSender sender, ExecutorNode<?> node, ArgumentError error, int index, TypedParameter parameter, String input) {
+        ResourceBundle bundle = bundle(sender);
+        String pattern = bundle == null ? null : pattern(bundle, "error.argument." + error.name().toLowerCase(Locale.ROOT));
+        if (pattern == null) return fallback.render(sender, node, error, index, parameter, input);
+
+        Object expected = switch (error) {
+            case INVALID_ENUM -> String.join(", ", parameter.suggestions());
+            case TOO_MANY_ELEMENTS -> parameter.maxElements();
+            default -> null;
+        };
+        return wrap(bundle, node.getPluginName(), new MessageFormat(pattern, bundle.getLocale()).format(new Object[]{
+                parameter.name(), input, node.getPluginName(), index + 1, expected
+        }));
+    }
+
+    private static Object detail(CommandSender sender, CommandError error, ExecutorNode<?> node, String input) {
+        return switch (error) {
+            case RATE_LIMITED -> node.getRemainingCooldown(sender).toMillis() / 1000.0;
+            case UNKNOWN_SUBCOMMAND -> node instanceof CommandGroupNode group ? String.join(", ", group.didYouMean(input)) : "";
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the bundle for the sender's locale, or null if neither it nor the base bundle exists
+     */
+    private ResourceBundle bundle(CommandSender sender) {
+        Locale locale = sender instanceof Player player ? Locale.forLanguageTag(player.getLocale().replace('_', '-')) : Locale.getDefault();
+        try {
+            return ResourceBundle.getBundle(baseName, locale, loader);
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
+
+    private static String wrap(ResourceBundle bundle, String pluginName, String message) {
+        String format = pattern(bundle, "error.format");
+        return format == null ? message : new MessageFormat(format, bundle.getLocale()).format(new Object[]{pluginName, message});
+    }
+
+    private static String pattern(ResourceBundle bundle, String key) {
+        try {
+            return bundle.getString(key);
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
+}
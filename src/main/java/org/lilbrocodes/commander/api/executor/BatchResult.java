@@ -0,0 +1,43 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+
+/**
+ * The outcome of one line of a {@link CommandBatch}.
+ *
+ * @param line the index of the line in the batch
+ * @param status what happened to the line
+ * @param path the literal path of the node the line resolved to, without the command label
+ * @param error the parse error if the status is {@link Status#INVALID_ARGUMENTS}, otherwise null
+ * @param message the message that would have been sent to the sender, or null if the line succeeded or the error's message was dropped
+ * @param exception the exception thrown by the executor if the status is {@link Status#FAILED}, otherwise null
+ */
+public record BatchResult(int line, Status status, String path, ArgumentError error, String message, Throwable exception) {
+
+    public enum Status {
+        SUCCESS,            // The executor ran and returned normally
+        NO_PERMISSION,      // The sender lacks the permission of the root command
+        RATE_LIMITED,       // The sender used up the node's rate limit
+        MISSING_SUBCOMMAND, // The line ended at a group
+        UNKNOWN_SUBCOMMAND, // A literal did not match any child of a group
+        INVALID_ARGUMENTS,  // The arguments could not be parsed, see error
+        NO_EXECUTOR,        // The node has no executor set
+        REJECTED,           // The node was at its concurrency limit or the dispatcher pool was full
+        FAILED              // The executor threw, see exception
+    }
+
+    /**
+     * @return true if the executor ran and returned normally
+     */
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    static BatchResult success(int line, String path) {
+        return new BatchResult(line, Status.SUCCESS, path, null, null, null);
+    }
+
+    static BatchResult failure(int line, Status status, String path, String message) {
+        return new BatchResult(line, status, path, null, message, null);
+    }
+}
@@ -0,0 +1,89 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.bukkit.command.CommandSender;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Stands in for the sender of a {@link CommandBatch} while a node the batch cannot look into runs, such as a group with its own execute.
+ * Messages are kept instead of being sent, every other call goes to the real sender, so permission checks and
+ * {@code instanceof} checks behave as they would live.
+ */
+final class CapturingSender implements InvocationHandler {
+    private final CommandSender sender;
+    private final CommandSender proxy;
+    private final StringBuilder messages = new StringBuilder();
+
+    CapturingSender(CommandSender sender) {
+        this.sender = sender;
+        this.proxy = proxy(sender, this);
+    }
+
+    /**
+     * @return the sender to hand to the node
+     */
+    CommandSender sender() {
+        return proxy;
+    }
+
+    /**
+     * @return every message sent so far, one per line, or null if there were none
+     */
+    String messages() {
+        synchronized (messages) {
+            return messages.length() == 0 ? null : messages.toString();
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("sendMessage")) {
+            for (Object arg : args) {
+                if (arg instanceof String message) append(message);
+                else if (arg instanceof String[] lines) for (String line : lines) append(line);
+            }
+            return null;
+        }
+        if (method.getName().equals("equals") && args.length == 1) {
+            return args[0] == proxy || sender.equals(args[0]);
+        }
+
+        try {
+            return method.invoke(sender, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void append(String message) {
+        synchronized (messages) {
+            if (messages.length() > 0) messages.append('\n');
+            messages.append(message);
+        }
+    }
+
+    /**
+     * Implements every interface of the real sender, e.g. {@code Player}, falling back to a plain {@link CommandSender}
+     * if they cannot all be seen from one class loader.
+     */
+    private static CommandSender proxy(CommandSender sender, InvocationHandler handler) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> type = sender.getClass(); type != null; type = type.getSuperclass()) {
+            interfaces.addAll(Set.of(type.getInterfaces()));
+        }
+        interfaces.add(CommandSender.class);
+
+        ClassLoader loader = sender.getClass().getClassLoader();
+        try {
+            return (CommandSender) Proxy.newProxyInstance(loader != null ? loader : CommandSender.class.getClassLoader(),
+                    interfaces.toArray(Class<?>[]::new), handler);
+        } catch (IllegalArgumentException e) {
+            return (CommandSender) Proxy.newProxyInstance(CommandSender.class.getClassLoader(), new Class<?>[]{CommandSender.class}, handler);
+        }
+    }
+}
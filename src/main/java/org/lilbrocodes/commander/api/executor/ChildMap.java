@@ -0,0 +1,188 @@
+package org.lilbrocodes.commander.api.executor;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The children of a {@link CommandGroupNode}, keyed by their names.
+ * <p>
+ * Groups usually have a handful of children, which are kept in an array sorted by name and found with a binary search.
+ * Once a group grows past {@link #SORTED_LIMIT} children they move to an open-addressed table. Either way the names are
+ * read from the nodes themselves, so no entry objects or key arrays are allocated. Like the map it replaces, this is not thread-safe
+ * while children are added, and is read-only once the tree is frozen.
+ */
+final class ChildMap {
+    static final int SORTED_LIMIT = 16;
+    private static final ExecutorNode<?>[] EMPTY = new ExecutorNode<?>[0];
+
+    private ExecutorNode<?>[] nodes = EMPTY;
+    private int size;
+    private boolean hashed;
+
+    /**
+     * @param name the name of a child
+     * @return the child, or null if there is none with that name
+     */
+    ExecutorNode<?> get(String name) {
+        if (hashed) {
+            int mask = nodes.length - 1;
+            ExecutorNode<?> node;
+            for (int slot = hash(name) & mask; (node = nodes[slot]) != null; slot = (slot + 1) & mask) {
+                if (node.name.equals(name)) return node;
+            }
+            return null;
+        }
+
+        int index = search(name);
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    /**
+     * Adds a child, replacing the child with the same name if there is one.
+     *
+     * @param node the child
+     */
+    void put(ExecutorNode<?> node) {
+        if (hashed) {
+            if (insert(nodes, node)) size++;
+            if (size * 2 > nodes.length) rehash(nodes.length * 2);
+            return;
+        }
+
+        int index = search(node.name);
+        if (index >= 0) {
+            nodes[index] = node;
+            return;
+        }
+
+        if (size == SORTED_LIMIT) {
+            hashed = true;
+            rehash(SORTED_LIMIT * 4);
+            put(node);
+            return;
+        }
+
+        int insertion = -index - 1;
+        if (size == nodes.length) nodes = Arrays.copyOf(nodes, Math.max(4, size * 2));
+        System.arraycopy(nodes, insertion, nodes, insertion + 1, size - insertion);
+        nodes[insertion] = node;
+        size++;
+    }
+
+    /**
+     * Shrinks the sorted array to the number of children, called when the tree is frozen.
+     */
+    void trim() {
+        if (!hashed && nodes.length != size) nodes = size == 0 ? EMPTY : Arrays.copyOf(nodes, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the names of the children, sorted if there are at most {@link #SORTED_LIMIT} of them
+     */
+    List<String> names() {
+        String[] names = new String[size];
+        int i = 0;
+        for (ExecutorNode<?> node : values()) {
+            names[i++] = node.name;
+        }
+        return Arrays.asList(names);
+    }
+
+    /**
+     * @return a read-only view of the children
+     */
+    Collection<ExecutorNode<?>> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<ExecutorNode<?>> iterator() {
+                ExecutorNode<?>[] snapshot = nodes;
+                int limit = hashed ? snapshot.length : size;
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < limit && snapshot[from] == null) from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < limit;
+                    }
+
+                    @Override
+                    public ExecutorNode<?> next() {
+                        if (next >= limit) throw new NoSuchElementException();
+                        ExecutorNode<?> node = snapshot[next];
+                        next = advance(next + 1);
+                        return node;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return the length of the backing array, for footprint estimates
+     */
+    int capacity() {
+        return nodes.length;
+    }
+
+    private int search(String name) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = nodes[middle].name.compareTo(name);
+            if (compared < 0) low = middle + 1;
+            else if (compared > 0) high = middle - 1;
+            else return middle;
+        }
+        return -(low + 1);
+    }
+
+    private void rehash(int capacity) {
+        ExecutorNode<?>[] table = new ExecutorNode<?>[capacity];
+        for (ExecutorNode<?> node : nodes) {
+            if (node != null) insert(table, node);
+        }
+        nodes = table;
+    }
+
+    /**
+     * @return true if the node was added, false if it replaced a node with the same name
+     */
+    private static boolean insert(ExecutorNode<?>[] table, ExecutorNode<?> node) {
+        int mask = table.length - 1;
+        int slot = hash(node.name) & mask;
+        ExecutorNode<?> existing;
+        while ((existing = table[slot]) != null) {
+            if (existing.name.equals(node.name)) {
+                table[slot] = node;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = node;
+        return true;
+    }
+
+    private static int hash(String name) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
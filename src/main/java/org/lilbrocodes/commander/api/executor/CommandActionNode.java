@@ -1,12 +1,15 @@
 package org.lilbrocodes.commander.api.executor;
 
 import org.bukkit.command.CommandSender;
-import org.lilbrocodes.commander.api.argument.ParameterType;
+import org.lilbrocodes.commander.api.argument.CompiledParameters;
+import org.lilbrocodes.commander.api.argument.ParsedArguments;
+import org.lilbrocodes.commander.api.argument.ParsedExecutor;
 import org.lilbrocodes.commander.api.argument.TypedParameter;
 import org.lilbrocodes.commander.api.argument.TypedExecutor;
-import org.lilbrocodes.commander.api.util.ChatUtil;
+import org.lilbrocodes.commander.api.error.CommandError;
+import org.lilbrocodes.commander.api.metrics.NodeMetrics;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -14,8 +17,9 @@ import java.util.List;
  */
 @SuppressWarnings("unused")
 public class CommandActionNode extends ExecutorNode<CommandActionNode> {
-    private final List<TypedParameter> expectedArgs;
-    private TypedExecutor executor;
+    private List<TypedParameter> expectedArgs;
+    private ParsedExecutor executor;
+    private volatile CompiledParameters compiled;
 
     /**
      * Constructs a ParameterExecutorNode with the expected argument types and execution logic.
@@ -31,7 +35,7 @@ public class CommandActionNode extends ExecutorNode<CommandActionNode> {
                              TypedExecutor executor) {
         super(name, description, pluginName);
         this.expectedArgs = expectedArgs;
-        this.executor = executor;
+        this.executor = executor == null ? null : ParsedExecutor.of(executor);
     }
 
     /**
@@ -44,7 +48,45 @@ public class CommandActionNode extends ExecutorNode<CommandActionNode> {
      */
     public CommandActionNode(String name, String description, String pluginName,
                              List<TypedParameter> expectedArgs) {
-        this(name, description, pluginName, expectedArgs, null);
+        this(name, description, pluginName, expectedArgs, (TypedExecutor) null);
+    }
+
+    /**
+     * Compiles the expected arguments into a parser chain.
+     * Called when the command is registered, so the argument list should not be changed afterwards.
+     * Frozen nodes that were already compiled keep their chain, so reloading a tree only compiles the nodes that are new.
+     */
+    @Override
+    public void compile() {
+        if (frozen && compiled != null) return;
+        compiled = CompiledParameters.compile(expectedArgs);
+    }
+
+    /**
+     * @return the compiled parser chain, compiling it first if the node was never compiled
+     */
+    CompiledParameters compiled() {
+        CompiledParameters parameters = compiled;
+        if (parameters == null) {
+            compile();
+            parameters = compiled;
+        }
+        return parameters;
+    }
+
+    ParsedExecutor executor() {
+        return executor;
+    }
+
+    /**
+     * Replaces the expected arguments with an equal list shared by other nodes, together with its shared parser chain, see {@link TreeCompactor}.
+     *
+     * @param parameters the shared, immutable parameter list
+     * @param compiled the parser chain compiled from it
+     */
+    void compact(List<TypedParameter> parameters, CompiledParameters compiled) {
+        this.expectedArgs = parameters;
+        this.compiled = compiled;
     }
 
     /**
@@ -55,121 +97,45 @@ public class CommandActionNode extends ExecutorNode<CommandActionNode> {
      */
     @Override
     public void execute(CommandSender sender, List<String> args) {
-        ChatUtil chat = new ChatUtil(this.pluginName);
-        List<Object> parsed = new ArrayList<>();
-        int argIndex = 0;
+        execute(sender, args, 0);
+    }
 
-        for (TypedParameter expectedArg : expectedArgs) {
-            if (argIndex >= args.size()) {
-                chat.error(sender, "Missing parameter: " + expectedArg.name());
-                return;
+    /**
+     * Executes the command by parsing and validating the typed parameters starting at {@code from}.
+     *
+     * @param sender the command sender
+     * @param args the provided command arguments
+     * @param from the index of the first argument belonging to this node
+     */
+    @Override
+    public void execute(CommandSender sender, List<String> args, int from) {
+        CompiledParameters parameters = compiled();
+
+        NodeMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordInvocation();
+        if (!admit(sender)) return;
+        long start = metrics != null ? System.nanoTime() : 0;
+
+        ParsedArguments parsed = parameters.acquire();
+        try {
+            boolean success = parameters.parse(args, from, parsed);
+            if (metrics != null) {
+                metrics.recordParseTime(System.nanoTime() - start);
+                if (!success) metrics.recordParseFailure(parsed.error());
             }
 
-            String raw = args.get(argIndex);
-            ParameterType type = expectedArg.type();
-
-            try {
-                switch (type) {
-                    case STRING -> {
-                        parsed.add(raw);
-                        argIndex++;
-                    }
-                    case QUOTED_STRING -> {
-                        if (!raw.startsWith("\"")) {
-                            chat.error(sender, "Quoted string must start with a quote (\").");
-                            return;
-                        }
-
-                        StringBuilder quoted = new StringBuilder(raw);
-                        while (!raw.endsWith("\"") && argIndex + 1 < args.size()) {
-                            argIndex++;
-                            raw = args.get(argIndex);
-                            quoted.append(" ").append(raw);
-                        }
-
-                        if (!quoted.toString().endsWith("\"")) {
-                            chat.error(sender, "Quoted string must end with a quote (\").");
-                            return;
-                        }
-
-                        if (quoted.toString().equals("\"")) {
-                            chat.error(sender, "Quoted string missing content and end quote.");
-                            return;
-                        }
-
-                        parsed.add(quoted.substring(1, quoted.length() - 1));
-                        argIndex++;
-                    }
-                    case GREEDY_STRING -> {
-                        StringBuilder greedy = new StringBuilder(args.get(argIndex));
-                        for (int j = argIndex + 1; j < args.size(); j++) {
-                            greedy.append(" ").append(args.get(j));
-                        }
-                        parsed.add(greedy.toString());
-                        argIndex = args.size();
-                    }
-                    case SHORT -> {
-                        parsed.add(Short.parseShort(raw));
-                        argIndex++;
-                    }
-                    case INT -> {
-                        parsed.add(Integer.parseInt(raw));
-                        argIndex++;
-                    }
-                    case LONG -> {
-                        parsed.add(Long.parseLong(raw));
-                        argIndex++;
-                    }
-                    case FLOAT -> {
-                        parsed.add(Float.parseFloat(raw));
-                        argIndex++;
-                    }
-                    case DOUBLE -> {
-                        parsed.add(Double.parseDouble(raw));
-                        argIndex++;
-                    }
-                    case BOOL -> {
-                        if (raw.equalsIgnoreCase("true")) {
-                            parsed.add(true);
-                            argIndex++;
-                        } else if (raw.equalsIgnoreCase("false")) {
-                            parsed.add(false);
-                            argIndex++;
-                        } else {
-                            chat.error(sender, String.format("Invalid value for boolean parameter '%s': '%s' - must be either 'true' or 'false'.", expectedArg.name(), raw));
-                            return;
-                        }
-                    }
-                    case ENUM -> {
-                        Class<? extends Enum<?>> enumClass = expectedArg.enumClass();
-                        if (enumClass == null) {
-                            chat.error(sender, "No enum class provided for parameter: " + expectedArg.name());
-                            return;
-                        }
-
-                        try {
-                            Enum<?> value = Enum.valueOf(enumClass.asSubclass(Enum.class), raw.toUpperCase());
-                            parsed.add(value);
-                            argIndex++;
-                        } catch (IllegalArgumentException e) {
-                            chat.error(sender, "Invalid value for enum parameter '" + expectedArg.name() +
-                                    "': " + raw + ". Expected one of: " +
-                                    String.join(", ", expectedArg.suggestions()));
-                            return;
-                        }
-                    }
-
-                }
-            } catch (NumberFormatException e) {
-                chat.error(sender, "Invalid number for parameter '" + expectedArg.name() + "': " + raw);
+            if (!success) {
+                errorReporter.report(sender, this, parsed);
                 return;
             }
-        }
 
-        if (executor != null) {
-            executor.execute(sender, parsed);
-        } else {
-            chat.error(sender, String.format("Executor for command %s not set.", name));
+            if (executor != null) {
+                dispatch(sender, executor, parsed);
+            } else {
+                errorReporter.report(sender, this, CommandError.NO_EXECUTOR, null);
+            }
+        } finally {
+            parameters.release(parsed);
         }
     }
 
@@ -183,24 +149,33 @@ public class CommandActionNode extends ExecutorNode<CommandActionNode> {
      */
     @Override
     public List<String> tabComplete(CommandSender sender, List<String> currentArgs) {
-        List<String> completions = new ArrayList<>();
-
         int argIndex = currentArgs.size() - 1;
-        if (argIndex >= expectedArgs.size()) {
-            return completions;
+        int start = 0;
+        for (int i = 0; argIndex >= 0 && i < expectedArgs.size(); i++) {
+            TypedParameter parameter = expectedArgs.get(i);
+            int end = start + parameter.arity();
+            if (argIndex < end) {
+                return parameter.argumentType() == null
+                        ? parameter.suggestions(sender, currentArgs.get(argIndex))
+                        : parameter.suggestions(sender, currentArgs.subList(start, argIndex + 1));
+            }
+            start = end;
         }
 
-        TypedParameter currentArg = expectedArgs.get(argIndex);
+        return Collections.emptyList();
+    }
 
-        if (!currentArg.suggestions().isEmpty()) {
-            for (String suggestion : currentArg.suggestions()) {
-                if (suggestion.toLowerCase().startsWith(currentArgs.get(argIndex).toLowerCase())) {
-                    completions.add(suggestion);
-                }
-            }
+    @Override
+    public boolean canCompleteAsync(List<String> currentArgs) {
+        int argIndex = currentArgs.size() - 1;
+        int start = 0;
+        for (int i = 0; argIndex >= 0 && i < expectedArgs.size(); i++) {
+            TypedParameter parameter = expectedArgs.get(i);
+            start += parameter.arity();
+            if (argIndex < start) return parameter.hasThreadSafeSuggestions();
         }
 
-        return completions;
+        return true;
     }
 
     public List<TypedParameter> getArguments() {
@@ -213,6 +188,18 @@ public class CommandActionNode extends ExecutorNode<CommandActionNode> {
     }
 
     public void addExecutor(TypedExecutor executor) {
+        this.executor = executor == null ? null : ParsedExecutor.of(executor);
+    }
+
+    /**
+     * Sets an executor that reads its arguments through the typed accessors of {@link ParsedArguments},
+     * avoiding the boxed list a {@link TypedExecutor} receives.
+     *
+     * @param executor the executor that handles logic for this node
+     * @return this node instance
+     */
+    public CommandActionNode addParsedExecutor(ParsedExecutor executor) {
         this.executor = executor;
+        return this;
     }
 }
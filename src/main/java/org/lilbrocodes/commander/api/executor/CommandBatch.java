@@ -0,0 +1,210 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ArgumentReader;
+import org.lilbrocodes.commander.api.argument.CompiledParameters;
+import org.lilbrocodes.commander.api.argument.ParsedArguments;
+import org.lilbrocodes.commander.api.argument.ParsedExecutor;
+import org.lilbrocodes.commander.api.error.CommandError;
+import org.lilbrocodes.commander.api.error.ErrorTrace;
+import org.lilbrocodes.commander.api.metrics.NodeMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs many command lines for one sender through a {@link DispatchTable}, for scripted and console workloads.
+ * <p>
+ * Each line is read from a single reused {@link ArgumentReader}, its literals are resolved through the table and
+ * its arguments are parsed straight into a pooled holder. The permission of the root is checked once for the whole batch,
+ * the same check live dispatch makes before every command.
+ * Nothing is sent to the sender, every line produces a {@link BatchResult} instead, with the message rendered by the node's error renderer.
+ * Custom node types and groups with their own execute run with a sender that keeps their messages, and the error they report
+ * decides the status of the line.
+ * <p>
+ * Executors run on the calling thread regardless of their {@link ExecutionMode}, since the caller waits for their results.
+ * If a worker executor is given, lines whose node was declared with {@link ExecutorNode#withThreadSafeExecutor()}
+ * run there in parallel and the batch waits for them before returning.
+ */
+@SuppressWarnings("unused")
+public final class CommandBatch {
+    private final DispatchTable table;
+
+    /**
+     * Creates a batch runner for a frozen tree.
+     *
+     * @param table the flattened tree to dispatch through
+     */
+    public CommandBatch(DispatchTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Runs every line on the calling thread, in order.
+     *
+     * @param sender the sender to run the lines as
+     * @param lines the command lines, without the leading slash and command label
+     * @return one result per line, in the same order
+     */
+    public List<BatchResult> run(CommandSender sender, List<String> lines) {
+        return run(sender, lines, null);
+    }
+
+    /**
+     * Runs every line, spreading lines of thread-safe nodes across worker threads.
+     * The lines must not depend on each other, since the order in which parallel lines run is undefined.
+     *
+     * @param sender the sender to run the lines as
+     * @param lines the command lines, without the leading slash and command label
+     * @param workers the executor to run thread-safe lines on, or null to run every line on the calling thread
+     * @return one result per line, in the same order
+     */
+    public List<BatchResult> run(CommandSender sender, List<String> lines, Executor workers) {
+        BatchResult[] results = new BatchResult[lines.size()];
+        ExecutorNode<?> root = table.node(0);
+        boolean permitted = root.hasPermission(sender);
+        ArgumentReader reader = new ArgumentReader("");
+        List<CompletableFuture<Void>> pending = workers == null ? Collections.emptyList() : new ArrayList<>();
+
+        for (int line = 0; line < results.length; line++) {
+            reader.reset(lines.get(line));
+
+            int node = 0;
+            while (table.descends(node) && reader.canRead()) {
+                int child = table.lookup(node, reader.peekToken());
+                if (child < 0) break;
+
+                NodeMetrics metrics = table.node(node).metrics;
+                if (metrics != null) metrics.recordInvocation();
+
+                node = child;
+                reader.skipToken();
+            }
+
+            String path = table.pathOf(node);
+            if (!permitted) {
+                if (root.metrics != null) root.metrics.recordPermissionDenied();
+                results[line] = failure(sender, line, BatchResult.Status.NO_PERMISSION, root, path, CommandError.NO_PERMISSION, null);
+                continue;
+            }
+
+            results[line] = execute(sender, line, node, path, reader, workers, pending, results);
+        }
+
+        if (!pending.isEmpty()) CompletableFuture.allOf(pending.toArray(CompletableFuture<?>[]::new)).join();
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * Runs one resolved line.
+     *
+     * @return the result, or null if the line was handed to a worker that fills it in later
+     */
+    private BatchResult execute(CommandSender sender, int line, int id, String path, ArgumentReader reader,
+                                Executor workers, List<CompletableFuture<Void>> pending, BatchResult[] results) {
+        ExecutorNode<?> node = table.node(id);
+        if (!(node instanceof CommandActionNode) && !table.descends(id)) return executeCustom(sender, line, node, path, reader);
+
+        NodeMetrics metrics = node.metrics;
+        if (metrics != null) metrics.recordInvocation();
+
+        RateLimiter limiter = node.rateLimiter;
+        boolean executes = node instanceof CommandActionNode || node instanceof CommandHybridNode && !reader.canRead();
+        if (limiter != null && executes && limiter.acquire(sender) != 0) {
+            if (metrics != null) metrics.recordRateLimited();
+            return failure(sender, line, BatchResult.Status.RATE_LIMITED, node, path, CommandError.RATE_LIMITED, null);
+        }
+
+        if (node instanceof CommandActionNode action) {
+            CompiledParameters parameters = action.compiled();
+            ParsedArguments parsed = parameters.acquire();
+            try {
+                if (!parameters.parse(reader, parsed)) {
+                    if (metrics != null) metrics.recordParseFailure(parsed.error());
+                    String message = node.getErrorReporter().getRenderer().render(sender, node, parsed.error(), parsed.errorIndex(), parsed.errorParameter(), parsed.errorInput());
+                    return new BatchResult(line, BatchResult.Status.INVALID_ARGUMENTS, path, parsed.error(), message, null);
+                }
+                return run(sender, line, node, path, action.executor(), parsed, workers, pending, results);
+            } finally {
+                parameters.release(parsed);
+            }
+        }
+
+        if (reader.canRead()) {
+            if (metrics != null) metrics.recordUnknownSubcommand();
+            return failure(sender, line, BatchResult.Status.UNKNOWN_SUBCOMMAND, node, path, CommandError.UNKNOWN_SUBCOMMAND, reader.peekToken());
+        }
+        if (node instanceof CommandHybridNode hybrid) {
+            return run(sender, line, node, path, hybrid.executor(), ParsedArguments.EMPTY, workers, pending, results);
+        }
+        if (metrics != null) metrics.recordMissingSubcommand();
+        return failure(sender, line, BatchResult.Status.MISSING_SUBCOMMAND, node, path, CommandError.MISSING_SUBCOMMAND, null);
+    }
+
+    /**
+     * Runs a custom node type or a group with its own execute, which handle their metrics, rate limits and errors themselves.
+     * Their messages are captured and the first error they report becomes the status of the line.
+     */
+    private static BatchResult executeCustom(CommandSender sender, int line, ExecutorNode<?> node, String path, ArgumentReader reader) {
+        // They only accept split arguments
+        List<String> args = reader.canRead() ? Arrays.asList(reader.readRemaining().split(" ", -1)) : Collections.emptyList();
+        CapturingSender capture = new CapturingSender(sender);
+        ErrorTrace trace = ErrorTrace.begin();
+        try {
+            node.execute(capture.sender(), args);
+        } catch (RuntimeException e) {
+            return new BatchResult(line, BatchResult.Status.FAILED, path, null, e.toString(), e);
+        } finally {
+            trace.end();
+        }
+
+        CommandError error = trace.getError();
+        if (error == null) return BatchResult.success(line, path);
+        return new BatchResult(line, status(error), path, trace.getArgumentError(), capture.messages(), null);
+    }
+
+    private BatchResult run(CommandSender sender, int line, ExecutorNode<?> node, String path, ParsedExecutor executor, ParsedArguments args,
+                            Executor workers, List<CompletableFuture<Void>> pending, BatchResult[] results) {
+        if (executor == null) {
+            return failure(sender, line, BatchResult.Status.NO_EXECUTOR, node, path, CommandError.NO_EXECUTOR, null);
+        }
+
+        if (workers != null && node.hasThreadSafeExecutor()) {
+            ParsedArguments detached = args.copy();
+            pending.add(CompletableFuture.runAsync(() -> results[line] = invoke(sender, line, node, path, executor, detached), workers));
+            return null;
+        }
+
+        return invoke(sender, line, node, path, executor, args);
+    }
+
+    private static BatchResult invoke(CommandSender sender, int line, ExecutorNode<?> node, String path, ParsedExecutor executor, ParsedArguments args) {
+        try {
+            node.run(sender, executor, args);
+            return BatchResult.success(line, path);
+        } catch (RuntimeException e) {
+            return new BatchResult(line, BatchResult.Status.FAILED, path, null, e.toString(), e);
+        }
+    }
+
+    private static BatchResult.Status status(CommandError error) {
+        return switch (error) {
+            case NO_PERMISSION -> BatchResult.Status.NO_PERMISSION;
+            case MISSING_SUBCOMMAND -> BatchResult.Status.MISSING_SUBCOMMAND;
+            case UNKNOWN_SUBCOMMAND -> BatchResult.Status.UNKNOWN_SUBCOMMAND;
+            case INVALID_ARGUMENT -> BatchResult.Status.INVALID_ARGUMENTS;
+            case NO_EXECUTOR -> BatchResult.Status.NO_EXECUTOR;
+            case RATE_LIMITED -> BatchResult.Status.RATE_LIMITED;
+            case ALREADY_RUNNING, SERVER_BUSY -> BatchResult.Status.REJECTED;
+        };
+    }
+
+    private static BatchResult failure(CommandSender sender, int line, BatchResult.Status status, ExecutorNode<?> node, String path,
+                                       CommandError error, String input) {
+        return BatchResult.failure(line, status, path, node.getErrorReporter().getRenderer().render(sender, node, error, input));
+    }
+}
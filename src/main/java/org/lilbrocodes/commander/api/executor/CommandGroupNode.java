@@ -1,7 +1,11 @@
 package org.lilbrocodes.commander.api.executor;
 
 import org.bukkit.command.CommandSender;
-import org.lilbrocodes.commander.api.util.ChatUtil;
+import org.lilbrocodes.commander.api.error.CommandError;
+import org.lilbrocodes.commander.api.error.ErrorReporter;
+import org.lilbrocodes.commander.api.metrics.NodeMetrics;
+import org.lilbrocodes.commander.api.util.FuzzyIndex;
+import org.lilbrocodes.commander.api.util.PrefixIndex;
 
 import java.util.*;
 
@@ -10,7 +14,22 @@ import java.util.*;
  */
 @SuppressWarnings("unused")
 public class CommandGroupNode extends ExecutorNode<CommandGroupNode> {
-    private final Map<String, ExecutorNode<?>> children = new HashMap<>();
+    private static final ClassValue<Boolean> CUSTOM_EXECUTE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("execute", CommandSender.class, List.class).getDeclaringClass() != CommandGroupNode.class
+                        || type.getMethod("execute", CommandSender.class, List.class, int.class).getDeclaringClass() != CommandGroupNode.class;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private final ChildMap children = new ChildMap();
+    private volatile PrefixIndex childIndex;
+    private volatile FuzzyIndex fuzzyIndex;
+    private int fuzzySuggestions;
 
     /**
      * Constructs a ParentExecutorNode with no children.
@@ -27,9 +46,13 @@ public class CommandGroupNode extends ExecutorNode<CommandGroupNode> {
      * Adds a subcommand to this node.
      *
      * @param node the child ExecutorNode to add
+     * @throws IllegalStateException if the tree was already frozen by registering the command
      */
     public void addChild(ExecutorNode<?> node) {
-        children.put(node.getName(), node);
+        if (frozen) throw new IllegalStateException("Cannot add child " + node.getName() + " to " + name + ", the command tree is frozen");
+        children.put(node);
+        childIndex = null;
+        fuzzyIndex = null;
     }
 
     /**
@@ -43,6 +66,75 @@ public class CommandGroupNode extends ExecutorNode<CommandGroupNode> {
         }
     }
 
+    /**
+     * Suggests up to three children close to a mistyped subcommand, in tab completion and in the unknown subcommand error,
+     * and returns this node instance for chaining.
+     *
+     * @return this node instance
+     */
+    public CommandGroupNode withFuzzyMatching() {
+        return withFuzzyMatching(3);
+    }
+
+    /**
+     * Suggests children close to a mistyped subcommand, in tab completion and in the unknown subcommand error,
+     * and returns this node instance for chaining.
+     *
+     * @param maxSuggestions the maximum number of children to suggest, or 0 to turn fuzzy matching off
+     * @return this node instance
+     */
+    public CommandGroupNode withFuzzyMatching(int maxSuggestions) {
+        this.fuzzySuggestions = maxSuggestions;
+        return this;
+    }
+
+    /**
+     * Compiles this node and every child below it.
+     */
+    @Override
+    public void compile() {
+        childIndex();
+        if (fuzzySuggestions > 0) fuzzyIndex();
+        for (ExecutorNode<?> child : children.values()) {
+            child.compile();
+        }
+    }
+
+    /**
+     * Freezes this node and every child below it, trimming the child storage to its final size.
+     */
+    @Override
+    public void freeze() {
+        super.freeze();
+        children.trim();
+        for (ExecutorNode<?> child : children.values()) {
+            child.freeze();
+        }
+    }
+
+    /**
+     * Sets the error reporter of this node and every child below it.
+     *
+     * @param errorReporter the error reporter
+     */
+    @Override
+    public void setErrorReporter(ErrorReporter errorReporter) {
+        super.setErrorReporter(errorReporter);
+        for (ExecutorNode<?> child : children.values()) {
+            child.setErrorReporter(errorReporter);
+        }
+    }
+
+    /**
+     * Enables metrics for this node and every child below it.
+     */
+    @Override
+    public void enableMetrics() {
+        super.enableMetrics();
+        for (ExecutorNode<?> child : children.values()) {
+            child.enableMetrics();
+        }
+    }
 
     /**
      * Executes a subcommand based on the first argument.
@@ -52,20 +144,51 @@ public class CommandGroupNode extends ExecutorNode<CommandGroupNode> {
      */
     @Override
     public void execute(CommandSender sender, List<String> args) {
-        ChatUtil chat = new ChatUtil(this.pluginName);
+        executeFrom(sender, args, 0);
+    }
 
-        if (args.isEmpty()) {
-            chat.error(sender, "Missing subcommand. Try /" + name + " help");
+    /**
+     * Executes a subcommand based on the argument at {@code from}, passing the same list down with the index moved on.
+     * Subclasses that override {@link #execute(CommandSender, List)} still receive a sub list, so their override is never skipped.
+     *
+     * @param sender the command sender
+     * @param args the arguments passed to the command
+     * @param from the index of the first argument belonging to this node
+     */
+    @Override
+    public void execute(CommandSender sender, List<String> args, int from) {
+        if (hasCustomExecute()) {
+            execute(sender, from == 0 ? args : args.subList(from, args.size()));
+        } else {
+            executeFrom(sender, args, from);
+        }
+    }
+
+    void executeFrom(CommandSender sender, List<String> args, int from) {
+        NodeMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordInvocation();
+
+        if (from >= args.size()) {
+            if (metrics != null) metrics.recordMissingSubcommand();
+            errorReporter.report(sender, this, CommandError.MISSING_SUBCOMMAND, null);
             return;
         }
 
-        ExecutorNode<?> child = children.get(args.get(0));
+        ExecutorNode<?> child = children.get(args.get(from));
         if (child == null) {
-            chat.error(sender, "Unknown subcommand: " + args.get(0));
+            if (metrics != null) metrics.recordUnknownSubcommand();
+            errorReporter.report(sender, this, CommandError.UNKNOWN_SUBCOMMAND, args.get(from));
             return;
         }
 
-        child.execute(sender, args.subList(1, args.size()));
+        child.execute(sender, args, from + 1);
+    }
+
+    /**
+     * @return true if a subclass overrides one of the execute methods, in which case dispatch must go through them
+     */
+    boolean hasCustomExecute() {
+        return CUSTOM_EXECUTE.get(getClass());
     }
 
     /**
@@ -78,7 +201,8 @@ public class CommandGroupNode extends ExecutorNode<CommandGroupNode> {
     @Override
     public List<String> tabComplete(CommandSender sender, List<String> args) {
         if (args.size() == 1) {
-            return children.keySet().stream().filter(k -> k.startsWith(args.get(0))).toList();
+            List<String> matches = childIndex().matching(args.get(0));
+            return matches.isEmpty() ? didYouMean(args.get(0)) : matches;
         }
 
         ExecutorNode<?> child = children.get(args.get(0));
@@ -86,6 +210,14 @@ public class CommandGroupNode extends ExecutorNode<CommandGroupNode> {
         return child.tabComplete(sender, args.subList(1, args.size()));
     }
 
+    @Override
+    public boolean canCompleteAsync(List<String> args) {
+        if (args.size() <= 1) return true;
+
+        ExecutorNode<?> child = children.get(args.get(0));
+        return child == null || child.canCompleteAsync(args.subList(1, args.size()));
+    }
+
     @Override
     public boolean hasSubCommands() {
         return true;
@@ -94,4 +226,42 @@ public class CommandGroupNode extends ExecutorNode<CommandGroupNode> {
     public Collection<ExecutorNode<?>> getChildren() {
         return children.values();
     }
+
+    ChildMap childMap() {
+        return children;
+    }
+
+    /**
+     * Returns the children whose names are closest to a mistyped subcommand, nearest first.
+     *
+     * @param input the mistyped subcommand
+     * @return the suggested child names, empty if fuzzy matching is off or nothing is close enough
+     */
+    public List<String> didYouMean(String input) {
+        if (fuzzySuggestions <= 0) return Collections.emptyList();
+        return fuzzyIndex().closest(input, fuzzySuggestions);
+    }
+
+    /**
+     * Returns the prefix index over the names of this node's children, rebuilding it if children were added since.
+     *
+     * @return the child name index
+     */
+    protected PrefixIndex childIndex() {
+        PrefixIndex index = childIndex;
+        if (index == null) {
+            index = PrefixIndex.of(children.names());
+            childIndex = index;
+        }
+        return index;
+    }
+
+    private FuzzyIndex fuzzyIndex() {
+        FuzzyIndex index = fuzzyIndex;
+        if (index == null) {
+            index = FuzzyIndex.of(children.names());
+            fuzzyIndex = index;
+        }
+        return index;
+    }
 }
@@ -1,10 +1,11 @@
 package org.lilbrocodes.commander.api.executor;
 
 import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ParsedArguments;
+import org.lilbrocodes.commander.api.argument.ParsedExecutor;
 import org.lilbrocodes.commander.api.argument.TypedExecutor;
-import org.lilbrocodes.commander.api.util.StaticChatUtil;
+import org.lilbrocodes.commander.api.error.CommandError;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,7 +13,7 @@ This executor type is a subclass of {@link CommandGroupNode}, so it can have sub
  */
 @SuppressWarnings("unused")
 public class CommandHybridNode extends CommandGroupNode {
-    private TypedExecutor executor;
+    private ParsedExecutor executor;
 
     /**
      * Constructs a PseudoExecutorNode with no children.
@@ -24,7 +25,7 @@ public class CommandHybridNode extends CommandGroupNode {
      */
     public CommandHybridNode(String name, String description, String pluginName, TypedExecutor executor) {
         super(name, description, pluginName);
-        this.executor = executor;
+        this.executor = executor == null ? null : ParsedExecutor.of(executor);
     }
 
     /**
@@ -35,28 +36,46 @@ public class CommandHybridNode extends CommandGroupNode {
      * @param pluginName  the name of the plugin
      */
     public CommandHybridNode(String name, String description, String pluginName) {
-        this(name, description, pluginName, null);
+        this(name, description, pluginName, (TypedExecutor) null);
     }
 
     /**
-     * Executes the passed {@link CommandHybridNode#executor} if arguments are empty, handles sub-commands as usual if not
+     * Executes the passed {@link CommandHybridNode#executor} if no arguments are left, handles sub-commands as usual if not
      * @param sender the command sender
      * @param args the arguments passed to the command
+     * @param from the index of the first argument belonging to this node
      */
     @Override
-    public void execute(CommandSender sender, List<String> args) {
-        if (args.isEmpty()) {
+    void executeFrom(CommandSender sender, List<String> args, int from) {
+        if (from >= args.size()) {
+            if (metrics != null) metrics.recordInvocation();
+            if (!admit(sender)) return;
             if (executor != null) {
-                executor.execute(sender, new ArrayList<>());
+                dispatch(sender, executor, ParsedArguments.EMPTY);
             } else {
-                StaticChatUtil.error(sender, pluginName, String.format("Executor for command %s not set.", name));
+                errorReporter.report(sender, this, CommandError.NO_EXECUTOR, null);
             }
         } else {
-            super.execute(sender, args);
+            super.executeFrom(sender, args, from);
         }
     }
 
+    ParsedExecutor executor() {
+        return executor;
+    }
+
     public void addExecutor(TypedExecutor executor) {
+        this.executor = executor == null ? null : ParsedExecutor.of(executor);
+    }
+
+    /**
+     * Sets an executor that receives {@link ParsedArguments} instead of a boxed list.
+     *
+     * @param executor the code to run when ran without arguments
+     * @return this node instance
+     */
+    public CommandHybridNode addParsedExecutor(ParsedExecutor executor) {
         this.executor = executor;
+        return this;
     }
 }
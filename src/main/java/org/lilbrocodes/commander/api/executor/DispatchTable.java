@@ -0,0 +1,244 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.metrics.NodeMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, flattened view of a frozen command tree.
+ * Every node gets an integer id in depth-first order, and every (parent id, literal) pair is stored in a single open-addressed hash table,
+ * so dispatching walks the arguments with an index cursor instead of recursing through {@code subList} views.
+ * Groups whose class overrides an {@code execute} method are not walked through: dispatch stops there and calls the override
+ * with the remaining arguments, as if the tree was not flattened.
+ * <p>
+ * All fields are final and never written after construction, so a table can be read from any thread without locking.
+ */
+@SuppressWarnings("unused")
+public final class DispatchTable {
+    private final ExecutorNode<?>[] nodes;
+    private final int[] parents;
+    private final String[] paths;
+    private final boolean[] groups;
+    private final boolean[] descends;
+    private final Map<ExecutorNode<?>, Integer> ids;
+
+    private final int mask;
+    private final int[] slotParents;
+    private final String[] slotNames;
+    private final int[] slotChildren;
+
+    private DispatchTable(List<ExecutorNode<?>> nodes, List<Integer> parents, List<String> paths) {
+        int count = nodes.size();
+        this.nodes = nodes.toArray(new ExecutorNode<?>[0]);
+        this.parents = new int[count];
+        this.paths = paths.toArray(new String[0]);
+        this.groups = new boolean[count];
+        this.descends = new boolean[count];
+        this.ids = new IdentityHashMap<>(count);
+
+        for (int i = 0; i < count; i++) {
+            this.parents[i] = parents.get(i);
+            this.groups[i] = this.nodes[i] instanceof CommandGroupNode;
+            this.descends[i] = this.nodes[i] instanceof CommandGroupNode group && !group.hasCustomExecute();
+            this.ids.putIfAbsent(this.nodes[i], i);
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+        this.mask = capacity - 1;
+        this.slotParents = new int[capacity];
+        this.slotNames = new String[capacity];
+        this.slotChildren = new int[capacity];
+
+        for (int i = 1; i < count; i++) {
+            int slot = hash(this.parents[i], this.nodes[i].getName()) & mask;
+            while (slotNames[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            slotParents[slot] = this.parents[i];
+            slotNames[slot] = this.nodes[i].getName();
+            slotChildren[slot] = i;
+        }
+    }
+
+    /**
+     * Flattens a tree into a dispatch table, freezing it first so it can no longer change underneath the table.
+     *
+     * @param root the root of the tree
+     * @return the dispatch table
+     */
+    public static DispatchTable of(ExecutorNode<?> root) {
+        root.freeze();
+
+        List<ExecutorNode<?>> nodes = new ArrayList<>();
+        List<Integer> parents = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        collect(root, -1, "", nodes, parents, paths);
+        return new DispatchTable(nodes, parents, paths);
+    }
+
+    private static void collect(ExecutorNode<?> node, int parent, String path,
+                                List<ExecutorNode<?>> nodes, List<Integer> parents, List<String> paths) {
+        int id = nodes.size();
+        nodes.add(node);
+        parents.add(parent);
+        paths.add(path);
+
+        if (node instanceof CommandGroupNode group) {
+            for (ExecutorNode<?> child : group.getChildren()) {
+                collect(child, id, path.isEmpty() ? child.getName() : path + " " + child.getName(), nodes, parents, paths);
+            }
+        }
+    }
+
+    /**
+     * Dispatches a command through the tree.
+     * Literals are resolved with the hash table for as long as they match and the node does not override execute,
+     * then the deepest matched node runs with the remaining arguments.
+     * Error handling for missing or unknown subcommands is left to that node.
+     *
+     * @param sender the command sender
+     * @param args the arguments passed to the root node
+     */
+    public void dispatch(CommandSender sender, List<String> args) {
+        int node = 0;
+        int index = 0;
+        int size = args.size();
+
+        while (index < size && descends[node]) {
+            int child = lookup(node, args.get(index));
+            if (child < 0) break;
+
+            NodeMetrics metrics = nodes[node].metrics;
+            if (metrics != null) metrics.recordInvocation();
+
+            node = child;
+            index++;
+        }
+
+        nodes[node].execute(sender, args, index);
+    }
+
+    /**
+     * Finds the child of a node by its literal name.
+     *
+     * @param parent the id of the parent node
+     * @param name the literal name of the child
+     * @return the id of the child, or -1 if the parent has no such child
+     */
+    public int lookup(int parent, String name) {
+        int slot = hash(parent, name) & mask;
+        String candidate;
+        while ((candidate = slotNames[slot]) != null) {
+            if (slotParents[slot] == parent && candidate.equals(name)) return slotChildren[slot];
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of nodes in the tree
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @param id a node id
+     * @return the node with that id
+     */
+    public ExecutorNode<?> node(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * @param id a node id
+     * @return true if the node is a {@link CommandGroupNode} and can have children
+     */
+    public boolean isGroup(int id) {
+        return groups[id];
+    }
+
+    /**
+     * @param id a node id
+     * @return true if dispatch resolves the children of the node through this table, false if the node handles its arguments itself
+     */
+    public boolean descends(int id) {
+        return descends[id];
+    }
+
+    /**
+     * Resolves the literal path at the start of the arguments.
+     *
+     * @param args the arguments passed to the root node
+     * @param count how many arguments to resolve
+     * @return the id of the node reached after {@code count} literals, or -1 if one of them is not a child of the node before it
+     */
+    public int resolve(List<String> args, int count) {
+        int node = 0;
+        for (int i = 0; i < count; i++) {
+            if (!groups[node]) return -1;
+            node = lookup(node, args.get(i));
+            if (node < 0) return -1;
+        }
+        return node;
+    }
+
+    /**
+     * Follows the literals at the start of the arguments for as long as they match, the way {@link #dispatch(CommandSender, List)} does.
+     *
+     * @param args the arguments passed to the root node
+     * @return the id of the deepest node reached, 0 for the root
+     */
+    public int follow(String[] args) {
+        int node = 0;
+        for (int i = 0; i < args.length && descends[node]; i++) {
+            int child = lookup(node, args[i]);
+            if (child < 0) break;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * @param id a node id
+     * @return the id of the parent node, or -1 for the root
+     */
+    public int parentOf(int id) {
+        return parents[id];
+    }
+
+    /**
+     * @param id a node id
+     * @return the literal path from the root to the node, without the command label
+     */
+    public String pathOf(int id) {
+        return paths[id];
+    }
+
+    /**
+     * @param node a node of this tree
+     * @return the id of its first occurrence in depth-first order, or -1 if it is not part of this tree
+     */
+    public int idOf(ExecutorNode<?> node) {
+        Integer id = ids.get(node);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return every node of the tree in id order
+     */
+    public List<ExecutorNode<?>> nodes() {
+        return Collections.unmodifiableList(Arrays.asList(nodes));
+    }
+
+    private static int hash(int parent, String name) {
+        int h = name.hashCode() * 31 + parent * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,11 @@
+package org.lilbrocodes.commander.api.executor;
+
+/**
+ * Where the executor of a node runs once its arguments have been parsed.
+ */
+@SuppressWarnings("unused")
+public enum ExecutionMode {
+    SYNC,               // Inline on the thread that dispatched the command, usually the main server thread
+    ASYNC,              // On the shared, bounded worker pool of NodeDispatcher
+    VIRTUAL_THREAD      // On a new virtual thread, falls back to ASYNC on runtimes without virtual threads
+}
@@ -1,7 +1,18 @@
 package org.lilbrocodes.commander.api.executor;
 
 import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.ParsedArguments;
+import org.lilbrocodes.commander.api.argument.ParsedExecutor;
+import org.lilbrocodes.commander.api.error.CommandError;
+import org.lilbrocodes.commander.api.error.ErrorReporter;
+import org.lilbrocodes.commander.api.metrics.NodeMetrics;
+import org.lilbrocodes.commander.api.util.StringTable;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a node in the command execution tree.
@@ -11,29 +22,90 @@ import java.util.List;
  */
 @SuppressWarnings("unused")
 public abstract class ExecutorNode<T extends ExecutorNode<T>> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ExecutorNode> IN_FLIGHT = AtomicIntegerFieldUpdater.newUpdater(ExecutorNode.class, "inFlight");
+
     protected final String name;
-    protected final String description;
     protected final String pluginName;
+    private final String fallbackPermission;
+    protected String description; // Null once moved into the description table, read it through getDescription()
+    private StringTable descriptionTable;
+    private int descriptionId;
     protected String permission;
+    protected ExecutionMode executionMode = ExecutionMode.SYNC;
+    protected int maxConcurrency;
+    protected boolean threadSafe;
+    protected ErrorReporter errorReporter = ErrorReporter.legacy();
+    protected RateLimiter rateLimiter;
+    private volatile int inFlight;
+    protected volatile NodeMetrics metrics;
+    protected volatile boolean frozen;
 
     /**
      * Constructs an ExecutorNode with the given name, description, and plugin name.
+     * The name, plugin name and default permission are interned, so generated trees share one instance of each.
      *
      * @param name the name of the node
      * @param description the description of the node
      * @param pluginName the name of the plugin that owns this node
      */
     public ExecutorNode(String name, String description, String pluginName) {
-        this.name = name;
+        this.name = name.intern();
         this.description = description;
-        this.pluginName = pluginName;
+        this.pluginName = pluginName != null ? pluginName.intern() : null;
+        this.fallbackPermission = (pluginName + "." + name).intern();
     }
 
     public String getName() { return name; }
-    public String getDescription() { return description; }
     public String getPluginName() { return pluginName; }
     public String getPermission() { return permission; }
     public void setPermission(String permission) { this.permission = permission; }
+    public ExecutionMode getExecutionMode() { return executionMode; }
+    public int getMaxConcurrency() { return maxConcurrency; }
+    public boolean hasThreadSafeExecutor() { return threadSafe; }
+    public int getInFlight() { return inFlight; }
+    public NodeMetrics getMetrics() { return metrics; }
+    public boolean isFrozen() { return frozen; }
+    public ErrorReporter getErrorReporter() { return errorReporter; }
+    public RateLimiter getRateLimiter() { return rateLimiter; }
+
+    /**
+     * Returns the description of this node, reading it from the shared string table if the tree was compacted.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+        StringTable table = descriptionTable;
+        return table == null ? description : table.get(descriptionId);
+    }
+
+    /**
+     * Replaces the custom permission with a shared instance and moves the description into a string table, see {@link TreeCompactor}.
+     *
+     * @param interner returns the shared instance of a string
+     * @param descriptions the table to move the description into, or null to keep it as is
+     */
+    void compact(UnaryOperator<String> interner, StringTable descriptions) {
+        if (permission != null) permission = interner.apply(permission);
+        if (descriptions != null && descriptionTable == null && description != null) {
+            descriptionId = descriptions.add(description);
+            descriptionTable = descriptions;
+            description = null;
+        }
+    }
+
+    StringTable descriptionTable() {
+        return descriptionTable;
+    }
+
+    /**
+     * Returns the permission checked for this node, the custom permission if set or "pluginName.commandName" otherwise.
+     *
+     * @return the effective permission
+     */
+    public String getEffectivePermission() {
+        return permission != null ? permission : fallbackPermission;
+    }
 
     /**
      * Checks whether the given sender has permission to execute this node.
@@ -43,8 +115,7 @@ public abstract class ExecutorNode<T extends ExecutorNode<T>> {
      * @return true if the sender has permission, false otherwise
      */
     public boolean hasPermission(CommandSender sender) {
-        String fallback = pluginName + "." + name;
-        return sender.hasPermission(permission != null ? permission : fallback);
+        return sender.hasPermission(getEffectivePermission());
     }
 
     /**
@@ -59,6 +130,205 @@ public abstract class ExecutorNode<T extends ExecutorNode<T>> {
         return (T) this;
     }
 
+    /**
+     * Sets where this node's executor runs once its arguments are parsed, and returns this node instance for chaining.
+     * Arguments are always parsed on the dispatching thread.
+     *
+     * @param executionMode the execution mode
+     * @return this node instance
+     */
+    @SuppressWarnings("unchecked")
+    public T withExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return (T) this;
+    }
+
+    /**
+     * Limits how many executions of this node may be queued or running off-thread at once, and returns this node instance for chaining.
+     * Only applies to nodes that are not {@link ExecutionMode#SYNC}.
+     *
+     * @param maxConcurrency the limit, or 0 for no limit
+     * @return this node instance
+     */
+    @SuppressWarnings("unchecked")
+    public T withMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        return (T) this;
+    }
+
+    /**
+     * Declares that this node's executor may run on any thread, concurrently with itself, and returns this node instance for chaining.
+     * Batches run such executors on worker threads when given an executor, see {@link CommandBatch}.
+     *
+     * @return this node instance
+     */
+    @SuppressWarnings("unchecked")
+    public T withThreadSafeExecutor() {
+        this.threadSafe = true;
+        return (T) this;
+    }
+
+    /**
+     * Returns how long a sender has to wait before its rate limit lets it use this node again.
+     *
+     * @param sender the command sender
+     * @return the remaining time, zero if the sender may use this node now
+     */
+    public Duration getRemainingCooldown(CommandSender sender) {
+        RateLimiter limiter = rateLimiter;
+        return limiter == null ? Duration.ZERO : Duration.ofNanos(limiter.remaining(sender));
+    }
+
+    /**
+     * Gives every sender a cooldown between two uses of this node, and returns this node instance for chaining.
+     *
+     * @param cooldown the time between two uses
+     * @return this node instance
+     */
+    public T withCooldown(Duration cooldown) {
+        return withRateLimit(RateLimit.cooldown(cooldown));
+    }
+
+    /**
+     * Lets every sender use this node {@code burst} times in a row, refilling evenly over {@code per}, and returns this node instance for chaining.
+     *
+     * @param burst how many uses a sender may make in a row
+     * @param per the time in which all uses refill
+     * @return this node instance
+     */
+    public T withRateLimit(int burst, Duration per) {
+        return withRateLimit(RateLimit.of(burst, per));
+    }
+
+    /**
+     * Sets the rate limit for senders outside of every permission tier, and returns this node instance for chaining.
+     * Limits are checked before the arguments are parsed and only apply to nodes that run an executor.
+     *
+     * @param limit the limit
+     * @return this node instance
+     */
+    @SuppressWarnings("unchecked")
+    public T withRateLimit(RateLimit limit) {
+        if (rateLimiter == null) rateLimiter = new RateLimiter(limit);
+        else rateLimiter.setDefault(limit);
+        return (T) this;
+    }
+
+    /**
+     * Sets the rate limit for senders with a permission, and returns this node instance for chaining.
+     * The first tier a sender belongs to applies, in the order the tiers were added. {@link RateLimit#NONE} exempts the tier.
+     *
+     * @param permission the permission of the tier
+     * @param limit the limit of the tier
+     * @return this node instance
+     */
+    @SuppressWarnings("unchecked")
+    public T withRateLimit(String permission, RateLimit limit) {
+        if (rateLimiter == null) rateLimiter = new RateLimiter(RateLimit.NONE);
+        rateLimiter.setTier(permission, limit);
+        return (T) this;
+    }
+
+    /**
+     * Sets how errors of this node are rendered and sent.
+     *
+     * @param errorReporter the error reporter
+     */
+    public void setErrorReporter(ErrorReporter errorReporter) {
+        this.errorReporter = errorReporter;
+    }
+
+    /**
+     * Starts recording invocation counts and latencies for this node.
+     */
+    public void enableMetrics() {
+        if (metrics == null) metrics = new NodeMetrics();
+    }
+
+    /**
+     * Takes one use from the sender's rate limit, reporting the error if none is left.
+     *
+     * @param sender the command sender
+     * @return true if the sender may use this node now
+     */
+    protected boolean admit(CommandSender sender) {
+        RateLimiter limiter = rateLimiter;
+        if (limiter == null || limiter.acquire(sender) == 0) return true;
+
+        NodeMetrics metrics = this.metrics;
+        if (metrics != null) metrics.recordRateLimited();
+        errorReporter.report(sender, this, CommandError.RATE_LIMITED, null);
+        return false;
+    }
+
+    /**
+     * Runs an executor according to this node's {@link ExecutionMode}.
+     * Off-thread executors receive a copy of the arguments, since the pooled holder is reused once this returns.
+     *
+     * @param sender the command sender
+     * @param executor the executor to run
+     * @param args the parsed arguments
+     */
+    protected void dispatch(CommandSender sender, ParsedExecutor executor, ParsedArguments args) {
+        if (executionMode == ExecutionMode.SYNC) {
+            run(sender, executor, args);
+            return;
+        }
+
+        if (IN_FLIGHT.incrementAndGet(this) > maxConcurrency && maxConcurrency > 0) {
+            IN_FLIGHT.decrementAndGet(this);
+            errorReporter.report(sender, this, CommandError.ALREADY_RUNNING, null);
+            return;
+        }
+
+        ParsedArguments detached = args.copy();
+        try {
+            NodeDispatcher.executorFor(executionMode).execute(() -> {
+                try {
+                    run(sender, executor, detached);
+                } finally {
+                    IN_FLIGHT.decrementAndGet(this);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            IN_FLIGHT.decrementAndGet(this);
+            errorReporter.report(sender, this, CommandError.SERVER_BUSY, null);
+        }
+    }
+
+    void run(CommandSender sender, ParsedExecutor executor, ParsedArguments args) {
+        NodeMetrics metrics = this.metrics;
+        if (metrics == null) {
+            executor.execute(sender, args);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            executor.execute(sender, args);
+        } catch (RuntimeException | Error e) {
+            metrics.recordExecutorError();
+            throw e;
+        } finally {
+            metrics.recordExecuteTime(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Prepares this node for dispatch, called once when the command is registered.
+     * Nodes that can precompute anything about their arguments or children should do so here.
+     */
+    public void compile() {
+    }
+
+    /**
+     * Marks this node as frozen, after which its structure can no longer change.
+     * Called when the command is registered, before the tree is flattened into a {@link DispatchTable}.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
     /**
      * Executes this command node.
      *
@@ -67,6 +337,18 @@ public abstract class ExecutorNode<T extends ExecutorNode<T>> {
      */
     public abstract void execute(CommandSender sender, List<String> args);
 
+    /**
+     * Executes this command node with the arguments starting at {@code from}.
+     * Nodes that can read arguments at an offset override this to avoid creating a sub list.
+     *
+     * @param sender the command sender
+     * @param args the arguments passed to the command
+     * @param from the index of the first argument belonging to this node
+     */
+    public void execute(CommandSender sender, List<String> args, int from) {
+        execute(sender, from == 0 ? args : args.subList(from, args.size()));
+    }
+
     /**
      * Provides tab completions for this node based on the current arguments.
      *
@@ -76,5 +358,15 @@ public abstract class ExecutorNode<T extends ExecutorNode<T>> {
      */
     public abstract List<String> tabComplete(CommandSender sender, List<String> args);
 
+    /**
+     * Checks whether completing the given arguments only touches code that is safe to run off the main thread.
+     *
+     * @param args the current arguments
+     * @return true if {@link #tabComplete(CommandSender, List)} may be called from a worker thread for these arguments
+     */
+    public boolean canCompleteAsync(List<String> args) {
+        return false;
+    }
+
     public abstract boolean hasSubCommands();
 }
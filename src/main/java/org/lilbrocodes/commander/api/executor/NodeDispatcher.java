@@ -0,0 +1,113 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the worker pools that nodes with an {@link ExecutionMode} other than {@link ExecutionMode#SYNC} run their executors on.
+ */
+@SuppressWarnings("unused")
+public final class NodeDispatcher {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final ThreadPoolExecutor POOL = createPool();
+    private static final ExecutorService VIRTUAL = createVirtualExecutor();
+
+    private NodeDispatcher() {
+    }
+
+    /**
+     * Returns the executor service for a mode.
+     *
+     * @param mode an execution mode other than {@link ExecutionMode#SYNC}
+     * @return the executor service to submit to
+     */
+    static Executor executorFor(ExecutionMode mode) {
+        return mode == ExecutionMode.VIRTUAL_THREAD && VIRTUAL != null ? VIRTUAL : POOL;
+    }
+
+    /**
+     * Runs a task on the main server thread, directly if already on it.
+     * Async executors use this to hop back before touching the world or players.
+     *
+     * @param plugin the plugin to schedule the task for
+     * @param task the task to run
+     */
+    public static void runSync(Plugin plugin, Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    /**
+     * Runs a task on the main server thread and returns a future for its result.
+     *
+     * @param plugin the plugin to schedule the task for
+     * @param task the task to run
+     * @return a future completed on the main thread
+     * @param <T> the result type
+     */
+    public static <T> CompletableFuture<T> callSync(Plugin plugin, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        runSync(plugin, () -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return the number of executors waiting for a worker in the shared pool
+     */
+    public static int getQueueDepth() {
+        return POOL.getQueue().size();
+    }
+
+    /**
+     * @return the number of workers of the shared pool currently running an executor
+     */
+    public static int getActiveWorkers() {
+        return POOL.getActiveCount();
+    }
+
+    /**
+     * @return true if virtual threads are available on this runtime
+     */
+    public static boolean hasVirtualThreads() {
+        return VIRTUAL != null;
+    }
+
+    private static ThreadPoolExecutor createPool() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "Commander-Executor-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * The library targets Java 17, so the virtual thread executor is looked up once at startup and only used when the runtime has it.
+     */
+    private static ExecutorService createVirtualExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+}
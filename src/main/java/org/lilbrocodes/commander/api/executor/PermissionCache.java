@@ -0,0 +1,153 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.util.SenderKey;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caches the permission checks of help output, tree rendering and tab completion per sender, for the nodes of one {@link DispatchTable}.
+ * Each node is checked at most once per snapshot, and snapshots expire after a short time-to-live.
+ * <p>
+ * Bukkit has no general permission-change event, so permission plugins or listeners should call {@link #invalidate(CommandSender)}
+ * (or {@link #invalidateAll()}) when a sender's permissions change. Command execution itself never uses this cache.
+ */
+@SuppressWarnings("unused")
+public final class PermissionCache {
+    private final DispatchTable table;
+    private final long ttlNanos;
+    private final Map<Object, Snapshot> snapshots;
+    private volatile long generation;
+
+    /**
+     * Creates a permission cache.
+     *
+     * @param table the table whose node ids the snapshots are indexed by
+     * @param ttl how long a snapshot stays valid
+     * @param maxSenders how many senders to keep snapshots for
+     */
+    public PermissionCache(DispatchTable table, Duration ttl, int maxSenders) {
+        this.table = table;
+        this.ttlNanos = ttl.toNanos();
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Snapshot> eldest) {
+                return size() > maxSenders;
+            }
+        };
+    }
+
+    /**
+     * Creates a permission cache with a one second time-to-live.
+     *
+     * @param table the table whose node ids the snapshots are indexed by
+     */
+    public PermissionCache(DispatchTable table) {
+        this(table, Duration.ofSeconds(1), 1024);
+    }
+
+    /**
+     * Returns the permission snapshot of a sender, creating a new one if there is none or it expired.
+     *
+     * @param sender the command sender
+     * @return the snapshot
+     */
+    public Snapshot of(CommandSender sender) {
+        Object key = SenderKey.of(sender);
+        long now = System.nanoTime();
+        long currentGeneration = generation;
+
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(key);
+        }
+        if (snapshot != null && snapshot.generation == currentGeneration && now - snapshot.createdAt < ttlNanos) {
+            snapshot.sender = sender;
+            return snapshot;
+        }
+
+        snapshot = new Snapshot(sender, table, now, currentGeneration);
+        synchronized (snapshots) {
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the cached permissions of one sender.
+     *
+     * @param sender the sender whose permissions changed
+     */
+    public void invalidate(CommandSender sender) {
+        synchronized (snapshots) {
+            snapshots.remove(SenderKey.of(sender));
+        }
+    }
+
+    /**
+     * Drops the cached permissions of every sender.
+     */
+    public void invalidateAll() {
+        generation++;
+        synchronized (snapshots) {
+            snapshots.clear();
+        }
+    }
+
+    /**
+     * @return the table this cache is indexed by
+     */
+    public DispatchTable getTable() {
+        return table;
+    }
+
+    /**
+     * The permissions of one sender, resolved lazily node by node.
+     * Two bits per node record whether the node was checked and whether the check passed.
+     */
+    public static final class Snapshot {
+        private final DispatchTable table;
+        private final AtomicLongArray known;
+        private final AtomicLongArray granted;
+        private final long createdAt;
+        private final long generation;
+        private volatile CommandSender sender;
+
+        private Snapshot(CommandSender sender, DispatchTable table, long createdAt, long generation) {
+            int words = (table.size() + 63) >>> 6;
+            this.sender = sender;
+            this.table = table;
+            this.known = new AtomicLongArray(words);
+            this.granted = new AtomicLongArray(words);
+            this.createdAt = createdAt;
+            this.generation = generation;
+        }
+
+        /**
+         * @param id a node id of the table
+         * @return true if the sender has permission for that node
+         */
+        public boolean has(int id) {
+            int word = id >>> 6;
+            long bit = 1L << id;
+            if ((known.get(word) & bit) != 0) return (granted.get(word) & bit) != 0;
+
+            boolean allowed = table.node(id).hasPermission(sender);
+            if (allowed) granted.getAndAccumulate(word, bit, (a, b) -> a | b);
+            known.getAndAccumulate(word, bit, (a, b) -> a | b);
+            return allowed;
+        }
+
+        /**
+         * @param node a node, which does not need to be part of the table
+         * @return true if the sender has permission for that node
+         */
+        public boolean has(ExecutorNode<?> node) {
+            int id = table.idOf(node);
+            return id >= 0 ? has(id) : node.hasPermission(sender);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.lilbrocodes.commander.api.executor;
+
+import java.time.Duration;
+
+/**
+ * How often a sender may use a node, as a token bucket holding {@code burst} uses that refills one use every interval.
+ * A cooldown is a bucket holding a single use.
+ */
+@SuppressWarnings("unused")
+public final class RateLimit {
+    public static final RateLimit NONE = new RateLimit(0, 0);
+
+    private final int burst;
+    private final long intervalNanos;
+
+    private RateLimit(int burst, long intervalNanos) {
+        this.burst = burst;
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * Creates a cooldown, allowing one use and then none until it has passed.
+     *
+     * @param cooldown the time between two uses
+     * @return the limit
+     */
+    public static RateLimit cooldown(Duration cooldown) {
+        return cooldown.isZero() || cooldown.isNegative() ? NONE : new RateLimit(1, cooldown.toNanos());
+    }
+
+    /**
+     * Creates a token bucket, allowing {@code burst} uses in a row that refill evenly over {@code per}.
+     *
+     * @param burst how many uses a sender may make in a row
+     * @param per the time in which all uses refill
+     * @return the limit
+     */
+    public static RateLimit of(int burst, Duration per) {
+        if (burst <= 0 || per.isZero() || per.isNegative()) return NONE;
+        return new RateLimit(burst, Math.max(1, per.toNanos() / burst));
+    }
+
+    /**
+     * @return true if this limit never refuses a use
+     */
+    public boolean isUnlimited() {
+        return burst == 0;
+    }
+
+    /**
+     * @return how many uses a sender may make in a row
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * @return the time in which one use refills
+     */
+    public Duration getInterval() {
+        return Duration.ofNanos(intervalNanos);
+    }
+
+    long intervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * @return how far ahead of now a sender's bucket may be drained before uses are refused
+     */
+    long toleranceNanos() {
+        return intervalNanos * (burst - 1);
+    }
+
+    @Override
+    public String toString() {
+        return isUnlimited() ? "RateLimit[none]" : "RateLimit[" + burst + " per " + getInterval().multipliedBy(burst) + "]";
+    }
+}
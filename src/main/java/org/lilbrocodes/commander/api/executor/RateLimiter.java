@@ -0,0 +1,194 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.util.SenderKey;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enforces the {@link RateLimit}s of one node, per sender.
+ * <p>
+ * Senders are sorted into tiers by permission, the first tier whose permission a sender holds applies, every other sender gets the default limit.
+ * A tier with {@link RateLimit#NONE} exempts its senders.
+ * <p>
+ * Each sender's bucket is stored as the single time at which it will be full again, in one of several independently locked stripes keyed by
+ * {@link SenderKey}, so senders rarely contend with each other. Full buckets carry no information, so a stripe drops them
+ * whenever it has doubled in size since it last did, no sweeper thread is needed.
+ */
+@SuppressWarnings("unused")
+public final class RateLimiter {
+    private static final int STRIPES = 16;
+    private static final int MIN_PURGE = 32;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private RateLimit defaultLimit;
+    private String[] tierPermissions = new String[0];
+    private RateLimit[] tierLimits = new RateLimit[0];
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param defaultLimit the limit for senders outside of every tier
+     */
+    public RateLimiter(RateLimit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Sets the limit for senders outside of every tier.
+     *
+     * @param limit the limit
+     */
+    public void setDefault(RateLimit limit) {
+        this.defaultLimit = limit;
+    }
+
+    /**
+     * Adds a tier, or replaces the limit of an existing one. Tiers are checked in the order they were first added.
+     *
+     * @param permission the permission that puts a sender into the tier
+     * @param limit the limit of the tier
+     */
+    public void setTier(String permission, RateLimit limit) {
+        int index = Arrays.asList(tierPermissions).indexOf(permission);
+        if (index >= 0) {
+            RateLimit[] limits = tierLimits.clone();
+            limits[index] = limit;
+            tierLimits = limits;
+            return;
+        }
+
+        String[] permissions = Arrays.copyOf(tierPermissions, tierPermissions.length + 1);
+        RateLimit[] limits = Arrays.copyOf(tierLimits, tierLimits.length + 1);
+        permissions[permissions.length - 1] = permission;
+        limits[limits.length - 1] = limit;
+        tierPermissions = permissions;
+        tierLimits = limits;
+    }
+
+    /**
+     * Returns the limit that applies to a sender.
+     *
+     * @param sender the command sender
+     * @return the limit of the first tier the sender belongs to, or the default limit
+     */
+    public RateLimit limitFor(CommandSender sender) {
+        String[] permissions = tierPermissions;
+        RateLimit[] limits = tierLimits;
+        for (int i = 0; i < permissions.length; i++) {
+            if (sender.hasPermission(permissions[i])) return limits[i];
+        }
+        return defaultLimit;
+    }
+
+    /**
+     * Takes one use from the sender's bucket if it has one left.
+     *
+     * @param sender the command sender
+     * @return 0 if the use was granted, otherwise the nanoseconds until the next use would be
+     */
+    public long acquire(CommandSender sender) {
+        RateLimit limit = limitFor(sender);
+        if (limit.isUnlimited()) return 0;
+
+        Object key = SenderKey.of(sender);
+        long now = System.nanoTime();
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            long[] fullAt = stripe.buckets.get(key);
+            long start = fullAt == null || fullAt[0] - now < 0 ? now : fullAt[0];
+            long wait = start - limit.toleranceNanos() - now;
+            if (wait > 0) return wait;
+
+            if (fullAt == null) {
+                stripe.purge(now);
+                stripe.buckets.put(key, new long[]{start + limit.intervalNanos()});
+            } else {
+                fullAt[0] = start + limit.intervalNanos();
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Returns how long the sender has to wait before the next use, without taking one.
+     *
+     * @param sender the command sender
+     * @return the nanoseconds until the next use would be granted, or 0 if it would be now
+     */
+    public long remaining(CommandSender sender) {
+        RateLimit limit = limitFor(sender);
+        if (limit.isUnlimited()) return 0;
+
+        Object key = SenderKey.of(sender);
+        long now = System.nanoTime();
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            long[] fullAt = stripe.buckets.get(key);
+            return fullAt == null ? 0 : Math.max(0, fullAt[0] - limit.toleranceNanos() - now);
+        }
+    }
+
+    /**
+     * Refills the bucket of one sender.
+     *
+     * @param sender the command sender
+     */
+    public void reset(CommandSender sender) {
+        Object key = SenderKey.of(sender);
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.buckets.remove(key);
+        }
+    }
+
+    /**
+     * Refills the bucket of every sender.
+     */
+    public void resetAll() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.buckets.clear();
+                stripe.purgeAt = MIN_PURGE;
+            }
+        }
+    }
+
+    /**
+     * @return how many senders currently have a bucket that is not full, counting some whose bucket refilled since
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(Object key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static final class Stripe {
+        final Map<Object, long[]> buckets = new HashMap<>();
+        int purgeAt = MIN_PURGE;
+
+        /**
+         * Drops the buckets that are full again, once the stripe has grown enough to make the scan worth it.
+         */
+        void purge(long now) {
+            if (buckets.size() < purgeAt) return;
+
+            buckets.values().removeIf(fullAt -> fullAt[0] - now <= 0);
+            purgeAt = Math.max(MIN_PURGE, buckets.size() * 2);
+        }
+    }
+}
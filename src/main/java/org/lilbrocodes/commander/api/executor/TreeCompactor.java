@@ -0,0 +1,157 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.lilbrocodes.commander.api.argument.CompiledParameters;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.util.StringTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Shrinks large generated command trees, e.g. one node per warp, kit or region, by sharing everything that nodes have in common.
+ * <ul>
+ *     <li>Custom permissions are replaced by one shared instance per distinct string. Names, plugin names and default permissions
+ *     are already interned when a node is created.</li>
+ *     <li>Parameters with the same definition, see {@link TypedParameter#sameDefinition(TypedParameter)}, are replaced by one shared instance,
+ *     and nodes with the same parameters share one immutable list and one compiled parser chain.</li>
+ *     <li>Descriptions move into a {@link StringTable} and are only decoded when {@link ExecutorNode#getDescription()} is called, e.g. by help.</li>
+ * </ul>
+ * Compacting freezes the tree, since shared lists and parameters must not change afterwards. Nodes that are already frozen,
+ * e.g. taken over from an earlier version of the tree, are left as they are. A parameter that is replaced keeps working,
+ * but only the shared instance is used for parsing and completion, so invalidate suggestions through {@link CommandActionNode#getArguments()}.
+ * <p>
+ * One compactor can be used for every version of a tree, so reloaded trees share with the nodes that were compacted before.
+ * The shared strings, parameters and parser chains are collected again from the trees still in use every time a tree is compacted,
+ * so those of nodes removed by a reload are released by the first compaction after the old version is no longer referenced.
+ * The description table only grows, descriptions of removed nodes stay in it until the table is discarded. Trees that are reloaded
+ * often with changing descriptions can keep them as strings instead, see {@link #TreeCompactor(StringTable)}.
+ * Use {@link TreeFootprint} to see the effect on a tree.
+ */
+@SuppressWarnings("unused")
+public final class TreeCompactor {
+    private final StringTable descriptions;
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<Definition, TypedParameter> parameters = new HashMap<>();
+    private final Map<List<TypedParameter>, Chain> chains = new HashMap<>();
+    private final Map<ExecutorNode<?>, Boolean> roots = new WeakHashMap<>(); // Every tree compacted, until it is collected
+
+    /**
+     * Creates a compactor with its own description table.
+     */
+    public TreeCompactor() {
+        this(new StringTable());
+    }
+
+    /**
+     * Creates a compactor that moves descriptions into the given table, e.g. one shared by the commands of a plugin.
+     *
+     * @param descriptions the description table, or null to keep descriptions as strings
+     */
+    public TreeCompactor(StringTable descriptions) {
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * @return the table descriptions are moved into, or null if they are kept as strings
+     */
+    public StringTable getDescriptions() {
+        return descriptions;
+    }
+
+    /**
+     * Compacts and freezes every node of a tree that is not frozen yet.
+     *
+     * @param root the root of the tree
+     */
+    public synchronized void compact(ExecutorNode<?> root) {
+        strings.clear();
+        parameters.clear();
+        chains.clear();
+        roots.remove(root);
+        for (ExecutorNode<?> previous : roots.keySet()) {
+            visit(previous);
+        }
+
+        visit(root);
+        root.freeze();
+        roots.put(root, Boolean.TRUE);
+    }
+
+    private void visit(ExecutorNode<?> node) {
+        if (node.isFrozen()) {
+            remember(node);
+        } else {
+            node.compact(this::intern, descriptions);
+            if (node instanceof CommandActionNode action) {
+                Chain chain = chain(action.getArguments());
+                action.compact(chain.parameters, chain.compiled);
+            }
+        }
+        if (node instanceof CommandGroupNode group) {
+            for (ExecutorNode<?> child : group.childMap().values()) {
+                visit(child);
+            }
+        }
+    }
+
+    /**
+     * Offers what a frozen node uses for sharing, without changing the node.
+     */
+    private void remember(ExecutorNode<?> node) {
+        intern(node.getPermission());
+        if (node instanceof CommandActionNode action) {
+            List<TypedParameter> arguments = List.copyOf(action.getArguments());
+            for (TypedParameter parameter : arguments) {
+                parameters.putIfAbsent(new Definition(parameter), parameter);
+            }
+            chains.putIfAbsent(arguments, new Chain(arguments, action.compiled()));
+        }
+    }
+
+    private String intern(String value) {
+        if (value == null) return null;
+        String shared = strings.putIfAbsent(value, value);
+        return shared == null ? value : shared;
+    }
+
+    /**
+     * Returns the shared list of shared parameters equal to the given list, compiling its parser chain the first time.
+     */
+    private Chain chain(List<TypedParameter> arguments) {
+        List<TypedParameter> shared = new ArrayList<>(arguments.size());
+        for (TypedParameter parameter : arguments) {
+            TypedParameter existing = parameters.putIfAbsent(new Definition(parameter), parameter);
+            shared.add(existing == null ? parameter : existing);
+        }
+
+        // The key holds the shared parameters, whose equals is identity, so equal definitions find the same chain
+        Chain chain = chains.get(shared);
+        if (chain == null) {
+            List<TypedParameter> list = List.copyOf(shared);
+            chain = new Chain(list, CompiledParameters.compile(list));
+            chains.put(list, chain);
+        }
+        return chain;
+    }
+
+    /**
+     * Wraps a parameter so maps compare it by definition instead of identity.
+     */
+    private record Definition(TypedParameter parameter) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Definition definition && parameter.sameDefinition(definition.parameter);
+        }
+
+        @Override
+        public int hashCode() {
+            return parameter.definitionHash();
+        }
+    }
+
+    private record Chain(List<TypedParameter> parameters, CompiledParameters compiled) {
+    }
+}
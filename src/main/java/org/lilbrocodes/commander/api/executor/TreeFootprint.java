@@ -0,0 +1,171 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.lilbrocodes.commander.api.argument.CompiledParameters;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.util.StringTable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An estimate of the heap a command tree takes up, to compare a tree before and after {@link TreeCompactor} or between two ways of generating it.
+ * <p>
+ * Sizes are computed from the fields of each object assuming a 64-bit JVM with compressed references, which is the default below 32 GB of heap.
+ * Shared objects are counted once. Executors, suggestion suppliers, metrics, rate limiters and derived indexes such as
+ * the completion index of a group are not counted, and compiled parsers are estimated at a fixed size each.
+ *
+ * @param nodes the number of distinct nodes
+ * @param groups how many of them are {@link CommandGroupNode}s
+ * @param parameters the number of parameters over all nodes
+ * @param distinctParameters the number of distinct parameter instances
+ * @param distinctParameterLists the number of distinct parameter lists
+ * @param nodeBytes the nodes themselves
+ * @param childBytes the child storage of the groups
+ * @param parameterBytes the parameter lists, parameters and compiled parser chains
+ * @param stringBytes the names, plugin names, permissions and parameter names
+ * @param descriptionBytes the descriptions, either as strings or as the string tables holding them
+ */
+public record TreeFootprint(int nodes, int groups, int parameters, int distinctParameters, int distinctParameterLists,
+                            long nodeBytes, long childBytes, long parameterBytes, long stringBytes, long descriptionBytes) {
+    private static final int PARSER_BYTES = 24;
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long size = 12; // object header
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) size += fieldSize(field.getType());
+                }
+            }
+            return align(size);
+        }
+    };
+
+    /**
+     * Walks a tree and estimates its footprint.
+     *
+     * @param root the root of the tree
+     * @return the estimate
+     */
+    public static TreeFootprint measure(ExecutorNode<?> root) {
+        Counter counter = new Counter();
+        counter.visit(root);
+        return new TreeFootprint(counter.nodes, counter.groups, counter.parameters, counter.distinctParameters, counter.distinctLists,
+                counter.nodeBytes, counter.childBytes, counter.parameterBytes, counter.stringBytes, counter.descriptionBytes);
+    }
+
+    /**
+     * @return the estimated size of the whole tree in bytes
+     */
+    public long totalBytes() {
+        return nodeBytes + childBytes + parameterBytes + stringBytes + descriptionBytes;
+    }
+
+    /**
+     * @return a one line summary
+     */
+    public String format() {
+        return String.format("%d nodes (%d groups), %d parameters (%d distinct in %d lists), ~%s: nodes %s, children %s, parameters %s, strings %s, descriptions %s",
+                nodes, groups, parameters, distinctParameters, distinctParameterLists, kib(totalBytes()),
+                kib(nodeBytes), kib(childBytes), kib(parameterBytes), kib(stringBytes), kib(descriptionBytes));
+    }
+
+    private static String kib(long bytes) {
+        return String.format("%.1f KiB", bytes / 1024.0);
+    }
+
+    private static long shallow(Object value) {
+        return SHALLOW_SIZES.get(value.getClass());
+    }
+
+    private static long array(long contentBytes) {
+        return align(16 + contentBytes);
+    }
+
+    private static long string(String value) {
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return shallow(value) + array(latin1 ? value.length() : value.length() * 2L);
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        if (type == byte.class || type == boolean.class) return 1;
+        return 4; // compressed reference
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Counts every object once, by identity.
+     */
+    private static final class Counter {
+        final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        int nodes;
+        int groups;
+        int parameters;
+        int distinctParameters;
+        int distinctLists;
+        long nodeBytes;
+        long childBytes;
+        long parameterBytes;
+        long stringBytes;
+        long descriptionBytes;
+
+        void visit(ExecutorNode<?> node) {
+            if (!seen.add(node)) return;
+
+            nodes++;
+            nodeBytes += shallow(node);
+            stringBytes += string(node.getName()) + string(node.getPluginName()) + string(node.getEffectivePermission());
+
+            StringTable table = node.descriptionTable();
+            if (table != null) {
+                if (seen.add(table)) descriptionBytes += table.footprint();
+            } else {
+                descriptionBytes += string(node.getDescription());
+            }
+
+            if (node instanceof CommandActionNode action) {
+                parameters(action.getArguments(), action.compiled());
+            }
+            if (node instanceof CommandGroupNode group) {
+                groups++;
+                ChildMap children = group.childMap();
+                childBytes += shallow(children) + array(4L * children.capacity());
+                for (ExecutorNode<?> child : children.values()) {
+                    visit(child);
+                }
+            }
+        }
+
+        private void parameters(List<TypedParameter> list, CompiledParameters compiled) {
+            parameters += list.size();
+            if (seen.add(list)) {
+                distinctLists++;
+                parameterBytes += shallow(list) + array(4L * list.size());
+            }
+            if (seen.add(compiled)) {
+                parameterBytes += shallow(compiled) + 2 * array(4L * compiled.size()) + (long) PARSER_BYTES * compiled.size();
+            }
+            for (TypedParameter parameter : list) {
+                if (!seen.add(parameter)) continue;
+
+                distinctParameters++;
+                parameterBytes += shallow(parameter);
+                stringBytes += string(parameter.name());
+            }
+        }
+
+        private long string(String value) {
+            return value != null && seen.add(value) ? TreeFootprint.string(value) : 0;
+        }
+    }
+}
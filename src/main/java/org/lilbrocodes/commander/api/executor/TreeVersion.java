@@ -0,0 +1,83 @@
+package org.lilbrocodes.commander.api.executor;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+
+/**
+ * One published version of a command tree, together with the structures derived from it.
+ * <p>
+ * A version never changes once built. Dispatch, completion and help read the version that is current when they start
+ * and keep using it until they finish, so replacing the tree through {@link VersionedTree} never affects work in flight.
+ */
+@SuppressWarnings("unused")
+public final class TreeVersion {
+    private final long version;
+    private final ExecutorNode<CommandGroupNode> root;
+    private final DispatchTable dispatchTable;
+    private final PermissionCache permissionCache;
+    private volatile CommandBatch batch;
+
+    /**
+     * Wraps an already prepared tree.
+     *
+     * @param version the version number, higher numbers replace lower ones
+     * @param root the root node
+     * @param dispatchTable the flattened tree, or null to walk the tree directly
+     * @param permissionCache the permission cache of the table, or null to check every node directly
+     */
+    public TreeVersion(long version, ExecutorNode<CommandGroupNode> root, DispatchTable dispatchTable, PermissionCache permissionCache) {
+        this.version = version;
+        this.root = root;
+        this.dispatchTable = dispatchTable;
+        this.permissionCache = permissionCache;
+    }
+
+    /**
+     * Compiles, freezes and flattens a tree.
+     * Nodes taken over from an earlier version are already frozen and compiled, so only the new parts of the tree are compiled again.
+     * Any exception thrown by a node's {@link ExecutorNode#compile()} propagates, leaving nothing published.
+     *
+     * @param version the version number, higher numbers replace lower ones
+     * @param root the root node
+     * @return the prepared version
+     */
+    public static TreeVersion build(long version, ExecutorNode<CommandGroupNode> root) {
+        root.compile();
+        DispatchTable table = DispatchTable.of(root);
+        return new TreeVersion(version, root, table, new PermissionCache(table));
+    }
+
+    public long getVersion() { return version; }
+    public ExecutorNode<CommandGroupNode> getRoot() { return root; }
+    public DispatchTable getDispatchTable() { return dispatchTable; }
+    public PermissionCache getPermissionCache() { return permissionCache; }
+
+    /**
+     * @return the batch runner of this version, created on first use
+     * @throws IllegalStateException if this version has no dispatch table
+     */
+    public CommandBatch batch() {
+        CommandBatch current = batch;
+        if (current == null) {
+            if (dispatchTable == null) throw new IllegalStateException("Batches need a frozen tree with a dispatch table");
+            current = new CommandBatch(dispatchTable);
+            batch = current;
+        }
+        return current;
+    }
+
+    /**
+     * Dispatches a command through this version, using the dispatch table if there is one.
+     *
+     * @param sender the command sender
+     * @param args the arguments passed to the root node
+     */
+    public void dispatch(CommandSender sender, List<String> args) {
+        if (dispatchTable != null) {
+            dispatchTable.dispatch(sender, args);
+        } else {
+            root.execute(sender, args);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.lilbrocodes.commander.api.executor;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link TreeVersion} of a command and replaces it atomically.
+ * <p>
+ * Readers take the current version with a single volatile read and never lock. A new version is built completely before it is published,
+ * so readers see either the old or the new tree, never a mix. If two versions are published concurrently, the higher version number wins.
+ */
+@SuppressWarnings("unused")
+public final class VersionedTree {
+    private final AtomicReference<TreeVersion> current;
+
+    /**
+     * Creates a holder.
+     *
+     * @param initial the first version
+     */
+    public VersionedTree(TreeVersion initial) {
+        this.current = new AtomicReference<>(initial);
+    }
+
+    /**
+     * @return the current version
+     */
+    public TreeVersion current() {
+        return current.get();
+    }
+
+    /**
+     * Replaces the current version, unless a version with a higher or equal number was published in the meantime.
+     *
+     * @param next the new version
+     * @return true if {@code next} is now the current version
+     */
+    public boolean publish(TreeVersion next) {
+        TreeVersion previous;
+        do {
+            previous = current.get();
+            if (previous != null && previous.getVersion() >= next.getVersion()) return false;
+        } while (!current.compareAndSet(previous, next));
+        return true;
+    }
+}
@@ -0,0 +1,184 @@
+package org.lilbrocodes.commander.api.graph;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandActionNode;
+import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.CommandHybridNode;
+import org.lilbrocodes.commander.api.executor.ExecutorNode;
+import org.lilbrocodes.commander.api.wrapper.HelpRenderer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Converts a command tree into the client's command graph, so the client can parse, highlight and complete the static parts
+ * of a command by itself instead of asking the server on every Tab press.
+ * <p>
+ * Groups and subcommands become literals, and typed parameters become arguments with the matching {@link ParserType}.
+ * Booleans and numbers are completed and validated by the client. Enums with few constants become one literal per constant.
+ * Only parameters with server-side suggestions, such as warps, players or custom types, are marked {@link GraphNode#askServer()}.
+ * <p>
+ * The export is a pure transform of the tree. Nodes the sender cannot use are left out, the same way the server hides vanilla commands.
+ */
+@SuppressWarnings("unused")
+public final class CommandGraphExporter {
+    private static final int SHORT_MIN = Short.MIN_VALUE;
+    private static final int SHORT_MAX = Short.MAX_VALUE;
+
+    private int maxEnumLiterals = 32;
+    private boolean builtInHelp = true;
+
+    /**
+     * Sets how many constants an enum may have to be exported as literals, larger enums are exported as words completed by the server.
+     *
+     * @param maxEnumLiterals the maximum number of constants, 0 to never export enums as literals
+     * @return this exporter
+     */
+    public CommandGraphExporter withMaxEnumLiterals(int maxEnumLiterals) {
+        this.maxEnumLiterals = maxEnumLiterals;
+        return this;
+    }
+
+    /**
+     * Leaves out the built-in {@code help}, {@code help tree} and {@code help stats} subcommands.
+     *
+     * @return this exporter
+     */
+    public CommandGraphExporter withoutBuiltInHelp() {
+        this.builtInHelp = false;
+        return this;
+    }
+
+    /**
+     * Exports the command as seen by a sender.
+     *
+     * @param root the root node of the command
+     * @param label the command label, e.g. "warp"
+     * @param sender the sender whose permissions decide which nodes are visible
+     * @return the literal for the label, or null if the sender cannot use the command
+     */
+    public GraphNode export(ExecutorNode<?> root, String label, CommandSender sender) {
+        return export(root, label, node -> node.hasPermission(sender));
+    }
+
+    /**
+     * Exports the command, keeping only the nodes accepted by {@code visible}.
+     *
+     * @param root the root node of the command
+     * @param label the command label, e.g. "warp"
+     * @param visible decides which nodes are visible, checked for every node including the root
+     * @return the literal for the label, or null if the root is not visible
+     */
+    public GraphNode export(ExecutorNode<?> root, String label, Predicate<ExecutorNode<?>> visible) {
+        if (!visible.test(root)) return null;
+
+        List<GraphNode> extra = Collections.emptyList();
+        if (builtInHelp && root instanceof CommandGroupNode group && new HelpRenderer(group, null).isActive()) {
+            List<GraphNode> helpChildren = new ArrayList<>(2);
+            helpChildren.add(literal("tree", true, List.of()));
+            if (root.getMetrics() != null) helpChildren.add(literal("stats", true, List.of()));
+            extra = List.of(literal("help", true, helpChildren));
+        }
+        return node(root, label, visible, extra);
+    }
+
+    /**
+     * Exports several commands under one root, as sent to the client.
+     *
+     * @param commands the commands to export, by label
+     * @param sender the sender whose permissions decide which nodes are visible
+     * @return the root node
+     */
+    public GraphNode exportAll(Map<String, ? extends ExecutorNode<?>> commands, CommandSender sender) {
+        List<GraphNode> children = new ArrayList<>(commands.size());
+        for (Map.Entry<String, ? extends ExecutorNode<?>> command : commands.entrySet()) {
+            GraphNode node = export(command.getValue(), command.getKey(), sender);
+            if (node != null) children.add(node);
+        }
+        return new GraphNode(GraphNode.Kind.ROOT, "", null, null, null, false, false, children);
+    }
+
+    private GraphNode node(ExecutorNode<?> node, String name, Predicate<ExecutorNode<?>> visible, List<GraphNode> extra) {
+        if (node instanceof CommandGroupNode group) {
+            List<GraphNode> children = new ArrayList<>(group.getChildren().size() + extra.size());
+            for (ExecutorNode<?> child : group.getChildren()) {
+                if (visible.test(child)) children.add(node(child, child.getName(), visible, Collections.emptyList()));
+            }
+            children.addAll(extra);
+            return literal(name, group instanceof CommandHybridNode, children);
+        }
+
+        if (node instanceof CommandActionNode action) {
+            List<TypedParameter> parameters = action.getArguments();
+            return literal(name, parameters.isEmpty(), parameters.isEmpty() ? List.of() : parameters(parameters, 0));
+        }
+
+        // Custom node types take arbitrary arguments and complete them on the server
+        return literal(name, true, List.of(argument("args", ParserType.GREEDY_PHRASE, null, null, true, true, List.of())));
+    }
+
+    /**
+     * Returns the nodes of the parameter at {@code index}, each followed by the nodes of the remaining parameters.
+     */
+    private List<GraphNode> parameters(List<TypedParameter> parameters, int index) {
+        TypedParameter parameter = parameters.get(index);
+        boolean last = index == parameters.size() - 1;
+        List<GraphNode> next = last ? List.of() : parameters(parameters, index + 1);
+        boolean ask = parameter.hasSuggestions();
+
+        return switch (parameter.type()) {
+            case STRING -> List.of(argument(parameter.name(), ParserType.WORD, null, null, last, ask, next));
+            case QUOTED_STRING -> List.of(argument(parameter.name(), ParserType.QUOTABLE_PHRASE, null, null, last, ask, next));
+            case GREEDY_STRING -> List.of(argument(parameter.name(), ParserType.GREEDY_PHRASE, null, null, last, ask, next));
+            case SHORT -> List.of(argument(parameter.name(), ParserType.INTEGER, SHORT_MIN, SHORT_MAX, last, ask, next));
+            case INT -> List.of(argument(parameter.name(), ParserType.INTEGER, null, null, last, ask, next));
+            case LONG -> List.of(argument(parameter.name(), ParserType.LONG, null, null, last, ask, next));
+            case DOUBLE -> List.of(argument(parameter.name(), ParserType.DOUBLE, null, null, last, ask, next));
+            case FLOAT -> List.of(argument(parameter.name(), ParserType.FLOAT, null, null, last, ask, next));
+            case BOOL -> List.of(argument(parameter.name(), ParserType.BOOL, null, null, last, false, next));
+            case ENUM -> enumNodes(parameter, last, next);
+            // The client reads words only up to a comma, so a list is left to the server unless nothing follows it
+            case INT_LIST, LONG_LIST, DOUBLE_LIST, ENUM_SET -> List.of(argument(parameter.name(), last ? ParserType.GREEDY_PHRASE : ParserType.WORD, null, null, last, ask, next));
+            // The client's range parsers accept open bounds such as ..5, which Commander rejects, so ranges are left to the server
+            case INT_RANGE, LONG_RANGE, DOUBLE_RANGE -> List.of(argument(parameter.name(), ParserType.WORD, null, null, last, ask, next));
+            case CUSTOM -> customNodes(parameter, last, next);
+        };
+    }
+
+    private List<GraphNode> enumNodes(TypedParameter parameter, boolean last, List<GraphNode> next) {
+        Class<? extends Enum<?>> enumClass = parameter.enumClass();
+        Enum<?>[] constants = enumClass != null ? enumClass.getEnumConstants() : null;
+        if (constants == null || constants.length == 0 || constants.length > maxEnumLiterals) {
+            return List.of(argument(parameter.name(), ParserType.WORD, null, null, last, true, next));
+        }
+
+        // Every constant leads to the same shared nodes for the remaining parameters
+        List<GraphNode> literals = new ArrayList<>(constants.length);
+        for (Enum<?> constant : constants) {
+            literals.add(literal(constant.name(), last, next));
+        }
+        return literals;
+    }
+
+    private List<GraphNode> customNodes(TypedParameter parameter, boolean last, List<GraphNode> next) {
+        int arity = parameter.arity();
+        List<GraphNode> chain = next;
+        for (int i = arity - 1; i >= 0; i--) {
+            String name = arity == 1 ? parameter.name() : parameter.name() + (i + 1);
+            chain = List.of(argument(name, ParserType.WORD, null, null, last && i == arity - 1, true, chain));
+        }
+        return chain;
+    }
+
+    private static GraphNode literal(String name, boolean executable, List<GraphNode> children) {
+        return new GraphNode(GraphNode.Kind.LITERAL, name, null, null, null, executable, false, children);
+    }
+
+    private static GraphNode argument(String name, ParserType parser, Number min, Number max, boolean executable, boolean askServer, List<GraphNode> children) {
+        return new GraphNode(GraphNode.Kind.ARGUMENT, name, parser, min, max, executable, askServer, children);
+    }
+}
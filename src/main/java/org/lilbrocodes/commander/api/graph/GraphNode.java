@@ -0,0 +1,76 @@
+package org.lilbrocodes.commander.api.graph;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node of an exported command graph, in the shape of the client's Brigadier node tree.
+ * <p>
+ * Nodes are immutable and may be shared by several parents, e.g. the parameters following an enum that was exported as one literal per constant.
+ * The graph is therefore a directed acyclic graph, which Brigadier supports by adding the same node instance to several parents.
+ *
+ * @param kind whether this is the root, a literal or an argument
+ * @param name the literal text, or the argument name shown by the client
+ * @param parser the parser of an argument, null for the root and literals
+ * @param min the inclusive lower bound of a numeric argument, or null if unbounded
+ * @param max the inclusive upper bound of a numeric argument, or null if unbounded
+ * @param executable whether the command may end at this node
+ * @param askServer whether the client has to request suggestions for this argument from the server
+ * @param children the nodes that may follow this one
+ */
+public record GraphNode(Kind kind, String name, ParserType parser, Number min, Number max,
+                        boolean executable, boolean askServer, List<GraphNode> children) {
+
+    public enum Kind {
+        ROOT,    // The nameless root of the graph, children are the command labels
+        LITERAL, // A fixed word
+        ARGUMENT // A value read by a parser
+    }
+
+    public GraphNode {
+        children = Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @return the number of distinct nodes reachable from this one, including itself
+     */
+    public int count() {
+        return count(this, new IdentityHashMap<>());
+    }
+
+    private static int count(GraphNode node, Map<GraphNode, Boolean> seen) {
+        if (seen.put(node, Boolean.TRUE) != null) return 0;
+
+        int count = 1;
+        for (GraphNode child : node.children) {
+            count += count(child, seen);
+        }
+        return count;
+    }
+
+    /**
+     * Converts this graph into another node model, e.g. the server's Brigadier nodes or a fake dispatcher in tests.
+     * Shared nodes are converted once and added to each of their parents.
+     *
+     * @param sink the target model
+     * @param <N> the node type of the target model
+     * @return the converted node
+     */
+    public <N> N writeTo(GraphSink<N> sink) {
+        return writeTo(sink, new IdentityHashMap<>());
+    }
+
+    private <N> N writeTo(GraphSink<N> sink, Map<GraphNode, N> written) {
+        N existing = written.get(this);
+        if (existing != null) return existing;
+
+        N node = sink.create(this);
+        written.put(this, node);
+        for (GraphNode child : children) {
+            sink.addChild(node, child.writeTo(sink, written));
+        }
+        return node;
+    }
+}
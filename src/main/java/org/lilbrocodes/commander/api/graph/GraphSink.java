@@ -0,0 +1,27 @@
+package org.lilbrocodes.commander.api.graph;
+
+/**
+ * Builds a concrete node tree from an exported {@link GraphNode} graph, see {@link GraphNode#writeTo(GraphSink)}.
+ * An implementation for the server's Brigadier dispatcher creates its literal and argument builders here,
+ * with executable nodes forwarding to Commander and {@link GraphNode#askServer()} arguments suggesting through the tab completer.
+ *
+ * @param <N> the node type of the target model
+ */
+public interface GraphSink<N> {
+
+    /**
+     * Creates the target node for a graph node, without its children.
+     *
+     * @param node the graph node
+     * @return the target node
+     */
+    N create(GraphNode node);
+
+    /**
+     * Adds a child to a target node. A child may be added to several parents if it is shared in the graph.
+     *
+     * @param parent the parent created earlier
+     * @param child the child
+     */
+    void addChild(N parent, N child);
+}
@@ -0,0 +1,41 @@
+package org.lilbrocodes.commander.api.graph;
+
+/**
+ * The argument parsers of the client's command graph that Commander's parameter types map to.
+ * Each one is resolved by the client itself, only the suggestions of dynamic parameters still go back to the server.
+ */
+@SuppressWarnings("unused")
+public enum ParserType {
+    BOOL("brigadier:bool", null),                       // true or false
+    INTEGER("brigadier:integer", null),                 // 32-bit integer, optionally bounded
+    LONG("brigadier:long", null),                       // 64-bit integer
+    FLOAT("brigadier:float", null),                     // 32-bit floating point number
+    DOUBLE("brigadier:double", null),                   // 64-bit floating point number
+    INT_RANGE("minecraft:int_range", null),             // A range of integers such as 1..5, or a single integer
+    FLOAT_RANGE("minecraft:float_range", null),         // A range of numbers such as 0.5..2, or a single number
+    WORD("brigadier:string", "single_word"),            // A single word without spaces
+    QUOTABLE_PHRASE("brigadier:string", "quotable_phrase"), // A word, or a quoted phrase that may contain spaces
+    GREEDY_PHRASE("brigadier:string", "greedy_phrase"); // Everything up to the end of the line
+
+    private final String id;
+    private final String stringType;
+
+    ParserType(String id, String stringType) {
+        this.id = id;
+        this.stringType = stringType;
+    }
+
+    /**
+     * @return the registry id of the parser, e.g. "brigadier:integer"
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * @return the string mode of {@code brigadier:string} parsers, null for every other parser
+     */
+    public String stringType() {
+        return stringType;
+    }
+}
@@ -0,0 +1,15 @@
+package org.lilbrocodes.commander.api.metrics;
+
+/**
+ * An immutable view of a {@link LatencyHistogram}, all values are in nanoseconds.
+ *
+ * @param count the number of recorded values
+ * @param mean the mean of the recorded values
+ * @param p50 the median
+ * @param p90 the 90th percentile
+ * @param p99 the 99th percentile
+ * @param p999 the 99.9th percentile
+ * @param max the largest recorded value
+ */
+public record HistogramSnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+}
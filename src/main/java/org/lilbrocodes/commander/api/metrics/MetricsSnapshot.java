@@ -0,0 +1,64 @@
+package org.lilbrocodes.commander.api.metrics;
+
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.ExecutorNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of the {@link NodeMetrics} of one node.
+ *
+ * @param path the command path of the node
+ * @param invocations how often the node was dispatched to
+ * @param permissionDenials how often a sender was refused for lacking permission
+ * @param rateLimited how often a sender was refused by the node's rate limit
+ * @param missingSubcommands how often a group was called without a subcommand
+ * @param unknownSubcommands how often a group was called with an unknown subcommand
+ * @param executorErrors how often the executor threw
+ * @param parseFailures the number of argument parse failures, by kind
+ * @param parseTime the time spent parsing arguments
+ * @param executeTime the time spent in the executor
+ */
+public record MetricsSnapshot(String path, long invocations, long permissionDenials, long rateLimited,
+                              long missingSubcommands, long unknownSubcommands, long executorErrors,
+                              Map<ArgumentError, Long> parseFailures,
+                              HistogramSnapshot parseTime, HistogramSnapshot executeTime) {
+
+    /**
+     * @return the total number of argument parse failures
+     */
+    public long totalParseFailures() {
+        long total = 0;
+        for (long count : parseFailures.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Collects snapshots for every node in a tree that has metrics enabled, depth first.
+     *
+     * @param root the root of the tree
+     * @param label the label to prefix paths with, usually the command name
+     * @return the snapshots
+     */
+    public static List<MetricsSnapshot> collect(ExecutorNode<?> root, String label) {
+        List<MetricsSnapshot> snapshots = new ArrayList<>();
+        collect(root, label, snapshots);
+        return snapshots;
+    }
+
+    private static void collect(ExecutorNode<?> node, String path, List<MetricsSnapshot> out) {
+        NodeMetrics metrics = node.getMetrics();
+        if (metrics != null) out.add(metrics.snapshot(path));
+
+        if (node instanceof CommandGroupNode group) {
+            for (ExecutorNode<?> child : group.getChildren()) {
+                collect(child, path + " " + child.getName(), out);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.lilbrocodes.commander.api.metrics;
+
+import org.lilbrocodes.commander.api.argument.ArgumentError;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation counters and latency histograms for a single node.
+ * Counters are {@link LongAdder}s, so recording from several threads at once does not contend on a single cache line.
+ */
+@SuppressWarnings("unused")
+public final class NodeMetrics {
+    private static final ArgumentError[] ERRORS = ArgumentError.values();
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder permissionDenials = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder missingSubcommands = new LongAdder();
+    private final LongAdder unknownSubcommands = new LongAdder();
+    private final LongAdder executorErrors = new LongAdder();
+    private final LongAdder[] parseFailures = new LongAdder[ERRORS.length];
+    private final LatencyHistogram parseTime = new LatencyHistogram();
+    private final LatencyHistogram executeTime = new LatencyHistogram();
+
+    public NodeMetrics() {
+        for (int i = 0; i < parseFailures.length; i++) {
+            parseFailures[i] = new LongAdder();
+        }
+    }
+
+    public void recordInvocation() { invocations.increment(); }
+    public void recordPermissionDenied() { permissionDenials.increment(); }
+    public void recordRateLimited() { rateLimited.increment(); }
+    public void recordMissingSubcommand() { missingSubcommands.increment(); }
+    public void recordUnknownSubcommand() { unknownSubcommands.increment(); }
+    public void recordExecutorError() { executorErrors.increment(); }
+    public void recordParseFailure(ArgumentError error) { parseFailures[error.ordinal()].increment(); }
+    public void recordParseTime(long nanos) { parseTime.record(nanos); }
+    public void recordExecuteTime(long nanos) { executeTime.record(nanos); }
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public void reset() {
+        invocations.reset();
+        permissionDenials.reset();
+        rateLimited.reset();
+        missingSubcommands.reset();
+        unknownSubcommands.reset();
+        executorErrors.reset();
+        for (LongAdder failures : parseFailures) {
+            failures.reset();
+        }
+        parseTime.reset();
+        executeTime.reset();
+    }
+
+    /**
+     * Copies the current values into an immutable snapshot.
+     *
+     * @param path the command path of the node, used to label the snapshot
+     * @return the snapshot
+     */
+    public MetricsSnapshot snapshot(String path) {
+        Map<ArgumentError, Long> failures = new EnumMap<>(ArgumentError.class);
+        for (ArgumentError error : ERRORS) {
+            long count = parseFailures[error.ordinal()].sum();
+            if (count > 0) failures.put(error, count);
+        }
+
+        return new MetricsSnapshot(
+                path,
+                invocations.sum(),
+                permissionDenials.sum(),
+                rateLimited.sum(),
+                missingSubcommands.sum(),
+                unknownSubcommands.sum(),
+                executorErrors.sum(),
+                failures,
+                parseTime.snapshot(),
+                executeTime.snapshot()
+        );
+    }
+}
@@ -0,0 +1,229 @@
+package org.lilbrocodes.commander.api.replay;
+
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.lilbrocodes.commander.api.metrics.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Replays recorded traffic against a command without a server, for capacity planning and for comparing a tree before and after a change.
+ * <p>
+ * Every anonymized sender of the recording becomes a headless sender that swallows its messages. Senders are spread across the threads,
+ * all requests of one sender run on the same thread in their recorded order, so cooldowns and completion caches behave as they did live.
+ * Requests are paced to their recorded offsets divided by the speed, or sent back to back when replaying as fast as possible.
+ * <p>
+ * Latency and allocation are measured on the replaying threads around each request. Work that executors or completions hand off
+ * to other threads is not included.
+ */
+@SuppressWarnings("unused")
+public final class ReplayEngine {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+    private static final long START_DELAY_NANOS = 10_000_000L;
+
+    private final CommandExecutor executor;
+    private final TabCompleter completer;
+    private double speed = 1;
+    private int threads = 1;
+    private Predicate<String> permissions = permission -> true;
+
+    /**
+     * Creates an engine that replays at the original speed on one thread, with every permission granted.
+     *
+     * @param executor the executor to send commands to
+     * @param completer the completer to send completion requests to, or null to skip them
+     */
+    public ReplayEngine(CommandExecutor executor, TabCompleter completer) {
+        this.executor = executor;
+        this.completer = completer;
+    }
+
+    /**
+     * Sets how much faster than recorded to replay, and returns this engine for chaining.
+     *
+     * @param speed the multiple of the original speed, e.g. 2 for twice as fast, or 0 to replay as fast as possible
+     * @return this engine
+     */
+    public ReplayEngine withSpeed(double speed) {
+        if (speed < 0) throw new IllegalArgumentException("Speed must not be negative: " + speed);
+        this.speed = speed;
+        return this;
+    }
+
+    /**
+     * Replays every request as soon as the previous one of its thread finished, and returns this engine for chaining.
+     *
+     * @return this engine
+     */
+    public ReplayEngine asFastAsPossible() {
+        return withSpeed(0);
+    }
+
+    /**
+     * Sets the number of threads to replay on, and returns this engine for chaining.
+     *
+     * @param threads the number of threads
+     * @return this engine
+     */
+    public ReplayEngine withThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is required: " + threads);
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Sets which permissions the replayed senders have, and returns this engine for chaining.
+     *
+     * @param permissions decides every permission check of every sender
+     * @return this engine
+     */
+    public ReplayEngine withPermissions(Predicate<String> permissions) {
+        this.permissions = permissions;
+        return this;
+    }
+
+    /**
+     * Replays the events and waits for every thread to finish.
+     *
+     * @param events the recorded events, in the order they were recorded
+     * @return the measurements of the run
+     */
+    public ReplayReport run(List<TrafficEvent> events) {
+        Map<Integer, CommandSender> senders = new HashMap<>();
+        List<List<TrafficEvent>> lanes = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (TrafficEvent event : events) {
+            if (event.kind() == TrafficEvent.Kind.COMPLETION && completer == null) continue;
+
+            senders.computeIfAbsent(event.sender(), id -> ReplaySender.create("replay-" + id, permissions));
+            lanes.get(Math.floorMod(event.sender(), threads)).add(event);
+        }
+
+        Run run = new Run(senders);
+        long origin = System.nanoTime() + START_DELAY_NANOS;
+        List<Thread> workers = new ArrayList<>(threads);
+        for (List<TrafficEvent> lane : lanes) {
+            if (lane.isEmpty()) continue;
+
+            Thread worker = new Thread(() -> replay(lane, origin, run), "Commander-Replay-" + (workers.size() + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+
+        long elapsed = Math.max(0, System.nanoTime() - origin);
+        long commands = run.commands.sum();
+        long completions = run.completions.sum();
+        return new ReplayReport(commands, completions, run.failures.sum(), elapsed,
+                run.commandLatency.snapshot(), run.completionLatency.snapshot(),
+                perRequest(run.commandBytes.sum(), commands), perRequest(run.completionBytes.sum(), completions), run.maxLag.get());
+    }
+
+    private void replay(List<TrafficEvent> lane, long origin, Run run) {
+        waitUntil(origin);
+
+        long maxLag = 0;
+        for (TrafficEvent event : lane) {
+            if (speed > 0) {
+                long target = origin + (long) (event.offsetNanos() / speed);
+                long lag = System.nanoTime() - target;
+                if (lag < 0) waitUntil(target);
+                else if (lag > maxLag) maxLag = lag;
+            }
+
+            CommandSender sender = run.senders.get(event.sender());
+            boolean command = event.kind() == TrafficEvent.Kind.COMMAND;
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            try {
+                if (command) executor.onCommand(sender, null, event.label(), event.args());
+                else completer.onTabComplete(sender, null, event.label(), event.args());
+            } catch (RuntimeException e) {
+                run.failures.increment();
+            }
+            long duration = System.nanoTime() - start;
+            long bytes = allocatedBytes() - allocated;
+
+            if (command) {
+                run.commands.increment();
+                run.commandLatency.record(duration);
+                run.commandBytes.add(bytes);
+            } else {
+                run.completions.increment();
+                run.completionLatency.record(duration);
+                run.completionBytes.add(bytes);
+            }
+        }
+
+        run.maxLag.accumulateAndGet(maxLag, Math::max);
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static double perRequest(long bytes, long requests) {
+        if (THREADS == null) return -1;
+        return requests == 0 ? 0 : bytes / (double) requests;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                return bean;
+            }
+        } catch (LinkageError | UnsupportedOperationException ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * The counters shared by the threads of one run.
+     */
+    private static final class Run {
+        final Map<Integer, CommandSender> senders;
+        final LongAdder commands = new LongAdder();
+        final LongAdder completions = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder commandBytes = new LongAdder();
+        final LongAdder completionBytes = new LongAdder();
+        final LatencyHistogram commandLatency = new LatencyHistogram();
+        final LatencyHistogram completionLatency = new LatencyHistogram();
+        final AtomicLong maxLag = new AtomicLong();
+
+        Run(Map<Integer, CommandSender> senders) {
+            this.senders = senders;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.lilbrocodes.commander.api.replay;
+
+import org.lilbrocodes.commander.api.metrics.HistogramSnapshot;
+
+/**
+ * The results of one {@link ReplayEngine} run. Latencies are in nanoseconds.
+ *
+ * @param commands the number of commands replayed
+ * @param completions the number of completion requests replayed
+ * @param failures the number of requests that threw
+ * @param elapsedNanos the wall clock time of the whole run
+ * @param commandLatency the time each command took on the replaying thread
+ * @param completionLatency the time each completion request took on the replaying thread
+ * @param bytesPerCommand the heap allocated per command on the replaying threads, or -1 if the JVM cannot measure it
+ * @param bytesPerCompletion the heap allocated per completion request on the replaying threads, or -1 if the JVM cannot measure it
+ * @param maxLagNanos how far the run fell behind the recorded schedule at worst, 0 when replaying as fast as possible
+ */
+public record ReplayReport(long commands, long completions, long failures, long elapsedNanos,
+                           HistogramSnapshot commandLatency, HistogramSnapshot completionLatency,
+                           double bytesPerCommand, double bytesPerCompletion, long maxLagNanos) {
+
+    /**
+     * @return the number of requests replayed per second
+     */
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : (commands + completions) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return a multi-line summary of the run
+     */
+    public String format() {
+        return String.format("%d commands, %d completions, %d failures in %.1fms (%.0f/s), max lag %.1fms%n", commands, completions, failures,
+                elapsedNanos / 1_000_000.0, throughput(), maxLagNanos / 1_000_000.0)
+                + line("commands", commandLatency, bytesPerCommand) + System.lineSeparator()
+                + line("completions", completionLatency, bytesPerCompletion);
+    }
+
+    private static String line(String name, HistogramSnapshot latency, double bytes) {
+        return String.format("%s: p50 %.1fµs, p90 %.1fµs, p99 %.1fµs, p99.9 %.1fµs, max %.1fµs, %s", name,
+                latency.p50() / 1000.0, latency.p90() / 1000.0, latency.p99() / 1000.0, latency.p999() / 1000.0, latency.max() / 1000.0,
+                bytes < 0 ? "allocation unknown" : String.format("%.0f B allocated each", bytes));
+    }
+}
@@ -0,0 +1,56 @@
+package org.lilbrocodes.commander.api.replay;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.Permission;
+
+import java.lang.reflect.Proxy;
+import java.util.function.Predicate;
+
+/**
+ * Creates the headless senders a {@link ReplayEngine} runs recorded traffic as.
+ * A dynamic proxy keeps them independent of the exact Spigot API version on the classpath.
+ */
+final class ReplaySender {
+
+    private ReplaySender() {
+    }
+
+    /**
+     * Creates a sender that swallows every message.
+     *
+     * @param name the name of the sender
+     * @param permissions decides every permission check
+     * @return the sender
+     */
+    static CommandSender create(String name, Predicate<String> permissions) {
+        return (CommandSender) Proxy.newProxyInstance(ReplaySender.class.getClassLoader(), new Class<?>[]{CommandSender.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "hasPermission":
+                case "isPermissionSet":
+                    return permissions.test(args[0] instanceof Permission permission ? permission.getName() : (String) args[0]);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "ReplaySender[" + name + "]";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        return 0;
+    }
+}
@@ -0,0 +1,18 @@
+package org.lilbrocodes.commander.api.replay;
+
+/**
+ * One command or tab completion request captured by a {@link TrafficRecorder}.
+ *
+ * @param offsetNanos when the request arrived, relative to the start of the recording
+ * @param kind whether the request ran a command or asked for completions
+ * @param sender the anonymized sender, numbered from 1 in the order senders were first seen
+ * @param label the label the command was used with
+ * @param args the raw arguments, for completions ending with the argument being typed
+ */
+public record TrafficEvent(long offsetNanos, Kind kind, int sender, String label, String[] args) {
+
+    public enum Kind {
+        COMMAND,   // The sender ran the command
+        COMPLETION // The sender pressed Tab or typed while the command was shown
+    }
+}
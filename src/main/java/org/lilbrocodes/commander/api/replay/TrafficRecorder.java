@@ -0,0 +1,195 @@
+package org.lilbrocodes.commander.api.replay;
+
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.lilbrocodes.commander.api.util.SenderKey;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Captures the command lines and tab completion requests reaching a command, so the load can be replayed offline with a {@link ReplayEngine}.
+ * <p>
+ * Senders are anonymized as they are recorded: each one is replaced by a number in the order they were first seen, their names and
+ * UUIDs are never stored. Arguments are stored as typed and may still contain player names.
+ * Recording stops silently once {@code maxEvents} events were captured, further events are only counted.
+ * <p>
+ * Recordings are saved as UTF-8 text, one event per line: the offset in microseconds, {@code C} for commands or {@code T} for completions,
+ * the sender number, the label, the argument count and the arguments separated by spaces, with the fields separated by tabs.
+ */
+@SuppressWarnings("unused")
+public final class TrafficRecorder {
+    private static final String HEADER = "# commander traffic v1";
+
+    private final int maxEvents;
+    private final long start = System.nanoTime();
+    private final List<TrafficEvent> events = new ArrayList<>();
+    private final Map<Object, Integer> senders = new HashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Creates a recorder that starts its clock now.
+     *
+     * @param maxEvents the maximum number of events to keep
+     */
+    public TrafficRecorder(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    /**
+     * Wraps a command executor so every command it receives is recorded before it runs.
+     *
+     * @param executor the executor to wrap
+     * @return the recording executor
+     */
+    public CommandExecutor recordCommands(CommandExecutor executor) {
+        return (sender, command, label, args) -> {
+            record(TrafficEvent.Kind.COMMAND, sender, label, args);
+            return executor.onCommand(sender, command, label, args);
+        };
+    }
+
+    /**
+     * Wraps a tab completer so every completion request it receives is recorded before it is answered.
+     *
+     * @param completer the completer to wrap
+     * @return the recording completer
+     */
+    public TabCompleter recordCompletions(TabCompleter completer) {
+        return (sender, command, label, args) -> {
+            record(TrafficEvent.Kind.COMPLETION, sender, label, args);
+            return completer.onTabComplete(sender, command, label, args);
+        };
+    }
+
+    /**
+     * Records one request.
+     *
+     * @param kind the kind of request
+     * @param sender the sender, anonymized before it is stored
+     * @param label the label the command was used with
+     * @param args the raw arguments, copied
+     */
+    public void record(TrafficEvent.Kind kind, CommandSender sender, String label, String[] args) {
+        long offset = System.nanoTime() - start;
+        Object key = SenderKey.of(sender);
+        synchronized (events) {
+            if (events.size() >= maxEvents) {
+                dropped.increment();
+                return;
+            }
+            int id = senders.computeIfAbsent(key, k -> senders.size() + 1);
+            events.add(new TrafficEvent(offset, kind, id, label, args.clone()));
+        }
+    }
+
+    /**
+     * @return a copy of the events recorded so far, in the order they arrived
+     */
+    public List<TrafficEvent> snapshot() {
+        synchronized (events) {
+            return List.copyOf(events);
+        }
+    }
+
+    /**
+     * @return how many events arrived after the recorder was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Discards every recorded event and forgets the senders. The clock keeps running.
+     */
+    public void clear() {
+        synchronized (events) {
+            events.clear();
+            senders.clear();
+        }
+        dropped.reset();
+    }
+
+    /**
+     * Writes the events recorded so far to a file, replacing it.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        save(snapshot(), file);
+    }
+
+    /**
+     * Writes events to a file, replacing it.
+     *
+     * @param events the events
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(List<TrafficEvent> events, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (TrafficEvent event : events) {
+                out.write(Long.toString(event.offsetNanos() / 1000));
+                out.write('\t');
+                out.write(event.kind() == TrafficEvent.Kind.COMMAND ? 'C' : 'T');
+                out.write('\t');
+                out.write(Integer.toString(event.sender()));
+                out.write('\t');
+                out.write(event.label());
+                out.write('\t');
+                out.write(Integer.toString(event.args().length));
+                out.write('\t');
+                out.write(String.join(" ", event.args()));
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Reads events written by {@link #save(Path)}.
+     *
+     * @param file the file to read
+     * @return the events, in the order they were recorded
+     * @throws IOException if the file cannot be read or is not a traffic recording
+     */
+    public static List<TrafficEvent> load(Path file) throws IOException {
+        List<TrafficEvent> events = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = in.readLine();
+            if (!HEADER.equals(line)) throw new IOException("Not a traffic recording: " + file);
+
+            int number = 1;
+            while ((line = in.readLine()) != null) {
+                number++;
+                if (line.isEmpty()) continue;
+
+                String[] fields = line.split("\t", 6);
+                if (fields.length != 6) throw new IOException("Malformed event on line " + number + " of " + file);
+                try {
+                    int count = Integer.parseInt(fields[4]);
+                    String[] args = count == 0 ? new String[0] : fields[5].split(" ", -1);
+                    if (args.length != count) throw new IOException("Argument count mismatch on line " + number + " of " + file);
+
+                    TrafficEvent.Kind kind = fields[1].equals("C") ? TrafficEvent.Kind.COMMAND : TrafficEvent.Kind.COMPLETION;
+                    events.add(new TrafficEvent(Long.parseLong(fields[0]) * 1000, kind, Integer.parseInt(fields[2]), fields[3], args));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed event on line " + number + " of " + file, e);
+                }
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,261 @@
+package org.lilbrocodes.commander.api.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable BK-tree over a set of strings that finds the values closest to a mistyped input, ignoring case.
+ * <p>
+ * Values are compared by Levenshtein distance. Each node keeps its children keyed by their distance to it, so a query for
+ * values within distance {@code k} of the input only descends into children whose key lies within {@code k} of the node's own distance,
+ * which skips most of the tree for the small distances typos produce.
+ */
+@SuppressWarnings("unused")
+public final class FuzzyIndex {
+    private static final FuzzyIndex EMPTY = new FuzzyIndex(new String[0], new String[0], new int[0], new int[0], new int[0], new int[0], 0, null);
+
+    private final String[] values;
+    private final String[] folded;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] edge;
+    private final int[] maxEdge;
+    private final int longest;
+    private final Object source;
+
+    private FuzzyIndex(String[] values, String[] folded, int[] firstChild, int[] nextSibling, int[] edge, int[] maxEdge, int longest, Object source) {
+        this.values = values;
+        this.folded = folded;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.edge = edge;
+        this.maxEdge = maxEdge;
+        this.longest = longest;
+        this.source = source;
+    }
+
+    /**
+     * Builds an index over the given values. Values that only differ in case are kept once.
+     *
+     * @param values the values to index
+     * @return a new index, remembering {@code values} as its source
+     */
+    public static FuzzyIndex of(Collection<String> values) {
+        if (values.isEmpty()) return EMPTY;
+
+        int capacity = values.size();
+        String[] originals = new String[capacity];
+        String[] folded = new String[capacity];
+        int[] firstChild = new int[capacity];
+        int[] nextSibling = new int[capacity];
+        int[] edge = new int[capacity];
+        int[] maxEdge = new int[capacity];
+        int size = 0;
+        int longest = 0;
+        int[][] rows = new int[2][];
+
+        for (String value : values) {
+            String key = value.toLowerCase(Locale.ROOT);
+            if (size == 0) {
+                originals[0] = value;
+                folded[0] = key;
+                firstChild[0] = -1;
+                nextSibling[0] = -1;
+                size = 1;
+                longest = key.length();
+                continue;
+            }
+
+            if (key.length() > longest) longest = key.length();
+            rows = ensure(rows, longest);
+            int node = 0;
+            while (true) {
+                int distance = distance(key, folded[node], rows, Integer.MAX_VALUE - 1);
+                if (distance == 0) break;
+
+                int child = firstChild[node];
+                while (child >= 0 && edge[child] != distance) {
+                    child = nextSibling[child];
+                }
+                if (child >= 0) {
+                    node = child;
+                    continue;
+                }
+
+                originals[size] = value;
+                folded[size] = key;
+                firstChild[size] = -1;
+                edge[size] = distance;
+                maxEdge[node] = Math.max(maxEdge[node], distance);
+                nextSibling[size] = firstChild[node];
+                firstChild[node] = size++;
+                break;
+            }
+        }
+
+        if (size < capacity) {
+            originals = Arrays.copyOf(originals, size);
+            folded = Arrays.copyOf(folded, size);
+            firstChild = Arrays.copyOf(firstChild, size);
+            nextSibling = Arrays.copyOf(nextSibling, size);
+            edge = Arrays.copyOf(edge, size);
+            maxEdge = Arrays.copyOf(maxEdge, size);
+        }
+        return new FuzzyIndex(originals, folded, firstChild, nextSibling, edge, maxEdge, longest, values);
+    }
+
+    /**
+     * @param values a collection
+     * @return true if this index was built from exactly this collection instance
+     */
+    public boolean isOf(Collection<String> values) {
+        return source == values;
+    }
+
+    /**
+     * @return the number of indexed values
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the values closest to {@code input}, allowing one typo in inputs of up to three characters and two in longer ones.
+     *
+     * @param input the mistyped input
+     * @param limit the maximum number of values to return
+     * @return the closest values, nearest first
+     */
+    public List<String> closest(String input, int limit) {
+        return closest(input, input.length() <= 3 ? 1 : 2, limit);
+    }
+
+    /**
+     * Returns the values within {@code maxDistance} edits of {@code input}, ignoring case.
+     * Ties are broken by the longer common prefix, then alphabetically.
+     *
+     * @param input the mistyped input
+     * @param maxDistance the maximum number of inserted, removed or replaced characters
+     * @param limit the maximum number of values to return
+     * @return the closest values, nearest first
+     */
+    public List<String> closest(String input, int maxDistance, int limit) {
+        if (values.length == 0 || limit <= 0 || input.isEmpty()) return Collections.emptyList();
+
+        String key = input.toLowerCase(Locale.ROOT);
+        int[][] rows = ensure(new int[2][], Math.max(longest, key.length()));
+        int[] best = new int[limit];
+        int[] bestDistance = new int[limit];
+        int found = 0;
+
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = 0;
+        while (depth > 0) {
+            int node = stack[--depth];
+            // Children only need the exact distance if it is within reach of their edges, leaves only need to know whether they match
+            int distance = distance(key, folded[node], rows, maxEdge[node] + maxDistance);
+            if (distance <= maxDistance) {
+                found = offer(node, distance, key, best, bestDistance, found);
+            }
+
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                if (Math.abs(edge[child] - distance) > maxDistance) continue;
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = child;
+            }
+        }
+
+        List<String> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(values[best[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Inserts a match into the ranked, bounded result arrays.
+     *
+     * @return the new number of results
+     */
+    private int offer(int node, int distance, String key, int[] best, int[] bestDistance, int found) {
+        int position = found;
+        while (position > 0 && ranksBefore(node, distance, best[position - 1], bestDistance[position - 1], key)) {
+            position--;
+        }
+        if (position >= best.length) return found;
+
+        int end = Math.min(found, best.length - 1);
+        System.arraycopy(best, position, best, position + 1, end - position);
+        System.arraycopy(bestDistance, position, bestDistance, position + 1, end - position);
+        best[position] = node;
+        bestDistance[position] = distance;
+        return Math.min(found + 1, best.length);
+    }
+
+    private boolean ranksBefore(int node, int distance, int other, int otherDistance, String key) {
+        if (distance != otherDistance) return distance < otherDistance;
+
+        int prefix = commonPrefix(folded[node], key);
+        int otherPrefix = commonPrefix(folded[other], key);
+        if (prefix != otherPrefix) return prefix > otherPrefix;
+        return folded[node].compareTo(folded[other]) < 0;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    private static int[][] ensure(int[][] rows, int length) {
+        if (rows[0] == null || rows[0].length <= length) {
+            rows[0] = new int[length + 1];
+            rows[1] = new int[length + 1];
+        }
+        return rows;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings with two reused rows, giving up once it must exceed {@code cutoff}.
+     *
+     * @return the distance, or {@code cutoff + 1} if it is larger than {@code cutoff}
+     */
+    private static int distance(String a, String b, int[][] rows, int cutoff) {
+        int length = b.length();
+        if (Math.abs(a.length() - length) > cutoff) return cutoff + 1;
+
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        for (int j = 0; j <= length; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            char c = a.charAt(i - 1);
+            int left = i;
+            int diagonal = i - 1;
+            int rowMin = left;
+            current[0] = left;
+            for (int j = 1; j <= length; j++) {
+                int up = previous[j];
+                int best = c == b.charAt(j - 1) ? diagonal : Math.min(diagonal, Math.min(left, up)) + 1;
+                current[j] = best;
+                if (best < rowMin) rowMin = best;
+                left = best;
+                diagonal = up;
+            }
+            if (rowMin > cutoff) return cutoff + 1;
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[length], cutoff + 1);
+    }
+}
@@ -0,0 +1,146 @@
+package org.lilbrocodes.commander.api.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of strings that answers prefix queries with two binary searches over a case-insensitively sorted copy.
+ * Matches are returned in the order of the source, so indexed and scanned completions look the same.
+ * Matching uses the same case folding as {@link String#CASE_INSENSITIVE_ORDER}.
+ */
+@SuppressWarnings("unused")
+public final class PrefixIndex {
+    private static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new String[0], null, null);
+
+    private final String[] values;
+    private final String[] sorted;
+    private final int[] positions; // Position in values of each sorted value, null if the source was already sorted
+    private final List<String> view;
+    private final Object source;
+
+    private PrefixIndex(String[] values, String[] sorted, int[] positions, Object source) {
+        this.values = values;
+        this.sorted = sorted;
+        this.positions = positions;
+        this.view = Collections.unmodifiableList(Arrays.asList(values));
+        this.source = source;
+    }
+
+    /**
+     * Builds an index over the given values.
+     *
+     * @param values the values to index
+     * @return a new index, remembering {@code values} as its source
+     */
+    public static PrefixIndex of(Collection<String> values) {
+        if (values.isEmpty()) return EMPTY;
+
+        String[] original = values.toArray(new String[0]);
+        Integer[] order = new Integer[original.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Stable, so equal values keep their source order
+        Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(original[a], original[b]));
+
+        boolean inOrder = true;
+        String[] sorted = new String[original.length];
+        int[] positions = new int[original.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = original[order[i]];
+            positions[i] = order[i];
+            inOrder &= order[i] == i;
+        }
+        return inOrder ? new PrefixIndex(original, original, null, values) : new PrefixIndex(original, sorted, positions, values);
+    }
+
+    /**
+     * @param values a collection
+     * @return true if this index was built from exactly this collection instance
+     */
+    public boolean isOf(Collection<String> values) {
+        return source == values;
+    }
+
+    /**
+     * @return the number of indexed values
+     */
+    public int size() {
+        return sorted.length;
+    }
+
+    /**
+     * Returns every value that starts with {@code prefix}, ignoring case.
+     *
+     * @param prefix the typed prefix
+     * @return an unmodifiable list of the matching values, in the order of the source
+     */
+    public List<String> matching(String prefix) {
+        if (prefix.isEmpty()) return view;
+
+        int from = bound(prefix, false);
+        int to = bound(prefix, true);
+        if (from == to) return Collections.emptyList();
+        if (positions == null) return view.subList(from, to);
+
+        // The matches are one run of the sorted copy, put back into source order
+        int[] matched = Arrays.copyOfRange(positions, from, to);
+        Arrays.sort(matched);
+        String[] result = new String[matched.length];
+        for (int i = 0; i < matched.length; i++) {
+            result[i] = values[matched[i]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(result));
+    }
+
+    /**
+     * Finds the first value that compares greater than (or, if {@code upper} is false, at least) the prefix.
+     */
+    private int bound(String prefix, boolean upper) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparePrefix(sorted[mid], prefix);
+            if (cmp < 0 || (upper && cmp == 0)) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Compares the first {@code prefix.length()} characters of {@code value} against {@code prefix}, ignoring case.
+     * Returns 0 if {@code value} starts with {@code prefix}.
+     */
+    private static int comparePrefix(String value, String prefix) {
+        int length = Math.min(value.length(), prefix.length());
+        for (int i = 0; i < length; i++) {
+            char a = value.charAt(i);
+            char b = prefix.charAt(i);
+            if (a == b) continue;
+
+            a = Character.toLowerCase(Character.toUpperCase(a));
+            b = Character.toLowerCase(Character.toUpperCase(b));
+            if (a != b) return a - b;
+        }
+        return value.length() < prefix.length() ? -1 : 0;
+    }
+
+    /**
+     * Filters a list by prefix without building an index, for values that are only seen once.
+     *
+     * @param values the values to filter
+     * @param prefix the typed prefix
+     * @param out the list to add every value starting with {@code prefix}, ignoring case, to
+     */
+    public static void scan(List<String> values, String prefix, List<String> out) {
+        int length = prefix.length();
+        for (String value : values) {
+            if (value.regionMatches(true, 0, prefix, 0, length)) {
+                out.add(value);
+            }
+        }
+    }
+}
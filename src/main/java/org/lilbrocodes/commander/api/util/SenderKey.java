@@ -0,0 +1,23 @@
+package org.lilbrocodes.commander.api.util;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+
+/**
+ * Utility class to derive a stable map key for a command sender.
+ */
+@SuppressWarnings("unused")
+public class SenderKey {
+
+    /**
+     * Returns a key identifying the sender across calls.
+     * Entities (including players) are keyed by their UUID, every other sender by its name.
+     *
+     * @param sender The command sender.
+     * @return A key suitable for hash maps, never null.
+     */
+    public static Object of(CommandSender sender) {
+        if (sender instanceof Entity entity) return entity.getUniqueId();
+        return sender.getName();
+    }
+}
@@ -0,0 +1,116 @@
+package org.lilbrocodes.commander.api.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An append-only table of strings stored as UTF-8 in one shared byte array, for text that is kept around but rarely read, such as command descriptions.
+ * Adding a string returns an id, equal strings get the same id. Reading an id decodes a new string every time.
+ * <p>
+ * Compared to keeping a {@link String} per node, the table saves the object and array headers of every string
+ * and stores duplicates once. All methods are synchronized, so a table can be shared by trees built on different threads.
+ */
+@SuppressWarnings("unused")
+public final class StringTable {
+    private byte[] bytes = new byte[256];
+    private int length;
+    private int[] offsets = new int[16];
+    private int[] hashes = new int[16];
+    private int size;
+    private int[] slots = new int[32]; // id + 1, 0 for an empty slot
+
+    /**
+     * Adds a string to the table, unless an equal string was added before.
+     *
+     * @param value the string
+     * @return the id of the string
+     */
+    public synchronized int add(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        int hash = value.hashCode();
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && Arrays.equals(bytes, offsets[id], end(id), encoded, 0, encoded.length)) return id;
+            slot = (slot + 1) & mask;
+        }
+
+        if (length + encoded.length > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + encoded.length));
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+
+        int id = size++;
+        System.arraycopy(encoded, 0, bytes, length, encoded.length);
+        offsets[id] = length;
+        hashes[id] = hash;
+        length += encoded.length;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) rehash();
+        return id;
+    }
+
+    /**
+     * Decodes a string of the table.
+     *
+     * @param id the id returned by {@link #add(String)}
+     * @return a new string equal to the one added
+     * @throws IndexOutOfBoundsException if no string has this id
+     */
+    public synchronized String get(int id) {
+        if (id < 0 || id >= size) throw new IndexOutOfBoundsException("No string with id " + id);
+        return new String(bytes, offsets[id], end(id) - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the number of distinct strings in the table
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes the encoded strings take up
+     */
+    public synchronized int length() {
+        return length;
+    }
+
+    /**
+     * Estimates the heap used by the table, counting the array headers and the unused capacity of every backing array.
+     *
+     * @return the estimated size in bytes
+     */
+    public synchronized long footprint() {
+        return 40 + array(bytes.length) + array(4 * offsets.length) + array(4 * hashes.length) + array(4 * slots.length);
+    }
+
+    private int end(int id) {
+        return id + 1 < size ? offsets[id + 1] : length;
+    }
+
+    private void rehash() {
+        int[] table = new int[slots.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+        slots = table;
+    }
+
+    private static long array(int bytes) {
+        return (16L + bytes + 7) & ~7L; // header and length, aligned to 8 bytes
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
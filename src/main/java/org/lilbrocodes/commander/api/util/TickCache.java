@@ -0,0 +1,49 @@
+package org.lilbrocodes.commander.api.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches lookups such as name to player or name to world for roughly one server tick.
+ * Spigot exposes no tick counter, so a tick is approximated by a 50ms window of {@link System#nanoTime()}.
+ * Only found values are cached, a miss is looked up again on the next call.
+ *
+ * @param <V> the type of the cached values
+ */
+@SuppressWarnings("unused")
+public final class TickCache<V> {
+    private static final long TICK_NANOS = 50_000_000L;
+
+    private final Map<String, V> values = new ConcurrentHashMap<>();
+    private volatile long window;
+
+    /**
+     * Returns the cached value for a key, loading it if it was not looked up during the current tick.
+     *
+     * @param key the key
+     * @param loader loads the value, returning null if there is none
+     * @return the value, or null if there is none
+     */
+    public V get(String key, Function<String, V> loader) {
+        long now = System.nanoTime() / TICK_NANOS;
+        if (now != window) {
+            values.clear();
+            window = now;
+        }
+
+        V value = values.get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) values.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Drops every cached value.
+     */
+    public void invalidate() {
+        values.clear();
+    }
+}
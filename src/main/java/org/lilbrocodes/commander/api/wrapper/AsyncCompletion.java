@@ -0,0 +1,59 @@
+package org.lilbrocodes.commander.api.wrapper;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Settings for running tab completion off the main server thread.
+ * Only completions whose suggestions are declared thread-safe (see {@link org.lilbrocodes.commander.api.argument.TypedParameter#withThreadSafeSuggestions()})
+ * are moved to the worker pool, everything else still completes synchronously.
+ * <p>
+ * This bounds how long the main thread waits for a completion, it does not remove the wait: Bukkit expects the result
+ * from the calling thread, so the main thread blocks until the worker finishes or the deadline passes, whichever comes first.
+ * Suppliers are never interrupted. One that misses the deadline keeps running and its result is used for the next keystroke.
+ */
+@SuppressWarnings("unused")
+public class AsyncCompletion {
+    private final ExecutorService pool;
+    private final long deadlineNanos;
+    private final int maxSenders;
+
+    /**
+     * Creates async completion settings.
+     *
+     * @param pool the pool suggestions are computed on, e.g. a virtual thread executor on Java 21+
+     * @param deadline how long the main thread waits for a result before falling back to the last one
+     * @param maxSenders how many senders to remember the last completion result for
+     */
+    public AsyncCompletion(ExecutorService pool, Duration deadline, int maxSenders) {
+        this.pool = pool;
+        this.deadlineNanos = deadline.toNanos();
+        this.maxSenders = maxSenders;
+    }
+
+    /**
+     * Creates async completion settings backed by a small pool of daemon threads.
+     *
+     * @param deadline how long the main thread waits for a result before falling back to the last one
+     * @return the new settings
+     */
+    public static AsyncCompletion withDeadline(Duration deadline) {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Commander-Completion-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return new AsyncCompletion(pool, deadline, 512);
+    }
+
+    public ExecutorService getPool() { return pool; }
+    public long getDeadlineNanos() { return deadlineNanos; }
+    public int getMaxSenders() { return maxSenders; }
+}
@@ -2,10 +2,19 @@ package org.lilbrocodes.commander.api.wrapper;
 
 import org.bukkit.command.*;
 import org.jetbrains.annotations.NotNull;
-import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.audit.AuditJournal;
+import org.lilbrocodes.commander.api.audit.AuditOutcome;
+import org.lilbrocodes.commander.api.audit.AuditRecord;
+import org.lilbrocodes.commander.api.executor.DispatchTable;
 import org.lilbrocodes.commander.api.executor.ExecutorNode;
-import org.lilbrocodes.commander.api.executor.CommandActionNode;
+import org.lilbrocodes.commander.api.executor.PermissionCache;
 import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.TreeVersion;
+import org.lilbrocodes.commander.api.executor.VersionedTree;
+import org.lilbrocodes.commander.api.error.CommandError;
+import org.lilbrocodes.commander.api.error.ErrorTrace;
+import org.lilbrocodes.commander.api.metrics.MetricsSnapshot;
+import org.lilbrocodes.commander.api.metrics.NodeMetrics;
 
 import java.util.Arrays;
 
@@ -14,15 +23,60 @@ import java.util.Arrays;
  */
 @SuppressWarnings("unused")
 public class CommandExecutorWrapper implements CommandExecutor {
-    private final ExecutorNode<CommandGroupNode> root;
+    private final VersionedTree tree;
+    private final AuditJournal auditJournal;
+    private volatile Help help;
 
     /**
      * Creates a new CommandExecutorWrapper.
+     * If the tree is already frozen, commands are dispatched through a flattened {@link DispatchTable}.
      *
      * @param root The root executor node, representing the root of the command tree.
      */
     public CommandExecutorWrapper(ExecutorNode<CommandGroupNode> root) {
-        this.root = root;
+        this(root, root.isFrozen() ? DispatchTable.of(root) : null);
+    }
+
+    /**
+     * Creates a new CommandExecutorWrapper that dispatches through a prebuilt table.
+     *
+     * @param root The root executor node, representing the root of the command tree.
+     * @param dispatchTable The flattened tree to dispatch through, or null to walk the tree directly.
+     */
+    public CommandExecutorWrapper(ExecutorNode<CommandGroupNode> root, DispatchTable dispatchTable) {
+        this(root, dispatchTable, dispatchTable != null ? new PermissionCache(dispatchTable) : null);
+    }
+
+    /**
+     * Creates a new CommandExecutorWrapper that dispatches through a prebuilt table and shares a permission cache.
+     *
+     * @param root The root executor node, representing the root of the command tree.
+     * @param dispatchTable The flattened tree to dispatch through, or null to walk the tree directly.
+     * @param permissionCache The cache used for permission checks in help output, or null to check every node directly.
+     */
+    public CommandExecutorWrapper(ExecutorNode<CommandGroupNode> root, DispatchTable dispatchTable, PermissionCache permissionCache) {
+        this(new VersionedTree(new TreeVersion(0, root, dispatchTable, permissionCache)));
+    }
+
+    /**
+     * Creates a new CommandExecutorWrapper that always dispatches through the current version of a replaceable tree.
+     *
+     * @param tree The holder of the current tree.
+     */
+    public CommandExecutorWrapper(VersionedTree tree) {
+        this(tree, null);
+    }
+
+    /**
+     * Creates a new CommandExecutorWrapper that records every command it handles in an audit journal.
+     * Only building the record and publishing it to the journal's ring buffer happens on the calling thread.
+     *
+     * @param tree The holder of the current tree.
+     * @param auditJournal The journal to record commands in, or null to not audit.
+     */
+    public CommandExecutorWrapper(VersionedTree tree, AuditJournal auditJournal) {
+        this.tree = tree;
+        this.auditJournal = auditJournal;
     }
 
     /**
@@ -36,84 +90,106 @@ public class CommandExecutorWrapper implements CommandExecutor {
      */
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, String[] args) {
+        TreeVersion version = tree.current();
+        if (auditJournal == null) return handle(sender, version, label, args);
+
+        long time = System.currentTimeMillis();
+        long start = System.nanoTime();
+        ErrorTrace trace = ErrorTrace.begin();
+        AuditOutcome outcome = AuditOutcome.FAILED;
+        try {
+            boolean handled = handle(sender, version, label, args);
+            outcome = AuditOutcome.of(trace.getError());
+            return handled;
+        } finally {
+            trace.end();
+            DispatchTable table = version.getDispatchTable();
+            String path = table != null ? table.pathOf(table.follow(args)) : "";
+            auditJournal.publish(AuditRecord.of(sender, time, System.nanoTime() - start, label, path, args, outcome, trace.getArgumentError()));
+        }
+    }
+
+    /**
+     * Handles a command on one version of the tree.
+     */
+    private boolean handle(CommandSender sender, TreeVersion version, String label, String[] args) {
+        ExecutorNode<CommandGroupNode> root = version.getRoot();
         if (!root.hasPermission(sender)) {
-            sender.sendMessage("§cYou do not have permission to use this command.");
+            NodeMetrics metrics = root.getMetrics();
+            if (metrics != null) metrics.recordPermissionDenied();
+            root.getErrorReporter().report(sender, root, CommandError.NO_PERMISSION, null);
             return true;
         }
 
-        if (args.length >= 1 && args[0].equalsIgnoreCase("help") && root instanceof CommandGroupNode parent && !hasHelpSubcommand(parent)) {
+        HelpRenderer helpRenderer = helpRenderer(version);
+        if (args.length >= 1 && args[0].equalsIgnoreCase("help") && helpRenderer != null && helpRenderer.isActive()) {
             if (args.length >= 2 && args[1].equalsIgnoreCase("tree")) {
-                sender.sendMessage("§eCommand Tree:");
-                printTree(sender, parent, label, "", true);
+                sender.sendMessage(helpRenderer.tree(sender, label));
                 return true;
             }
 
-            sender.sendMessage("§eAvailable subcommands:");
-            for (ExecutorNode<?> child : parent.getChildren()) {
-                if (!child.hasPermission(sender)) continue;
-
-                StringBuilder line = new StringBuilder("§7- /" + label + " " + child.getName());
-                if (child instanceof CommandActionNode paramNode) {
-                    for (TypedParameter arg : paramNode.getArguments()) {
-                        line.append(" §8<").append(arg.name()).append(">§7");
-                    }
-                }
-                line.append(" §f- ").append(child.getDescription());
-                sender.sendMessage(line.toString());
+            if (args.length >= 2 && args[1].equalsIgnoreCase("stats") && root.getMetrics() != null) {
+                printStats(sender, root, label);
+                return true;
             }
-            sender.sendMessage(String.format("Use '§7/%s help tree§r' for more details.", parent.getName()));
+
+            sender.sendMessage(helpRenderer.listing(sender, label));
             return true;
         }
 
-        root.execute(sender, Arrays.asList(args));
+        version.dispatch(sender, Arrays.asList(args));
         return true;
     }
 
     /**
-     * Prints the command tree recursively to show subcommands and their descriptions.
+     * Returns the help renderer of a tree version, creating it the first time the version is asked for help.
      *
-     * @param sender The command sender to send the tree to.
-     * @param node The current node being processed in the command tree.
-     * @param path The command path to this node.
-     * @param prefix The prefix used for formatting the tree.
-     * @param isLast Indicates whether this is the last child in the tree.
+     * @param version The tree version.
+     * @return The help renderer, or null if the root is not a group.
      */
-    private void printTree(CommandSender sender, CommandGroupNode node, String path, String prefix, boolean isLast) {
-        if (!node.hasPermission(sender)) return;
-
-        String branch = prefix + (isLast ? "└─ " : "├─ ");
-        sender.sendMessage(branch + "§a" + path + " §7- " + node.getDescription());
-
-        int i = 0;
-        var visibleChildren = node.getChildren().stream().filter(c -> c.hasPermission(sender)).toList();
-
-        for (ExecutorNode<?> child : visibleChildren) {
-            boolean lastChild = (visibleChildren.size() - 1) == i;
-
-            if (child instanceof CommandGroupNode parentChild) {
-                printTree(sender, parentChild, path + " " + child.getName(), prefix + (isLast ? "   " : "│  "), lastChild);
-            } else if (child instanceof CommandActionNode paramChild) {
-                StringBuilder params = new StringBuilder();
-                for (TypedParameter arg : paramChild.getArguments()) {
-                    params.append("<").append(arg.name()).append(":").append(arg.type().name().toLowerCase()).append(">");
-                }
-                String childLine = prefix + (isLast ? "   " : "│  ") + (lastChild ? "└─ " : "├─ ") +
-                        "§b" + path + " " + child.getName() +
-                        (!params.isEmpty() ? " §8" + params : "") +
-                        " §7- " + paramChild.getDescription();
-                sender.sendMessage(childLine);
-            }
-
-            i++;
+    private HelpRenderer helpRenderer(TreeVersion version) {
+        Help current = help;
+        if (current == null || current.version != version) {
+            current = new Help(version, version.getRoot() instanceof CommandGroupNode parent
+                    ? new HelpRenderer(parent, version.getPermissionCache())
+                    : null);
+            help = current;
         }
+        return current.renderer;
     }
 
-    private boolean hasHelpSubcommand(CommandGroupNode node) {
-        for (ExecutorNode<?> subNode : node.getChildren()) {
-            if (subNode.getName().equals("help")) return true;
-            else if (subNode instanceof CommandGroupNode parentNode && hasHelpSubcommand(parentNode)) return true;
+    /**
+     * Prints the recorded metrics of every node that has been invoked.
+     *
+     * @param sender The command sender to send the statistics to.
+     * @param root The root node of the tree version being viewed.
+     * @param label The label used to execute the command.
+     */
+    private void printStats(CommandSender sender, ExecutorNode<CommandGroupNode> root, String label) {
+        if (!sender.hasPermission(root.getEffectivePermission() + ".stats")) {
+            sender.sendMessage("§cYou do not have permission to view command statistics.");
+            return;
+        }
+
+        StringBuilder out = new StringBuilder("§eCommand Statistics:");
+        for (MetricsSnapshot snapshot : MetricsSnapshot.collect(root, label)) {
+            if (snapshot.invocations() == 0 && snapshot.permissionDenials() == 0) continue;
+
+            out.append('\n').append(String.format("§b/%s §7- §f%d§7 calls, §f%d§7 parse errors, §f%d§7 denied, §f%d§7 rate limited, §f%d§7 exceptions",
+                    snapshot.path(), snapshot.invocations(), snapshot.totalParseFailures(), snapshot.permissionDenials(), snapshot.rateLimited(), snapshot.executorErrors()));
+            if (snapshot.parseTime().count() > 0 || snapshot.executeTime().count() > 0) {
+                out.append('\n').append(String.format("§7   parse p50/p99 §f%s§7/§f%s§7, execute p50/p99/max §f%s§7/§f%s§7/§f%s",
+                        micros(snapshot.parseTime().p50()), micros(snapshot.parseTime().p99()),
+                        micros(snapshot.executeTime().p50()), micros(snapshot.executeTime().p99()), micros(snapshot.executeTime().max())));
+            }
         }
-        return false;
+        sender.sendMessage(out.toString());
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1fµs", nanos / 1000.0);
     }
-}
 
+    private record Help(TreeVersion version, HelpRenderer renderer) {
+    }
+}
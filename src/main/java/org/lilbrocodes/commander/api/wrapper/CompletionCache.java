@@ -0,0 +1,172 @@
+package org.lilbrocodes.commander.api.wrapper;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.TreeVersion;
+import org.lilbrocodes.commander.api.util.PrefixIndex;
+import org.lilbrocodes.commander.api.util.SenderKey;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the last tab completion of each sender, so repeated Tab presses and the keystrokes that follow do not walk the tree again.
+ * <p>
+ * An entry is keyed by the arguments before the one being typed, which determine the node and parameter being completed,
+ * and by the typed prefix. Pressing Tab again with the same input returns the cached list. Typing more characters narrows the cached list
+ * for the shorter prefix instead of calling the suggestion suppliers, falling back to a full completion only if nothing is left.
+ * <p>
+ * Entries are kept per sender, since permissions and per-sender suggestions differ, for at most {@code ttl} and for the
+ * {@code maxSenders} most recent senders. They are dropped early when the tree is reloaded or any
+ * {@link TypedParameter#invalidateSuggestions()} reports a change.
+ */
+@SuppressWarnings("unused")
+public class CompletionCache {
+    private final long ttlNanos;
+    private final Map<Object, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder narrowed = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a completion cache.
+     *
+     * @param ttl how long a computed completion may be reused, suppliers that change constantly such as online players want this short
+     * @param maxSenders how many senders to keep a completion for
+     */
+    public CompletionCache(Duration ttl, int maxSenders) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxSenders;
+            }
+        };
+    }
+
+    /**
+     * Returns the completions for the given arguments, from the cache if possible.
+     *
+     * @param sender the sender completing
+     * @param version the tree version being completed against
+     * @param args the typed arguments, the last one is the prefix being completed
+     * @param completer computes the completions on a miss
+     * @return the completions, must not be modified
+     */
+    List<String> get(CommandSender sender, TreeVersion version, List<String> args, Supplier<List<String>> completer) {
+        if (args.isEmpty()) return completer.get();
+
+        Object key = SenderKey.of(sender);
+        long now = System.nanoTime();
+        long generation = TypedParameter.suggestionGeneration();
+        String prefix = args.get(args.size() - 1);
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry != null && entry.version == version && entry.generation == generation
+                && now - entry.createdAt < ttlNanos && entry.hasContext(args)) {
+            if (entry.prefix.equals(prefix)) {
+                hits.increment();
+                return entry.result;
+            }
+
+            if (prefix.length() > entry.prefix.length() && prefix.regionMatches(true, 0, entry.prefix, 0, entry.prefix.length())) {
+                List<String> matches = new ArrayList<>();
+                PrefixIndex.scan(entry.result, prefix, matches);
+                if (!matches.isEmpty()) {
+                    narrowed.increment();
+                    List<String> result = Collections.unmodifiableList(matches);
+                    store(key, new Entry(version, generation, entry.createdAt, entry.context, prefix, result));
+                    return result;
+                }
+            }
+        }
+
+        misses.increment();
+        List<String> result = completer.get();
+        store(key, new Entry(version, generation, now, args.subList(0, args.size() - 1).toArray(new String[0]), prefix, result));
+        return result;
+    }
+
+    private void store(Object key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Drops the cached completion of one sender, e.g. after its permissions changed.
+     *
+     * @param sender the sender
+     */
+    public void invalidate(CommandSender sender) {
+        synchronized (entries) {
+            entries.remove(SenderKey.of(sender));
+        }
+    }
+
+    /**
+     * Drops every cached completion.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return how many completions were answered with the cached list for the same prefix
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many completions were answered by narrowing the cached list for a shorter prefix
+     */
+    public long getNarrowed() {
+        return narrowed.sum();
+    }
+
+    /**
+     * @return how many completions walked the tree
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static final class Entry {
+        final TreeVersion version;
+        final long generation;
+        final long createdAt;
+        final String[] context;
+        final String prefix;
+        final List<String> result;
+
+        Entry(TreeVersion version, long generation, long createdAt, String[] context, String prefix, List<String> result) {
+            this.version = version;
+            this.generation = generation;
+            this.createdAt = createdAt;
+            this.context = context;
+            this.prefix = prefix;
+            this.result = result;
+        }
+
+        boolean hasContext(List<String> args) {
+            if (args.size() - 1 != context.length) return false;
+            for (int i = 0; i < context.length; i++) {
+                if (!context[i].equals(args.get(i))) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.lilbrocodes.commander.api.wrapper;
+
+import org.bukkit.command.CommandSender;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandActionNode;
+import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.ExecutorNode;
+import org.lilbrocodes.commander.api.executor.PermissionCache;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the automatic help listing and help tree of a command as single multi-line messages.
+ * For frozen trees, every rendered message is cached per label and per set of visible nodes,
+ * so senders with the same permissions share one pre-rendered string. Only the nodes a message shows are checked for its key,
+ * the children of the root for the listing and the visible part of the tree for the tree.
+ */
+@SuppressWarnings("unused")
+public class HelpRenderer {
+    private static final int MAX_CACHED = 64;
+
+    private final CommandGroupNode root;
+    private final PermissionCache permissionCache;
+    private final boolean hasHelpSubcommand;
+    private final Map<Key, String> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /**
+     * Creates a new HelpRenderer.
+     *
+     * @param root The root node of the command tree.
+     * @param permissionCache The permission cache of the frozen tree, or null if the tree can still change.
+     */
+    public HelpRenderer(CommandGroupNode root, PermissionCache permissionCache) {
+        this.root = root;
+        this.permissionCache = permissionCache;
+        this.hasHelpSubcommand = root.isFrozen() && hasHelpSubcommand(root);
+    }
+
+    /**
+     * Checks whether the built-in help should handle "help", which is not the case if the tree defines its own help subcommand.
+     *
+     * @return true if the built-in help is active.
+     */
+    public boolean isActive() {
+        return root.isFrozen() ? !hasHelpSubcommand : !hasHelpSubcommand(root);
+    }
+
+    /**
+     * Renders the list of subcommands directly below the root.
+     *
+     * @param sender The command sender the listing is for.
+     * @param label The label used to execute the command.
+     * @return The multi-line listing.
+     */
+    public String listing(CommandSender sender, String label) {
+        return render(sender, label, false);
+    }
+
+    /**
+     * Renders the full command tree.
+     *
+     * @param sender The command sender the tree is for.
+     * @param label The label used to execute the command.
+     * @return The multi-line tree.
+     */
+    public String tree(CommandSender sender, String label) {
+        return render(sender, label, true);
+    }
+
+    /**
+     * Drops every cached message.
+     */
+    public void invalidate() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private String render(CommandSender sender, String label, boolean tree) {
+        if (permissionCache == null) {
+            return tree ? renderTree(sender, null, label) : renderListing(sender, null, label);
+        }
+
+        PermissionCache.Snapshot permissions = permissionCache.of(sender);
+        Key key = new Key(tree, label, visibility(permissions, tree));
+        String rendered;
+        synchronized (cache) {
+            rendered = cache.get(key);
+        }
+        if (rendered != null) return rendered;
+
+        rendered = tree ? renderTree(sender, permissions, label) : renderListing(sender, permissions, label);
+        synchronized (cache) {
+            cache.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    private String renderListing(CommandSender sender, PermissionCache.Snapshot permissions, String label) {
+        StringBuilder out = new StringBuilder("§eAvailable subcommands:");
+        for (ExecutorNode<?> child : root.getChildren()) {
+            if (!canSee(sender, permissions, child)) continue;
+
+            out.append("\n§7- /").append(label).append(' ').append(child.getName());
+            if (child instanceof CommandActionNode paramNode) {
+                for (TypedParameter arg : paramNode.getArguments()) {
+                    out.append(" §8<").append(arg.name()).append(">§7");
+                }
+            }
+            out.append(" §f- ").append(child.getDescription());
+        }
+        out.append('\n').append(String.format("Use '§7/%s help tree§r' for more details.", root.getName()));
+        return out.toString();
+    }
+
+    private String renderTree(CommandSender sender, PermissionCache.Snapshot permissions, String label) {
+        StringBuilder out = new StringBuilder("§eCommand Tree:");
+        appendTree(out, sender, permissions, root, label, "", true);
+        return out.toString();
+    }
+
+    /**
+     * Appends the command tree recursively to show subcommands and their descriptions.
+     *
+     * @param out The builder to append lines to.
+     * @param sender The command sender the tree is for.
+     * @param permissions The sender's cached permissions, or null to check every node directly.
+     * @param node The current node being processed in the command tree.
+     * @param path The command path to this node.
+     * @param prefix The prefix used for formatting the tree.
+     * @param isLast Indicates whether this is the last child in the tree.
+     */
+    private void appendTree(StringBuilder out, CommandSender sender, PermissionCache.Snapshot permissions,
+                            CommandGroupNode node, String path, String prefix, boolean isLast) {
+        if (!canSee(sender, permissions, node)) return;
+
+        out.append('\n').append(prefix).append(isLast ? "└─ " : "├─ ")
+                .append("§a").append(path).append(" §7- ").append(node.getDescription());
+
+        List<ExecutorNode<?>> visibleChildren = node.getChildren().stream().filter(c -> canSee(sender, permissions, c)).toList();
+        String childPrefix = prefix + (isLast ? "   " : "│  ");
+
+        for (int i = 0; i < visibleChildren.size(); i++) {
+            ExecutorNode<?> child = visibleChildren.get(i);
+            boolean lastChild = (visibleChildren.size() - 1) == i;
+
+            if (child instanceof CommandGroupNode parentChild) {
+                appendTree(out, sender, permissions, parentChild, path + " " + child.getName(), childPrefix, lastChild);
+            } else if (child instanceof CommandActionNode paramChild) {
+                out.append('\n').append(childPrefix).append(lastChild ? "└─ " : "├─ ")
+                        .append("§b").append(path).append(' ').append(child.getName());
+
+                List<TypedParameter> arguments = paramChild.getArguments();
+                if (!arguments.isEmpty()) {
+                    out.append(" §8");
+                    for (TypedParameter arg : arguments) {
+                        out.append('<').append(arg.name()).append(':').append(arg.type().name().toLowerCase()).append('>');
+                    }
+                }
+                out.append(" §7- ").append(paramChild.getDescription());
+            }
+        }
+    }
+
+    /**
+     * Records whether each node the message would show is visible, in the order it is rendered.
+     * The tree is frozen, so equal bits always produce the same message.
+     */
+    private BitSet visibility(PermissionCache.Snapshot permissions, boolean tree) {
+        BitSet bits = new BitSet();
+        if (!tree) {
+            visibility(permissions, root, false, bits, 0);
+        } else if (permissions.has(root)) {
+            bits.set(0);
+            visibility(permissions, root, true, bits, 1);
+        }
+        return bits;
+    }
+
+    private static int visibility(PermissionCache.Snapshot permissions, CommandGroupNode node, boolean recurse, BitSet bits, int index) {
+        for (ExecutorNode<?> child : node.getChildren()) {
+            boolean visible = permissions.has(child);
+            if (visible) bits.set(index);
+            index++;
+            if (recurse && visible && child instanceof CommandGroupNode group) index = visibility(permissions, group, true, bits, index);
+        }
+        return index;
+    }
+
+    private static boolean canSee(CommandSender sender, PermissionCache.Snapshot permissions, ExecutorNode<?> node) {
+        return permissions != null ? permissions.has(node) : node.hasPermission(sender);
+    }
+
+    private static boolean hasHelpSubcommand(CommandGroupNode node) {
+        for (ExecutorNode<?> subNode : node.getChildren()) {
+            if (subNode.getName().equals("help")) return true;
+            else if (subNode instanceof CommandGroupNode parentNode && hasHelpSubcommand(parentNode)) return true;
+        }
+        return false;
+    }
+
+    private static final class Key {
+        private final boolean tree;
+        private final String label;
+        private final BitSet visibility;
+        private final int hash;
+
+        private Key(boolean tree, String label, BitSet visibility) {
+            this.tree = tree;
+            this.label = label;
+            this.visibility = visibility;
+            this.hash = (Boolean.hashCode(tree) * 31 + label.hashCode()) * 31 + visibility.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && tree == other.tree && label.equals(other.label) && visibility.equals(other.visibility);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -2,19 +2,32 @@ package org.lilbrocodes.commander.api.wrapper;
 
 import org.bukkit.command.*;
 import org.jetbrains.annotations.NotNull;
+import org.lilbrocodes.commander.api.executor.DispatchTable;
 import org.lilbrocodes.commander.api.executor.ExecutorNode;
+import org.lilbrocodes.commander.api.executor.PermissionCache;
 import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.TreeVersion;
+import org.lilbrocodes.commander.api.executor.VersionedTree;
+import org.lilbrocodes.commander.api.util.PrefixIndex;
+import org.lilbrocodes.commander.api.util.SenderKey;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Stream;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Wrapper class for handling tab completion of commands based on the command tree structure.
  */
 @SuppressWarnings("unused")
 public class TabCompleterWrapper implements TabCompleter {
-    private final ExecutorNode<CommandGroupNode> root;
+    private static final List<String> HELP = List.of("help");
+    private static final List<String> HELP_TREE = List.of("tree");
+    private static final List<String> HELP_TREE_STATS = List.of("tree", "stats");
+
+    private final VersionedTree tree;
+    private final AsyncCompletion async;
+    private final CompletionCache cache;
+    private final Map<Object, Future<List<String>>> pending = new ConcurrentHashMap<>();
+    private final Map<Object, LastResult> lastResults;
 
     /**
      * Creates a new TabCompleterWrapper.
@@ -22,11 +35,63 @@ public class TabCompleterWrapper implements TabCompleter {
      * @param root The root executor node, representing the root of the command tree.
      */
     public TabCompleterWrapper(ExecutorNode<CommandGroupNode> root) {
-        this.root = root;
+        this(root, null);
+    }
+
+    /**
+     * Creates a new TabCompleterWrapper that computes thread-safe completions on a worker pool.
+     *
+     * @param root The root executor node, representing the root of the command tree.
+     * @param async The async completion settings, or null to always complete on the calling thread.
+     */
+    public TabCompleterWrapper(ExecutorNode<CommandGroupNode> root, AsyncCompletion async) {
+        this(root, async, null);
+    }
+
+    /**
+     * Creates a new TabCompleterWrapper that hides subcommands the sender has no permission for.
+     *
+     * @param root The root executor node, representing the root of the command tree.
+     * @param async The async completion settings, or null to always complete on the calling thread.
+     * @param permissionCache The permission cache of the frozen tree, or null to suggest every subcommand.
+     */
+    public TabCompleterWrapper(ExecutorNode<CommandGroupNode> root, AsyncCompletion async, PermissionCache permissionCache) {
+        this(new VersionedTree(new TreeVersion(0, root, permissionCache != null ? permissionCache.getTable() : null, permissionCache)), async);
+    }
+
+    /**
+     * Creates a new TabCompleterWrapper that always completes against the current version of a replaceable tree.
+     *
+     * @param tree The holder of the current tree.
+     * @param async The async completion settings, or null to always complete on the calling thread.
+     */
+    public TabCompleterWrapper(VersionedTree tree, AsyncCompletion async) {
+        this(tree, async, (CompletionCache) null);
+    }
+
+    /**
+     * Creates a new TabCompleterWrapper that reuses completions across repeated Tab presses and keystrokes.
+     *
+     * @param tree The holder of the current tree.
+     * @param async The async completion settings, or null to always complete on the calling thread.
+     * @param cache The completion cache, or null to complete from the tree every time.
+     */
+    public TabCompleterWrapper(VersionedTree tree, AsyncCompletion async, CompletionCache cache) {
+        this.tree = tree;
+        this.async = async;
+        this.cache = cache;
+        int maxSenders = async == null ? 0 : async.getMaxSenders();
+        this.lastResults = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, LastResult> eldest) {
+                return size() > maxSenders;
+            }
+        };
     }
 
     /**
      * Handles tab completion for a command based on the current input and the command tree structure.
+     * With async completion, the calling thread still waits for the worker, but at most for the deadline, see {@link AsyncCompletion}.
      *
      * @param sender The command sender requesting tab completion.
      * @param cmd The command being completed.
@@ -36,13 +101,103 @@ public class TabCompleterWrapper implements TabCompleter {
      */
     @Override
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String alias, String[] args) {
-        return Stream.concat(
-                root.tabComplete(sender, Arrays.asList(args)).stream(),
-                args.length == 1 ?
-                        Stream.of("help") :
-                        args.length >= 1 && args[0].equals("help") ?
-                                Stream.of("tree") :
-                                Stream.empty()
-        ).toList();
-    }
-}
\ No newline at end of file
+        List<String> argList = Arrays.asList(args);
+        TreeVersion version = tree.current();
+        if (async == null || !version.getRoot().canCompleteAsync(argList)) {
+            return complete(sender, version, argList);
+        }
+
+        Object key = SenderKey.of(sender);
+        Future<List<String>> future = async.getPool().submit(() -> {
+            List<String> result = complete(sender, version, argList);
+            remember(key, args.length, result);
+            return result;
+        });
+        Future<List<String>> stale = pending.put(key, future);
+        // Not interrupted, suppliers may not expect it and a late result still fills the fallback
+        if (stale != null) stale.cancel(false);
+
+        try {
+            return future.get(async.getDeadlineNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The worker keeps running and stores its result for the next keystroke
+            return fallback(key, args);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback(key, args);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tab completion failed", e.getCause());
+        } catch (CancellationException e) {
+            return fallback(key, args);
+        } finally {
+            if (future.isDone()) pending.remove(key, future);
+        }
+    }
+
+    private List<String> complete(CommandSender sender, TreeVersion version, List<String> args) {
+        ExecutorNode<CommandGroupNode> root = version.getRoot();
+        List<String> completions = cache != null
+                ? cache.get(sender, version, args, () -> filterPermitted(sender, version.getPermissionCache(), args, root.tabComplete(sender, args)))
+                : filterPermitted(sender, version.getPermissionCache(), args, root.tabComplete(sender, args));
+
+        List<String> builtIn = args.size() == 1 ? HELP :
+                args.size() >= 1 && args.get(0).equals("help") ? root.getMetrics() != null ? HELP_TREE_STATS : HELP_TREE :
+                        Collections.emptyList();
+        if (builtIn.isEmpty()) return completions;
+
+        List<String> result = new ArrayList<>(completions.size() + builtIn.size());
+        result.addAll(completions);
+        result.addAll(builtIn);
+        return result;
+    }
+
+    /**
+     * Removes subcommand names the sender cannot use, if the arguments are completing a subcommand literal.
+     */
+    private List<String> filterPermitted(CommandSender sender, PermissionCache permissionCache, List<String> args, List<String> completions) {
+        if (permissionCache == null || completions.isEmpty() || args.isEmpty()) return completions;
+
+        DispatchTable table = permissionCache.getTable();
+        int group = table.resolve(args, args.size() - 1);
+        if (group < 0 || !table.isGroup(group)) return completions;
+
+        PermissionCache.Snapshot permissions = permissionCache.of(sender);
+        List<String> permitted = null;
+        for (int i = 0; i < completions.size(); i++) {
+            String completion = completions.get(i);
+            int child = table.lookup(group, completion);
+            boolean allowed = child < 0 || permissions.has(child);
+
+            if (!allowed && permitted == null) {
+                permitted = new ArrayList<>(completions.subList(0, i));
+            } else if (allowed && permitted != null) {
+                permitted.add(completion);
+            }
+        }
+        return permitted != null ? permitted : completions;
+    }
+
+    private void remember(Object key, int argCount, List<String> result) {
+        synchronized (lastResults) {
+            lastResults.put(key, new LastResult(argCount, result));
+        }
+    }
+
+    /**
+     * Returns the last completed result for this sender, narrowed to what is typed now, if it was for the same argument position.
+     */
+    private List<String> fallback(Object key, String[] args) {
+        LastResult last;
+        synchronized (lastResults) {
+            last = lastResults.get(key);
+        }
+        if (last == null || last.argCount != args.length || args.length == 0) return Collections.emptyList();
+
+        List<String> narrowed = new ArrayList<>();
+        PrefixIndex.scan(last.result, args[args.length - 1], narrowed);
+        return narrowed;
+    }
+
+    private record LastResult(int argCount, List<String> result) {
+    }
+}
@@ -0,0 +1,116 @@
+package org.lilbrocodes.commander.api.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Publishes from several threads and reads the files back with {@link AuditReader}.
+ */
+class AuditJournalTest {
+    private static final int THREADS = 4;
+    private static final int RECORDS = 3000;
+    private static final String LARGE = "x".repeat(40 * 1024); // Larger than one chunk of the writer
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackEveryRecordAcrossRotatedFiles() throws Exception {
+        AuditJournal journal = AuditJournal.open(directory, 1 << 16, 64 * 1024);
+        List<List<AuditRecord>> accepted = publish(journal, RECORDS, null);
+        journal.close();
+
+        int total = accepted.stream().mapToInt(List::size).sum();
+        assertEquals(THREADS * RECORDS, total, "the ring is large enough to take every record");
+        assertEquals(0, journal.getDropped());
+        assertEquals(total, journal.getWritten());
+        assertNull(journal.getLastError());
+        assertTrue(AuditReader.files(directory).size() > 1, "the journal rotated");
+
+        assertReadBack(accepted);
+    }
+
+    @Test
+    void writesEveryAcceptedRecordWhenClosedWhilePublishing() throws Exception {
+        AuditJournal journal = AuditJournal.open(directory, 256, 64 * 1024);
+        CountDownLatch started = new CountDownLatch(THREADS);
+        List<List<AuditRecord>> accepted = publish(journal, RECORDS, started);
+
+        int total = accepted.stream().mapToInt(List::size).sum();
+        assertEquals(THREADS * RECORDS, total + journal.getDropped(), "every record is either written or counted as dropped");
+        assertEquals(total, journal.getWritten());
+        assertFalse(journal.publish(record(0, 0, "")), "closed journals reject records");
+
+        assertReadBack(accepted);
+    }
+
+    /**
+     * Publishes from every thread, closing the journal halfway through if {@code closeAfterStart} is given.
+     *
+     * @return the records each thread got accepted, in the order it published them
+     */
+    private static List<List<AuditRecord>> publish(AuditJournal journal, int records, CountDownLatch closeAfterStart) throws InterruptedException {
+        List<List<AuditRecord>> accepted = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<AuditRecord> own = Collections.synchronizedList(new ArrayList<>());
+            accepted.add(own);
+            int thread = t;
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < records; i++) {
+                    if (i == records / 2 && closeAfterStart != null) closeAfterStart.countDown();
+                    AuditRecord record = record(thread, i, i % 500 == 0 ? LARGE : "arg" + i);
+                    if (journal.publish(record)) own.add(record);
+                }
+            });
+            threads.add(publisher);
+            publisher.start();
+        }
+
+        if (closeAfterStart != null) {
+            closeAfterStart.await();
+            journal.close();
+        }
+        for (Thread publisher : threads) {
+            publisher.join();
+        }
+        return accepted;
+    }
+
+    private void assertReadBack(List<List<AuditRecord>> accepted) throws IOException {
+        List<List<AuditRecord>> read = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            read.add(new ArrayList<>());
+        }
+        try (Stream<AuditRecord> records = AuditReader.stream(directory)) {
+            records.forEach(record -> read.get(Integer.parseInt(record.sender().substring(1))).add(record));
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            List<AuditRecord> expected = accepted.get(t);
+            List<AuditRecord> actual = read.get(t);
+            assertEquals(expected.size(), actual.size(), "records of thread " + t);
+            for (int i = 0; i < expected.size(); i++) {
+                // Each thread's records keep their order, since the ring hands them out in the order they were claimed
+                assertEquals(expected.get(i).time(), actual.get(i).time());
+                assertEquals(expected.get(i).commandLine(), actual.get(i).commandLine());
+                assertEquals(expected.get(i).outcome(), actual.get(i).outcome());
+            }
+        }
+    }
+
+    private static AuditRecord record(int thread, int sequence, String arg) {
+        return new AuditRecord(sequence, 1000, "t" + thread, null, "warp", "set",
+                new String[]{"set", arg}, AuditOutcome.SUCCESS, null);
+    }
+}
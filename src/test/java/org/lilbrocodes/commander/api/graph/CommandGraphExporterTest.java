@@ -0,0 +1,202 @@
+package org.lilbrocodes.commander.api.graph;
+
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+import org.lilbrocodes.commander.api.argument.ParameterType;
+import org.lilbrocodes.commander.api.argument.TypedParameter;
+import org.lilbrocodes.commander.api.executor.CommandActionNode;
+import org.lilbrocodes.commander.api.executor.CommandGroupNode;
+import org.lilbrocodes.commander.api.executor.CommandHybridNode;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports small trees and writes them into a {@link FakeSink}, the way a Brigadier dispatcher would receive them.
+ */
+class CommandGraphExporterTest {
+    private enum Mode { ON, OFF }
+
+    private enum Color { RED, GREEN, BLUE }
+
+    @Test
+    void exportsGroupsAndSubcommandsAsLiteralsAndParametersAsArguments() {
+        CommandGroupNode root = new CommandGroupNode("warp", "", "Warps");
+        root.addChild(new CommandActionNode("set", "", "Warps", List.of(
+                new TypedParameter("name", ParameterType.STRING),
+                new TypedParameter("radius", ParameterType.INT))));
+
+        FakeNode warp = write(export(root));
+        assertEquals(GraphNode.Kind.LITERAL, warp.node.kind());
+        assertEquals("warp", warp.node.name());
+        assertNull(warp.node.parser());
+
+        FakeNode set = warp.child("set");
+        assertEquals(GraphNode.Kind.LITERAL, set.node.kind());
+
+        FakeNode name = set.child("name");
+        assertEquals(GraphNode.Kind.ARGUMENT, name.node.kind());
+        assertEquals(ParserType.WORD, name.node.parser());
+
+        FakeNode radius = name.child("radius");
+        assertEquals(GraphNode.Kind.ARGUMENT, radius.node.kind());
+        assertEquals(ParserType.INTEGER, radius.node.parser());
+        assertTrue(radius.children.isEmpty());
+    }
+
+    @Test
+    void marksNodesTheCommandMayEndAt() {
+        CommandGroupNode root = new CommandGroupNode("kit", "", "Kits");
+        CommandHybridNode list = new CommandHybridNode("list", "", "Kits");
+        list.addChild(new CommandActionNode("all", "", "Kits", List.of()));
+        root.addChildren(list, new CommandActionNode("give", "", "Kits", List.of(new TypedParameter("kit", ParameterType.STRING))));
+
+        FakeNode kit = write(export(root));
+        assertFalse(kit.node.executable(), "groups need a subcommand");
+        assertTrue(kit.child("list").node.executable(), "hybrids run without a subcommand");
+        assertTrue(kit.child("list").child("all").node.executable(), "actions without parameters run as they are");
+        assertFalse(kit.child("give").node.executable(), "actions with parameters need them");
+        assertTrue(kit.child("give").child("kit").node.executable(), "actions run after their last parameter");
+    }
+
+    @Test
+    void sharesTheNodesFollowingEnumLiterals() {
+        CommandGroupNode root = new CommandGroupNode("light", "", "Lights");
+        root.addChild(new CommandActionNode("set", "", "Lights", List.of(
+                new TypedParameter("mode", Mode.class),
+                new TypedParameter("level", ParameterType.INT))));
+
+        FakeSink sink = new FakeSink();
+        FakeNode set = export(root).writeTo(sink).child("set");
+        FakeNode on = set.child("ON");
+        FakeNode off = set.child("OFF");
+        assertEquals(GraphNode.Kind.LITERAL, on.node.kind());
+        assertFalse(on.node.executable());
+        assertSame(on.child("level"), off.child("level"));
+        assertEquals(1, sink.created.stream().filter(node -> node.node.name().equals("level")).count());
+    }
+
+    @Test
+    void asksTheServerOnlyForServerSideSuggestions() {
+        CommandGroupNode root = new CommandGroupNode("warp", "", "Warps");
+        root.addChild(new CommandActionNode("go", "", "Warps", List.of(
+                new TypedParameter("warp", ParameterType.STRING, () -> List.of("spawn", "shop")),
+                new TypedParameter("count", ParameterType.INT),
+                new TypedParameter("silent", ParameterType.BOOL),
+                new TypedParameter("color", Color.class))));
+
+        FakeNode go = write(new CommandGraphExporter().withoutBuiltInHelp().withMaxEnumLiterals(2).export(root, "warp", node -> true)).child("go");
+        FakeNode warp = go.child("warp");
+        FakeNode count = warp.child("count");
+        FakeNode silent = count.child("silent");
+        FakeNode color = silent.child("color");
+        assertTrue(warp.node.askServer());
+        assertFalse(count.node.askServer());
+        assertFalse(silent.node.askServer());
+        assertEquals(ParserType.WORD, color.node.parser(), "enums above the literal limit are words");
+        assertTrue(color.node.askServer());
+    }
+
+    @Test
+    void leavesOutNodesTheSenderCannotUse() {
+        CommandGroupNode root = new CommandGroupNode("warp", "", "Warps");
+        root.addChildren(new CommandActionNode("list", "", "Warps", List.of()),
+                new CommandActionNode("delete", "", "Warps", List.of()).withPermission("warps.admin"));
+
+        CommandGraphExporter exporter = new CommandGraphExporter().withoutBuiltInHelp();
+        FakeNode player = write(exporter.export(root, "warp", sender("Warps.warp", "Warps.list")));
+        assertNotNull(player.find("list"));
+        assertNull(player.find("delete"));
+
+        FakeNode admin = write(exporter.export(root, "warp", sender("Warps.warp", "Warps.list", "warps.admin")));
+        assertNotNull(admin.find("delete"));
+
+        assertNull(exporter.export(root, "warp", sender("Warps.list")), "the root is checked as well");
+    }
+
+    @Test
+    void mapsRangesAndListsToWhatTheClientCanRead() {
+        CommandGroupNode root = new CommandGroupNode("zone", "", "Zones");
+        root.addChild(new CommandActionNode("fill", "", "Zones", List.of(
+                new TypedParameter("ids", ParameterType.INT_LIST),
+                new TypedParameter("height", ParameterType.INT_RANGE),
+                new TypedParameter("scale", ParameterType.DOUBLE_RANGE),
+                new TypedParameter("offset", ParameterType.SHORT),
+                new TypedParameter("tags", ParameterType.LONG_LIST))));
+
+        FakeNode ids = write(export(root)).child("fill").child("ids");
+        FakeNode height = ids.child("height");
+        FakeNode scale = height.child("scale");
+        FakeNode offset = scale.child("offset");
+        FakeNode tags = offset.child("tags");
+        assertEquals(ParserType.WORD, ids.node.parser(), "lists followed by a parameter stop at the next space");
+        assertEquals(ParserType.WORD, height.node.parser(), "the client would accept open ranges such as ..5");
+        assertEquals(ParserType.WORD, scale.node.parser());
+        assertEquals(ParserType.INTEGER, offset.node.parser());
+        assertEquals((int) Short.MIN_VALUE, offset.node.min());
+        assertEquals((int) Short.MAX_VALUE, offset.node.max());
+        assertEquals(ParserType.GREEDY_PHRASE, tags.node.parser(), "a last list may contain spaces after its commas");
+    }
+
+    private static GraphNode export(CommandGroupNode root) {
+        return new CommandGraphExporter().withoutBuiltInHelp().export(root, root.getName(), node -> true);
+    }
+
+    private static FakeNode write(GraphNode node) {
+        return node.writeTo(new FakeSink());
+    }
+
+    /**
+     * A sender with exactly the given permissions.
+     */
+    private static CommandSender sender(String... permissions) {
+        Set<String> granted = Set.of(permissions);
+        return (CommandSender) Proxy.newProxyInstance(CommandSender.class.getClassLoader(), new Class<?>[]{CommandSender.class}, (proxy, method, args) -> {
+            if (method.getName().equals("hasPermission") && args[0] instanceof String permission) return granted.contains(permission);
+            if (method.getReturnType() == boolean.class) return false;
+            return null;
+        });
+    }
+
+    private static final class FakeSink implements GraphSink<FakeNode> {
+        final List<FakeNode> created = new ArrayList<>();
+
+        @Override
+        public FakeNode create(GraphNode node) {
+            FakeNode created = new FakeNode(node);
+            this.created.add(created);
+            return created;
+        }
+
+        @Override
+        public void addChild(FakeNode parent, FakeNode child) {
+            parent.children.add(child);
+        }
+    }
+
+    private static final class FakeNode {
+        final GraphNode node;
+        final List<FakeNode> children = new ArrayList<>();
+
+        FakeNode(GraphNode node) {
+            this.node = node;
+        }
+
+        FakeNode find(String name) {
+            for (FakeNode child : children) {
+                if (child.node.name().equals(name)) return child;
+            }
+            return null;
+        }
+
+        FakeNode child(String name) {
+            FakeNode child = find(name);
+            assertNotNull(child, "missing child " + name + " of " + node.name());
+            return child;
+        }
+    }
+}